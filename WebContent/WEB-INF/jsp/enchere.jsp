@@ -102,8 +102,8 @@
 																		
 												<div>
 													<label>Meilleure offre :</label>
-													<span class="prix">${article.prix_vente} points</span>
-													<span>${encherisseur}</span>
+													<span class="prix" id="meilleurPrix" data-prix="${article.prix_vente}">${article.prix_vente} points</span>
+													<span id="meilleurEncherisseur">${encherisseur}</span>
 												</div>
 																					
 												<div>
@@ -146,6 +146,11 @@
 															<input type="number" id="prix_vente" name="prix_vente" value="${article.prix_vente}" min="${article.prix_vente}" max="10000" step="5"  <%=disabled %>>
 															<label>Points</label>
 														</div>
+														<div>
+															<label for="montant_maximum">Enchérir automatiquement jusqu'à :</label>
+															<input type="number" id="montant_maximum" name="montant_maximum" min="${article.prix_vente}" max="10000" step="5"  <%=disabled %>>
+															<label>Points (facultatif)</label>
+														</div>
 														<button type="submit" class="btn btn-primary btn-md">Enchérir</button>
 													</c:if>
 												</div>
@@ -189,6 +194,28 @@
 					document.formSaisie.submit();
 				}
 			}
+			
+			// met à jour la meilleure offre à chaque enchère, sans recharger la page
+			if (window.EventSource && ${article.no_article > 0}) {
+				var flux = new EventSource("enchere/flux?no_article=${article.no_article}");
+				flux.addEventListener("prix", function(e) {
+					var offre = JSON.parse(e.data);
+					var prix = document.getElementById('meilleurPrix');
+					// les prix ne font que monter : un état plus ancien reçu en retard est ignoré
+					if (offre.prix <= Number(prix.getAttribute('data-prix'))) {
+						return;
+					}
+					prix.setAttribute('data-prix', offre.prix);
+					prix.textContent = offre.prix + " points";
+					document.getElementById('meilleurEncherisseur').textContent = offre.encherisseur ? "par " + offre.encherisseur : "";
+					["prix_vente", "montant_maximum"].forEach(function(id) {
+						var saisie = document.getElementById(id);
+						if (saisie) {
+							saisie.min = offre.prix;
+						}
+					});
+				});
+			}
 		</script>
 		
 	</body>
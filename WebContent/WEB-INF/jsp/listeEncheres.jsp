@@ -60,7 +60,7 @@
 			<form class="row mx-md-5" action="<%=request.getContextPath()%>/ListeEncheres" method="post">
 				<div class="col-12 col-md-6 px-md-5">
 					<c:if test="${!empty sessionScope.utilisateur}">
-					<p>${ sessionScope.utilisateur.prenom } ${ sessionScope.utilisateur.nom } : vous êtes connecté!</p>
+					<p>${ sessionScope.utilisateur.pseudo } : vous êtes connecté!</p>
 					</c:if>
 					<c:if test="${empty sessionScope.utilisateur}">
 					<p>Vous êtes déconnecté!</p> 
@@ -179,23 +179,23 @@
 										<!--Title-->
 										<h3 class="card-title mt-2 mt-md-0">
 										<a href="
-										<c:if test="${enchere.vendeur.no_utilisateur.equals(sessionScope.utilisateur.no_utilisateur)}">
+										<c:if test="${enchere.no_vendeur.equals(sessionScope.utilisateur.no_utilisateur)}">
 										<%=request.getContextPath()%>/vente?no_article=${enchere.no_article}
 										</c:if>
-										<c:if test="${!enchere.vendeur.no_utilisateur.equals(sessionScope.utilisateur.no_utilisateur)}">
+										<c:if test="${!enchere.no_vendeur.equals(sessionScope.utilisateur.no_utilisateur)}">
 										<%=request.getContextPath()%>/enchere?no_article=${enchere.no_article}
 										</c:if>
 										">
 										${enchere.nom_article}</a></h3>
 										<!--Text-->
 										<c:if test="${enchere.prix_initial > enchere.prix_vente}">
-										<p class="card-text">Prix: ${enchere.prix_initial}</p>
+										<p class="card-text">Prix: <span class="prix-article" data-no-article="${enchere.no_article}">${enchere.prix_initial}</span></p>
 										</c:if>
 										<c:if test="${enchere.prix_vente > enchere.prix_initial}">
-										<p class="card-text">Prix: ${enchere.prix_vente}</p>
+										<p class="card-text">Prix: <span class="prix-article" data-no-article="${enchere.no_article}">${enchere.prix_vente}</span></p>
 										</c:if>
 										<p class="card-text">Fin de l'enchère: ${enchere.date_fin_encheres}</p>
-										<p class="card-text">Vendeur : <a href="<%=request.getContextPath()%>/profil?user=${enchere.vendeur.no_utilisateur}">${enchere.vendeur.pseudo}</a></p>    
+										<p class="card-text">Vendeur : <a href="<%=request.getContextPath()%>/profil?user=${enchere.no_vendeur}">${enchere.pseudo_vendeur}</a></p>    
 									</div>			
 								</div>
 							</div>
@@ -207,6 +207,27 @@
 				</c:if>
 			</div>
 			<!-- Fin Liste des enchères -->
+			
+			<!-- Pagination : rejoue la recherche courante à partir du curseur -->
+			<c:if test="${!empty page.precedent || !empty page.suivant}">
+				<div class="row justify-content-center mb-5">
+					<c:forEach var="curseur" items="${[page.precedent, page.suivant]}">
+						<c:if test="${!empty curseur}">
+							<form class="mx-2" action="<%=request.getContextPath()%>/ListeEncheres" method="post">
+								<input type="hidden" name="article" value="${fn:escapeXml(nomArticleSaisi)}">
+								<input type="hidden" name="categorie" value="${empty categorieSelectionnee ? -1 : categorieSelectionnee.no_categorie}">
+								<c:if test="${!empty choixUtilisateur}"><input type="hidden" name="choix" value="${fn:escapeXml(choixUtilisateur)}"></c:if>
+								<c:if test="${!empty choixAchat}"><input type="hidden" name="choixAchat" value="${fn:escapeXml(choixAchat)}"></c:if>
+								<c:if test="${!empty choixVente}"><input type="hidden" name="choixVente" value="${fn:escapeXml(choixVente)}"></c:if>
+								<input type="hidden" name="curseurCle" value="${fn:escapeXml(curseur.cle)}">
+								<input type="hidden" name="curseurNo" value="${curseur.no_article}">
+								<input type="hidden" name="sens" value="${curseur.precedent ? 'precedent' : 'suivant'}">
+								<button type="submit" class="btn btn-outline-primary">${curseur.precedent ? '&laquo; Précédent' : 'Suivant &raquo;'}</button>
+							</form>
+						</c:if>
+					</c:forEach>
+				</div>
+			</c:if>
 	</main>
 		
 	<!-- Pied de page -->
@@ -271,6 +292,24 @@
 		$('#encheresEnCours').prop('checked', false);
 		$('#encheresRemportees').prop('checked', false);
  	});
+    
+    /* Met à jour les prix affichés : seuls les prix modifiés depuis la version connue sont renvoyés */
+    var versionPrix = ${empty versionPrix ? 0 : versionPrix};
+    var articlesAffiches = $('.prix-article').map(function(){ return $(this).data('no-article'); }).get();
+    function actualiserPrix() {
+		$.getJSON('<%=request.getContextPath()%>/ListeEncheres/prix?' + $.param({version: versionPrix, no_article: articlesAffiches}, true))
+		.done(function(reponse){
+			versionPrix = reponse.version;
+			$.each(reponse.prix, function(i, changement){
+				$('.prix-article[data-no-article="' + changement.no_article + '"]')
+					.text(changement.prix)
+					.attr('title', changement.encherisseur ? 'par ' + changement.encherisseur : '');
+			});
+		});
+    }
+    if (articlesAffiches.length > 0) {
+		setInterval(actualiserPrix, 5000);
+    }
     </script>
 	</body>
 </html>
\ No newline at end of file
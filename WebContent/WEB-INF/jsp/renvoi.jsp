@@ -61,7 +61,7 @@
       </form>
       <br>
       <c:if test="${!empty email}">
-		<p>Votre mot de passe a été trouvé et sera bien envoyé à l'adresse : "${email}" lorsque la fonction sera disponible ;-)</p>
+		<p>Votre mot de passe a été trouvé et va être envoyé à l'adresse : "${email}".</p>
 		<div class="col-4 text-left pl-5">
 			<a href= "${pageContext.request.contextPath}/connexion"><input type="button" class="btn btn-lg btn-primary" value="Se connecter"></a>
 		</div>	
@@ -0,0 +1,36 @@
+package fr.eni.javaee.encheres.lanceur;
+
+import java.util.Hashtable;
+
+import javax.naming.Context;
+import javax.naming.Name;
+import javax.naming.RefAddr;
+import javax.naming.Reference;
+import javax.naming.spi.ObjectFactory;
+
+import org.h2.jdbcx.JdbcConnectionPool;
+
+/**
+ * Fabrique JNDI du pool de connexions H2 déclaré par le Lanceur sous java:comp/env/jdbc/pool_cnx.
+ * Propriétés de la ressource : url, username, password et maxTotal (nombre maximal de connexions).
+ */
+public class FabriqueBaseH2 implements ObjectFactory {
+
+	@Override
+	public Object getObjectInstance(Object obj, Name name, Context nameCtx, Hashtable<?, ?> environment) {
+		Reference reference = (Reference) obj;
+		JdbcConnectionPool pool = JdbcConnectionPool.create(valeur(reference, "url"), valeur(reference, "username"),
+				valeur(reference, "password"));
+		String maxTotal = valeur(reference, "maxTotal");
+		if (maxTotal != null) {
+			pool.setMaxConnections(Integer.parseInt(maxTotal));
+		}
+		return pool;
+	}
+
+	private static String valeur(Reference reference, String propriete) {
+		RefAddr adresse = reference.get(propriete);
+		return adresse == null ? null : (String) adresse.getContent();
+	}
+
+}
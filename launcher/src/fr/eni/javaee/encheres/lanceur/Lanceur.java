@@ -0,0 +1,124 @@
+package fr.eni.javaee.encheres.lanceur;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.logging.Logger;
+
+import javax.sql.DataSource;
+
+import org.apache.catalina.LifecycleException;
+import org.apache.catalina.WebResourceRoot;
+import org.apache.catalina.core.StandardContext;
+import org.apache.catalina.startup.Tomcat;
+import org.apache.catalina.webresources.DirResourceSet;
+import org.apache.catalina.webresources.StandardRoot;
+import org.apache.tomcat.util.descriptor.web.ContextResource;
+import org.apache.tomcat.util.scan.StandardJarScanner;
+import org.h2.tools.RunScript;
+
+/**
+ * Démarre l'application dans un Tomcat embarqué, avec une base H2 en mémoire à la place du pool SQL Server
+ * de META-INF/context.xml : servlets, filtres, écouteur de démarrage et JSP sont ceux du WebContent,
+ * sans déploiement ni serveur externe. Destiné aux tests de charge et aux contrôles de performance.
+ *
+ * Classpath : les classes compilées de l'application, celles de ce dossier (launcher/src) et les jars
+ * tomcat-embed-core, tomcat-embed-el, tomcat-embed-jasper, tomcat-annotations-api, ecj (Tomcat 9) et h2.
+ * launcher/pom.xml les déclare, compile les deux dossiers et démarre le lanceur : mvn compile exec:exec.
+ *
+ * Propriétés système :
+ * encheres.port (8080), encheres.webapp (WebContent), encheres.classes (build/classes, sortie d'Eclipse),
+ * encheres.dal=memoire pour les DAO en mémoire : aucune base n'est alors créée.
+ */
+public class Lanceur {
+
+	// Journal du lanceur seul : les classes de l'application sont chargées par le Tomcat embarqué
+	private static Logger logger = Logger.getLogger("Lanceur");
+
+	// Base en mémoire gardée ouverte jusqu'à l'arrêt de la JVM
+	private static final String URL_BASE = "jdbc:h2:mem:encheres;DB_CLOSE_DELAY=-1";
+	private static final String UTILISATEUR_BASE = "sa";
+	private static final String SCHEMA = "fr/eni/javaee/encheres/dal/jdbc/schema-h2.sql";
+
+	public static void main(String[] args) throws IOException, SQLException, LifecycleException {
+
+		long debut = System.nanoTime();
+		int port = Integer.getInteger("encheres.port", 8080);
+		File webContent = new File(System.getProperty("encheres.webapp", "WebContent")).getAbsoluteFile();
+		File classes = new File(System.getProperty("encheres.classes", "build/classes")).getAbsoluteFile();
+		boolean memoire = "memoire".equals(System.getProperty("encheres.dal"));
+
+		if (!memoire) {
+			// les DAO JDBC écrivent pour H2 (Dialecte)
+			System.setProperty("encheres.dialecte", "h2");
+			creerBase(new File(classes, SCHEMA));
+		}
+
+		Tomcat tomcat = new Tomcat();
+		tomcat.setBaseDir(Files.createTempDirectory("encheres-tomcat").toString());
+		tomcat.setPort(port);
+		tomcat.getConnector();
+		tomcat.getHost().setAutoDeploy(false);
+		tomcat.enableNaming();
+
+		StandardContext contexte = (StandardContext) tomcat.addWebapp("", webContent.getPath());
+		// META-INF/context.xml déclare le pool SQL Server : remplacé par le pool H2
+		contexte.setConfigFile(null);
+		contexte.getNamingResources().addResource(pool());
+
+		// les classes compilées tiennent lieu de WEB-INF/classes : leurs annotations (@WebServlet,
+		// @WebFilter, @WebListener) déclarent servlets, filtres et écouteur
+		WebResourceRoot ressources = new StandardRoot(contexte);
+		ressources.addPreResources(new DirResourceSet(ressources, "/WEB-INF/classes", classes.getPath(), "/"));
+		contexte.setResources(ressources);
+
+		// démarrage rapide : seuls WEB-INF/classes et WEB-INF/lib sont analysés, pas le classpath du lanceur
+		StandardJarScanner analyseur = (StandardJarScanner) contexte.getJarScanner();
+		analyseur.setScanClassPath(false);
+		analyseur.setScanManifest(false);
+
+		Runtime.getRuntime().addShutdownHook(new Thread(() -> arreter(tomcat), "arret-tomcat"));
+		tomcat.start();
+		logger.info("ENI-Encheres démarré sur http://localhost:" + port + "/ en "
+				+ (System.nanoTime() - debut) / 1000000 + " ms" + (memoire ? " (DAO en mémoire)" : " (base H2 en mémoire)"));
+		tomcat.getServer().await();
+	}
+
+	// Crée le schéma dans la base en mémoire, avant que l'application n'ouvre son pool
+	private static void creerBase(File schema) throws IOException, SQLException {
+		try (Connection cn = DriverManager.getConnection(URL_BASE, UTILISATEUR_BASE, "");
+				Reader script = Files.newBufferedReader(schema.toPath(), StandardCharsets.UTF_8)) {
+			RunScript.execute(cn, script);
+		}
+	}
+
+	// Ressource JNDI attendue par ConnectionProvider (java:comp/env/jdbc/pool_cnx)
+	private static ContextResource pool() {
+		ContextResource pool = new ContextResource();
+		pool.setName("jdbc/pool_cnx");
+		pool.setType(DataSource.class.getName());
+		pool.setAuth("Container");
+		pool.setProperty("factory", FabriqueBaseH2.class.getName());
+		pool.setProperty("url", URL_BASE);
+		pool.setProperty("username", UTILISATEUR_BASE);
+		pool.setProperty("password", "");
+		pool.setProperty("maxTotal", "100");
+		return pool;
+	}
+
+	// Arrêt propre : l'écouteur de démarrage enregistre les enchères en attente et arrête la file des courriels
+	private static void arreter(Tomcat tomcat) {
+		try {
+			tomcat.stop();
+			tomcat.destroy();
+		} catch (LifecycleException e) {
+			logger.severe(e.getMessage());
+		}
+	}
+
+}
@@ -2,28 +2,33 @@ package fr.eni.javaee.encheres.bll;
 
 import java.time.LocalDate;
 import java.time.ZoneId;
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
+import java.util.Set;
 
 import fr.eni.javaee.encheres.bo.ArticleVendu;
+import fr.eni.javaee.encheres.bo.Curseur;
+import fr.eni.javaee.encheres.bo.Page;
+import fr.eni.javaee.encheres.bo.Retrait;
 import fr.eni.javaee.encheres.dal.ArticleVenduDAO;
-import fr.eni.javaee.encheres.dal.DAOFactory;
+import fr.eni.javaee.encheres.dal.CritereArticle;
+import fr.eni.javaee.encheres.dal.CritereArticle.Etat;
 import fr.eni.javaee.encheres.messages.BusinessException;
 
 public class ArticleVenduManager {
 	
-	private static ArticleVenduManager instance;
-	private static ArticleVenduDAO DAOArticleVendu;
+	private final ArticleVenduDAO DAOArticleVendu;
+	// Au-delà, la liste de numéros est plus coûteuse que le LIKE (et SQL Server limite à 2100 paramètres)
+	private static final int CANDIDATS_MAX = 1024;
 
-	private ArticleVenduManager() {
-		DAOArticleVendu=DAOFactory.getArticleVenduDAO();
+	ArticleVenduManager(ArticleVenduDAO DAOArticleVendu) {
+		this.DAOArticleVendu=DAOArticleVendu;
 	}
 
+	//Manager construit au démarrage (Registre)
 	public static ArticleVenduManager getInstance() {
-		if (instance == null) {
-			return new ArticleVenduManager();
-		}
-		return instance;
+		return Registre.get().articleVenduManager;
 	}
 	
 	public List<ArticleVendu> getListeArticlesVendu() throws BusinessException {
@@ -31,42 +36,125 @@ public class ArticleVenduManager {
 		return DAOArticleVendu.selectAll();
 	}
 
+	//Vrai si la clé du curseur reçu du client correspond au tri des listes d'articles
+	public boolean isCurseurValide(Curseur curseur) {
+		return curseur != null && new CritereArticle().getTri().accepte(curseur.getCle());
+	}
+
 	public List<ArticleVendu> getListeEncheresEncoursToutes(int no_categorie, String nom_article) throws BusinessException {
 		// Toutes les encheres en cours selon la catégorie de tous les vendeurs
-		return DAOArticleVendu.selectAllEnCours(no_categorie,nom_article);
+		return getPageEncheresEncoursToutes(no_categorie, nom_article, null, 0).getElements();
 	}
 	
 	public List<ArticleVendu> getListeEncheresEncoursAutresVendeurs(int no_utilisateur, int no_categorie, String nom_article) throws BusinessException {
 		//Encheres en-cours sauf celles de l'utilisateur selon la catégorie indiquée
-		return DAOArticleVendu.selectEncheresEnCours(no_utilisateur,no_categorie,nom_article);
+		return getPageEncheresEncoursAutresVendeurs(no_utilisateur, no_categorie, nom_article, null, 0).getElements();
 	}
 
 	
 	public List<ArticleVendu> getListeEncheresEncoursUtilisateur(int no_utilisateur, int no_categorie, String nom_article) throws BusinessException {
 		//Encheres en-cours de l'utilisateur indiqué pour la categorie indiquée
-		return DAOArticleVendu.selectEncheresEnCoursUtilisateur(no_utilisateur,no_categorie,nom_article);
+		return getPageEncheresEncoursUtilisateur(no_utilisateur, no_categorie, nom_article, null, 0).getElements();
 	}
 	
 	public List<ArticleVendu> getListeEncheresRemporteesUtilisateur(int no_utilisateur, int no_categorie, String nom_article) throws BusinessException {
 		//Encheres remportées de l'utilisateur indiqué pour la categorie
-		return DAOArticleVendu.selectEncheresRemporteesUtilisateur(no_utilisateur,no_categorie,nom_article);
+		return getPageEncheresRemporteesUtilisateur(no_utilisateur, no_categorie, nom_article, null, 0).getElements();
 	}
 	
 	public List<ArticleVendu> getListeVentesEncoursUtilisateur(int no_utilisateur, int no_categorie, String nom_article) throws BusinessException {
 		//Ventes en cours de l'utilisateur pour la categorie indiquée
-		return DAOArticleVendu.selectVentesEnCoursUtilisateur(no_utilisateur,no_categorie,nom_article);
+		return getPageVentesEncoursUtilisateur(no_utilisateur, no_categorie, nom_article, null, 0).getElements();
 	}
 	
 	public List<ArticleVendu> getListeVentesAVenirsUtilisateur(int no_utilisateur, int no_categorie, String nom_article) throws BusinessException {
 		//Ventes à venir de l'utilisateur pour la categorie indiquée
-		return DAOArticleVendu.selectVentesAVenirUtilisateur(no_utilisateur,no_categorie,nom_article);
+		return getPageVentesAVenirsUtilisateur(no_utilisateur, no_categorie, nom_article, null, 0).getElements();
 	}
 	
 	public List<ArticleVendu> getListeVentesTermineesUtilisateur(int no_utilisateur, int no_categorie, String nom_article) throws BusinessException {
 		//Ventes fermées de l'utilisateur pour la categorie indiquée
-		return DAOArticleVendu.selectVentesTermineesUtilisateur(no_utilisateur,no_categorie,nom_article);
+		return getPageVentesTermineesUtilisateur(no_utilisateur, no_categorie, nom_article, null, 0).getElements();
 	}
 
+
+	// Variantes paginées : taille articles à partir du curseur, première page si le curseur est null
+	
+	public Page<ArticleVendu> getPageEncheresEncoursToutes(int no_categorie, String nom_article, Curseur curseur, int taille) throws BusinessException {
+		CritereArticle critere = critere(Etat.EN_COURS, no_categorie, nom_article, curseur, taille);
+		return DAOArticleVendu.selectByCritere(critere);
+	}
+	
+	public Page<ArticleVendu> getPageEncheresEncoursAutresVendeurs(int no_utilisateur, int no_categorie, String nom_article, Curseur curseur, int taille) throws BusinessException {
+		CritereArticle critere = critere(Etat.EN_COURS, no_categorie, nom_article, curseur, taille);
+		critere.setNo_vendeur_exclu(no_utilisateur);
+		return DAOArticleVendu.selectByCritere(critere);
+	}
+	
+	public Page<ArticleVendu> getPageEncheresEncoursUtilisateur(int no_utilisateur, int no_categorie, String nom_article, Curseur curseur, int taille) throws BusinessException {
+		CritereArticle critere = critere(Etat.EN_COURS, no_categorie, nom_article, curseur, taille);
+		critere.setNo_encherisseur(no_utilisateur);
+		return DAOArticleVendu.selectByCritere(critere);
+	}
+	
+	public Page<ArticleVendu> getPageEncheresRemporteesUtilisateur(int no_utilisateur, int no_categorie, String nom_article, Curseur curseur, int taille) throws BusinessException {
+		CritereArticle critere = critere(Etat.TERMINEES, no_categorie, nom_article, curseur, taille);
+		critere.setNo_encherisseur(no_utilisateur);
+		critere.setRemportees(true);
+		return DAOArticleVendu.selectByCritere(critere);
+	}
+	
+	public Page<ArticleVendu> getPageVentesEncoursUtilisateur(int no_utilisateur, int no_categorie, String nom_article, Curseur curseur, int taille) throws BusinessException {
+		CritereArticle critere = critere(Etat.EN_COURS, no_categorie, nom_article, curseur, taille);
+		critere.setNo_vendeur(no_utilisateur);
+		return DAOArticleVendu.selectByCritere(critere);
+	}
+	
+	public Page<ArticleVendu> getPageVentesAVenirsUtilisateur(int no_utilisateur, int no_categorie, String nom_article, Curseur curseur, int taille) throws BusinessException {
+		CritereArticle critere = critere(Etat.A_VENIR, no_categorie, nom_article, curseur, taille);
+		critere.setNo_vendeur(no_utilisateur);
+		return DAOArticleVendu.selectByCritere(critere);
+	}
+	
+	public Page<ArticleVendu> getPageVentesTermineesUtilisateur(int no_utilisateur, int no_categorie, String nom_article, Curseur curseur, int taille) throws BusinessException {
+		CritereArticle critere = critere(Etat.TERMINEES, no_categorie, nom_article, curseur, taille);
+		critere.setNo_vendeur(no_utilisateur);
+		return DAOArticleVendu.selectByCritere(critere);
+	}
+	
+	/**
+	 * Critères communs aux listes. Le nom saisi est recherché dans l'index des articles : la base
+	 * ne lit alors que les candidats par clé primaire au lieu de parcourir la table avec un LIKE.
+	 * Tant que l'index n'est pas construit, ou s'il renvoie trop de candidats, le LIKE est conservé.
+	 */
+	private CritereArticle critere(Etat etat, int no_categorie, String nom_article, Curseur curseur, int taille) {
+		
+		CritereArticle critere = new CritereArticle();
+		critere.setEtat(etat);
+		critere.setNo_categorie(no_categorie);
+		critere.setCurseur(curseur);
+		critere.setTaille(taille);
+		
+		if (nom_article != null && !nom_article.trim().isEmpty()) {
+			Set<Integer> candidats = IndexArticles.getInstance().rechercher(nom_article);
+			if (candidats != null && candidats.size() <= CANDIDATS_MAX) {
+				critere.setNo_articles(new ArrayList<>(candidats));
+			} else {
+				critere.setNom_article(nom_article);
+			}
+		}
+		return critere;
+	}
+	
+	//Construit l'index des noms à partir des articles en base
+	public void indexerArticles() throws BusinessException {
+		IndexArticles.getInstance().construire(DAOArticleVendu.selectAll());
+	}
+	
+	public Page<ArticleVendu> getPageArticles(CritereArticle critere) throws BusinessException {
+		// Articles répondant aux critères de recherche (état, vendeur, enchérisseur, catégorie, nom, tri, page)
+		return DAOArticleVendu.selectByCritere(critere);
+	}
 	
 	public ArticleVendu getArticleVendu(int no_article) throws BusinessException {
 		return DAOArticleVendu.selectById(no_article);
@@ -74,46 +162,60 @@ public class ArticleVenduManager {
 	
 	public void createArticleVendu(ArticleVendu articleVendu) throws BusinessException {
 		
-		BusinessException businessException = new BusinessException();
-		
-		this.validerNom(articleVendu.getNom_article(), businessException);
-		this.validerDescription(articleVendu.getNom_article(), businessException);
-		this.validerDates(articleVendu.getDate_debut_encheres(), articleVendu.getDate_fin_encheres(), businessException);
-		this.validerPrixInitial(articleVendu.getPrix_initial(), businessException);
-		this.validerPrixVente(articleVendu.getPrix_vente(), articleVendu.getPrix_initial(), businessException);
-		this.validerUtilisateur(articleVendu.getVendeur().getNo_utilisateur(), businessException);
-		this.validerCategorie(articleVendu.getCategorie().getNo_categorie(), businessException);
+		VALIDATION.valider(articleVendu);
 		
-		if(!businessException.hasErreurs()) {
-			DAOArticleVendu.insert(articleVendu);
-		}
-		else
-		{
-			throw businessException;
-		}
+		DAOArticleVendu.insert(articleVendu);
+		Transaction.apresValidation(() -> {
+			IndexArticles.getInstance().ajouter(articleVendu);
+			CacheRecherches.getInstance().vider();
+		});
 		
 	}
 	
 	public void updateArticleVendu(ArticleVendu articleVendu) throws BusinessException {
 		
-		BusinessException businessException = new BusinessException();
+		VALIDATION.valider(articleVendu);
 		
-		this.validerNom(articleVendu.getNom_article(), businessException);
-		this.validerDescription(articleVendu.getNom_article(), businessException);
-		this.validerDates(articleVendu.getDate_debut_encheres(), articleVendu.getDate_fin_encheres(), businessException);
-		this.validerPrixInitial(articleVendu.getPrix_initial(), businessException);
-		this.validerPrixVente(articleVendu.getPrix_vente(), articleVendu.getPrix_initial(), businessException);
-		this.validerUtilisateur(articleVendu.getVendeur().getNo_utilisateur(), businessException);
-		this.validerCategorie(articleVendu.getCategorie().getNo_categorie(), businessException);
+		DAOArticleVendu.update(articleVendu);
+		Transaction.apresValidation(() -> {
+			IndexArticles.getInstance().ajouter(articleVendu);
+			MoteurEncheres.getInstance().oublier(articleVendu.getNo_article());
+			CacheRecherches.getInstance().vider();
+		});
+
+	}
+	
+	/**
+	 * Enregistre l'article et son adresse de retrait dans une même transaction :
+	 * un article n'est jamais créé ou modifié sans son retrait.
+	 */
+	public void enregistrerVente(ArticleVendu articleVendu, Retrait retrait) throws BusinessException {
 		
-		if(!businessException.hasErreurs()) {
-			DAOArticleVendu.update(articleVendu);
-		}
-		else
-		{
-			throw businessException;
+		RetraitManager retraitManager = RetraitManager.getInstance();
+		boolean creation = articleVendu.getNo_article()==0;
+		
+		try {
+			Transaction.executer(() -> {
+				if (creation) {
+					createArticleVendu(articleVendu);
+				} else {
+					updateArticleVendu(articleVendu);
+				}
+				retrait.setArticle(articleVendu);
+				if (creation) {
+					retraitManager.createRetrait(retrait);
+				} else {
+					retraitManager.updateRetrait(retrait);
+				}
+			});
+		} catch (BusinessException e) {
+			// l'insertion annulée ne doit pas laisser de numéro à l'article ressaisi
+			if (creation) {
+				articleVendu.setNo_article(0);
+			}
+			throw e;
 		}
-
+		
 	}
 	
 	public void deleteArticleVendu(int no_article) throws BusinessException {
@@ -124,18 +226,20 @@ public class ArticleVenduManager {
 		
 		if(!businessException.hasErreurs()) {
 
-			try {
-				
-				// supprime l'article
+			// supprime l'article et son adresse de retrait dans une même transaction ; ses erreurs
+			// (dont TRANSACTION_ECHEC et TRANSACTION_ANNULEE) remontent telles quelles
+			RetraitManager retraitManager = RetraitManager.getInstance();
+			Transaction.executer(() -> {
 				DAOArticleVendu.delete(no_article);
-				
-				// supprime l'adresse de retrait
-				RetraitManager retraitManager = RetraitManager.getInstance();
 				retraitManager.deleteRetrait(no_article);
-				
-			} catch (Exception e) {
-				throw businessException;
-			}
+			});
+			
+			Transaction.apresValidation(() -> {
+				IndexArticles.getInstance().retirer(no_article);
+				CacheMeilleuresEncheres.getInstance().invalider(no_article);
+				MoteurEncheres.getInstance().oublier(no_article);
+				CacheRecherches.getInstance().vider();
+			});
 			
 		}
 		else
@@ -164,7 +268,15 @@ public class ArticleVenduManager {
 		
 	}
 	
-	private void validerNom (String nom, BusinessException businessException) {
+	// Contrôles de saisie, puis existence du vendeur et de la catégorie (caches des managers)
+	private static final Validation<ArticleVendu> VALIDATION = Validation
+			.<ArticleVendu>de(ArticleVenduManager::validerNom, ArticleVenduManager::validerDescription,
+					ArticleVenduManager::validerDates, ArticleVenduManager::validerPrixInitial, ArticleVenduManager::validerPrixVente,
+					ArticleVenduManager::validerUtilisateur, ArticleVenduManager::validerCategorie)
+			.puis(ArticleVenduManager::validerUtilisateurConnu, ArticleVenduManager::validerCategorieConnue);
+	
+	private static void validerNom (ArticleVendu articleVendu, BusinessException businessException) {
+		String nom = articleVendu.getNom_article();
 		if(nom==null || nom.trim().length()==0)
 		{
 			businessException.ajouterErreur(CodesResultatBLL.REGLE_ARTICLE_LIBELLE_MANQUANT);
@@ -175,14 +287,18 @@ public class ArticleVenduManager {
 		}
 	}	
 	
-	private void validerDescription (String description, BusinessException businessException) {
-		if (description.trim().length()>300)
+	private static void validerDescription (ArticleVendu articleVendu, BusinessException businessException) {
+		String description = articleVendu.getDescription();
+		if (description!=null && description.trim().length()>300)
 		{
 			businessException.ajouterErreur(CodesResultatBLL.REGLE_ARTICLE_DESCRIPTION_LONG);
 		}
 	}
 	
-	private void validerDates (LocalDate dateDebut, LocalDate dateFin, BusinessException businessException) {
+	private static void validerDates (ArticleVendu articleVendu, BusinessException businessException) {
+		
+		LocalDate dateDebut = articleVendu.getDate_debut_encheres();
+		LocalDate dateFin = articleVendu.getDate_fin_encheres();
 		
 		// recupere la date du jour et la caste en LocalDate
 		Date date = new Date();
@@ -202,55 +318,56 @@ public class ArticleVenduManager {
 		}
 	}
 	
-	private void validerPrixInitial (int prixInitial, BusinessException businessException) {
-		if (prixInitial<=0)
+	private static void validerPrixInitial (ArticleVendu articleVendu, BusinessException businessException) {
+		if (articleVendu.getPrix_initial()<=0)
 		{
 			businessException.ajouterErreur(CodesResultatBLL.REGLE_ARTICLE_PRIX_INITIAL);
 		}
 	}
 	
-	private void validerPrixVente (int prixVente, int prixInitial, BusinessException businessException) {
-		if (prixVente<0 || (prixVente>0 && prixVente<prixInitial))
+	private static void validerPrixVente (ArticleVendu articleVendu, BusinessException businessException) {
+		int prixVente = articleVendu.getPrix_vente();
+		if (prixVente<0 || (prixVente>0 && prixVente<articleVendu.getPrix_initial()))
 		{
 			businessException.ajouterErreur(CodesResultatBLL.REGLE_ARTICLE_PRIX_VENTE);
 		}
 	}	
 	
-	private void validerCategorie (int no_categorie, BusinessException businessException) {
-		if (no_categorie==0)
+	private static void validerCategorie (ArticleVendu articleVendu, BusinessException businessException) {
+		if (articleVendu.getCategorie()==null || articleVendu.getCategorie().getNo_categorie()==0)
 		{
 			businessException.ajouterErreur(CodesResultatBLL.REGLE_ARTICLE_CATEGORIE_MANQUANTE);
 		}
-		else
-		{
-			// Verifie si la categorie existe
-			CategorieManager categorieManager = CategorieManager.getInstance(); 
-			try {
-				if(categorieManager.getCategorie(no_categorie) == null) {
-					businessException.ajouterErreur(CodesResultatBLL.REGLE_ARTICLE_CATEGORIE_INCONNUE);
-				}
-			} catch (BusinessException e) {
+	}
+	
+	private static void validerCategorieConnue (ArticleVendu articleVendu, BusinessException businessException) {
+		// Verifie si la categorie existe
+		CategorieManager categorieManager = CategorieManager.getInstance(); 
+		try {
+			if(categorieManager.getCategorie(articleVendu.getCategorie().getNo_categorie()) == null) {
 				businessException.ajouterErreur(CodesResultatBLL.REGLE_ARTICLE_CATEGORIE_INCONNUE);
 			}
+		} catch (BusinessException e) {
+			businessException.ajouterErreur(CodesResultatBLL.REGLE_ARTICLE_CATEGORIE_INCONNUE);
 		}
 	}
 	
-	private void validerUtilisateur (int no_utilisateur, BusinessException businessException) {
-		if (no_utilisateur==0)
+	private static void validerUtilisateur (ArticleVendu articleVendu, BusinessException businessException) {
+		if (articleVendu.getVendeur()==null || articleVendu.getVendeur().getNo_utilisateur()==0)
 		{
 			businessException.ajouterErreur(CodesResultatBLL.REGLE_ARTICLE_VENDEUR_MANQUANT);
 		}
-		else
-		{
-			// Verifie si la categorie existe
-			UtilisateurManager utilisateurManager = UtilisateurManager.getInstance(); 
-			try {
-				if(utilisateurManager.getUtilisateur(no_utilisateur) == null) {
-					businessException.ajouterErreur(CodesResultatBLL.REGLE_ARTICLE_VENDEUR_INCONNU);
-				}
-			} catch (BusinessException e) {
+	}
+	
+	private static void validerUtilisateurConnu (ArticleVendu articleVendu, BusinessException businessException) {
+		// Verifie si le vendeur existe
+		UtilisateurManager utilisateurManager = UtilisateurManager.getInstance(); 
+		try {
+			if(utilisateurManager.getUtilisateur(articleVendu.getVendeur().getNo_utilisateur()) == null) {
 				businessException.ajouterErreur(CodesResultatBLL.REGLE_ARTICLE_VENDEUR_INCONNU);
 			}
+		} catch (BusinessException e) {
+			businessException.ajouterErreur(CodesResultatBLL.REGLE_ARTICLE_VENDEUR_INCONNU);
 		}
 	}
 	
@@ -0,0 +1,107 @@
+package fr.eni.javaee.encheres.bll;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import fr.eni.javaee.encheres.bo.Categorie;
+import fr.eni.javaee.encheres.dal.CategorieDAO;
+import fr.eni.javaee.encheres.messages.BusinessException;
+
+/**
+ * Cache de l'ensemble des catégories.
+ * Les catégories sont lues en une fois dans un instantané immuable ; chaque modification recharge
+ * un nouvel instantané qui remplace l'ancien d'un seul coup, les lectures ne prennent aucun verrou.
+ * Les catégories renvoyées sont partagées entre les requêtes et ne doivent pas être modifiées.
+ */
+public class CacheCategories {
+
+	// Contenu du cache à un instant donné, jamais modifié une fois construit
+	private static final class Instantane {
+
+		private final List<Categorie> liste;
+		private final Map<Integer, Categorie> parNumero;
+
+		private Instantane(List<Categorie> categories) {
+			Map<Integer, Categorie> map = new HashMap<>();
+			for (Categorie categorie : categories) {
+				map.put(categorie.getNo_categorie(), categorie);
+			}
+			this.liste = Collections.unmodifiableList(new ArrayList<>(categories));
+			this.parNumero = Collections.unmodifiableMap(map);
+		}
+	}
+
+	private final AtomicReference<Instantane> instantane = new AtomicReference<>();
+	private final AtomicLong succes = new AtomicLong();
+	private final AtomicLong echecs = new AtomicLong();
+
+	CacheCategories() {
+	}
+
+	//Cache construit au démarrage (Registre)
+	public static CacheCategories getInstance() {
+		return Registre.get().cacheCategories;
+	}
+
+	//Liste des catégories, chargée à la première lecture
+	List<Categorie> getListe(CategorieDAO dao) throws BusinessException {
+		return lire(dao).liste;
+	}
+
+	//Catégorie du numéro indiqué, null si elle n'existe pas
+	Categorie get(CategorieDAO dao, int no_categorie) throws BusinessException {
+		return lire(dao).parNumero.get(no_categorie);
+	}
+
+	/**
+	 * Remplace l'instantané après une modification en base.
+	 * Les rechargements sont faits l'un après l'autre : le dernier lit forcément la base après
+	 * toutes les modifications qui l'ont précédé.
+	 */
+	synchronized void recharger(CategorieDAO dao) throws BusinessException {
+		instantane.set(new Instantane(dao.selectAll()));
+	}
+
+	public long getSucces() {
+		return succes.get();
+	}
+
+	public long getEchecs() {
+		return echecs.get();
+	}
+
+	private Instantane lire(CategorieDAO dao) throws BusinessException {
+		Instantane courant = instantane.get();
+		if (courant != null) {
+			succes.incrementAndGet();
+			return courant;
+		}
+		echecs.incrementAndGet();
+		synchronized (this) {
+			// un autre thread a pu charger le cache pendant l'attente
+			courant = instantane.get();
+			if (courant == null) {
+				courant = new Instantane(dao.selectAll());
+				instantane.set(courant);
+			}
+		}
+		return courant;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder();
+		builder.append("CacheCategories [succes=");
+		builder.append(succes.get());
+		builder.append(", echecs=");
+		builder.append(echecs.get());
+		builder.append("]");
+		return builder.toString();
+	}
+
+}
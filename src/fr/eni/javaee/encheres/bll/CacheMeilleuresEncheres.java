@@ -0,0 +1,137 @@
+package fr.eni.javaee.encheres.bll;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import fr.eni.javaee.encheres.bo.Enchere;
+import fr.eni.javaee.encheres.dal.EnchereDAO;
+import fr.eni.javaee.encheres.messages.BusinessException;
+
+/**
+ * Meilleure enchère de chaque article.
+ * L'entrée d'un article est chargée depuis la base à la première lecture, puis mise à jour
+ * à chaque enchère enregistrée : "qui mène et à quel prix" ne relit plus la table ENCHERES.
+ * Le cache ne garde que des valeurs (montant, maximum, numéro et pseudo de l'enchérisseur), jamais les
+ * objets article ou utilisateur des requêtes, et seulement pour les CAPACITE articles les plus lus.
+ */
+public class CacheMeilleuresEncheres {
+
+	private static final int CAPACITE = 10000;
+
+	// Meilleure enchère d'un article, jamais modifiée une fois construite
+	public static final class Meilleure {
+		private final int no_article;
+		private final int montant;
+		// Maximum de l'enchère automatique du meneur, réservé au moteur d'enchères
+		private final int maximum;
+		private final int no_utilisateur;
+		private final String pseudo;
+
+		private Meilleure(int no_article, int montant, int maximum, int no_utilisateur, String pseudo) {
+			this.no_article = no_article;
+			this.montant = montant;
+			this.maximum = Math.max(montant, maximum);
+			this.no_utilisateur = no_utilisateur;
+			this.pseudo = pseudo;
+		}
+
+		private static Meilleure de(Enchere enchere) {
+			return new Meilleure(enchere.getArticle().getNo_article(), enchere.getMontant_enchere(), enchere.getMontant_maximum(),
+					enchere.getEncherisseur().getNo_utilisateur(), enchere.getEncherisseur().getPseudo());
+		}
+
+		public int getNo_article() {
+			return no_article;
+		}
+
+		public int getMontant() {
+			return montant;
+		}
+
+		int getMaximum() {
+			return maximum;
+		}
+
+		public int getNo_utilisateur() {
+			return no_utilisateur;
+		}
+
+		public String getPseudo() {
+			return pseudo;
+		}
+	}
+
+	// Marque un article sans enchère (distinct d'une entrée absente)
+	private static final Meilleure AUCUNE = new Meilleure(0, 0, 0, 0, null);
+
+	// Accès en ordre d'utilisation : removeEldestEntry retire l'article le moins récemment lu
+	private final Map<Integer, Meilleure> meilleures = new LinkedHashMap<Integer, Meilleure>(16, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<Integer, Meilleure> eldest) {
+			return size() > CAPACITE;
+		}
+	};
+
+	CacheMeilleuresEncheres() {
+	}
+
+	//Cache construit au démarrage (Registre)
+	public static CacheMeilleuresEncheres getInstance() {
+		return Registre.get().cacheMeilleuresEncheres;
+	}
+
+	//Meilleure enchère de l'article, null s'il n'en a aucune
+	Meilleure get(EnchereDAO dao, int no_article) throws BusinessException {
+		Meilleure meilleure;
+		synchronized (this) {
+			meilleure = meilleures.get(no_article);
+		}
+		if (meilleure == null) {
+			// lecture hors verrou : les autres articles restent accessibles pendant la requête
+			Enchere lue = dao.selectByTopArticle(no_article);
+			meilleure = mettre(no_article, lue == null ? AUCUNE : Meilleure.de(lue), false);
+		}
+		return meilleure == AUCUNE ? null : meilleure;
+	}
+
+	//Prend en compte une enchère enregistrée en base
+	void enregistrer(Enchere enchere) {
+		// une enchère acceptée atteint au moins le prix de vente, donc toutes les enchères déjà en base :
+		// elle peut créer l'entrée, une lecture concurrente de la base ne la remplacera pas ; à montant
+		// égal (le meneur relève son maximum), elle remplace l'entrée
+		mettre(enchere.getArticle().getNo_article(), Meilleure.de(enchere), true);
+	}
+
+	//Oublie l'article : la prochaine lecture relira la base
+	synchronized void invalider(int no_article) {
+		meilleures.remove(no_article);
+	}
+
+	//Oublie les articles menés par l'utilisateur, dont le profil vient d'être modifié
+	synchronized void invaliderEncherisseur(int no_utilisateur) {
+		Iterator<Meilleure> iterateur = meilleures.values().iterator();
+		while (iterateur.hasNext()) {
+			if (iterateur.next().no_utilisateur == no_utilisateur) {
+				iterateur.remove();
+			}
+		}
+	}
+
+	synchronized void vider() {
+		meilleures.clear();
+	}
+
+	// Une enchère enregistrée pendant la lecture de la base est conservée si elle est meilleure
+	private synchronized Meilleure mettre(int no_article, Meilleure nouvelle, boolean remplacerEgale) {
+		Meilleure actuelle = meilleures.get(no_article);
+		Meilleure meilleure = actuelle == null || actuelle == AUCUNE
+				|| (nouvelle != AUCUNE && (nouvelle.montant > actuelle.montant || (remplacerEgale && nouvelle.montant == actuelle.montant)))
+				? nouvelle : actuelle;
+		meilleures.put(no_article, meilleure);
+		return meilleure;
+	}
+
+}
@@ -0,0 +1,168 @@
+package fr.eni.javaee.encheres.bll;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import fr.eni.javaee.encheres.bo.ArticleVendu;
+import fr.eni.javaee.encheres.bo.Page;
+
+/**
+ * Pages de résultats des recherches récentes, partagées entre les sessions.
+ * La session ne conserve que la description de sa recherche : au retour sur la liste, la page
+ * est reprise ici tant qu'elle n'a pas expiré, sinon la recherche est rejouée.
+ * Une page ne garde que les colonnes affichées par la liste (Ligne), jamais les articles et vendeurs
+ * des requêtes. Les recherches qui dépendent des enchères de l'utilisateur (enchères en cours,
+ * remportées) sont oubliées à chaque enchère acceptée, toutes les recherches à chaque modification
+ * d'un article ou d'un profil.
+ */
+public class CacheRecherches implements EcouteurEncheres {
+
+	private static final int CAPACITE = 256;
+	private static final long DUREE_VIE = TimeUnit.SECONDS.toNanos(30);
+
+	// Article tel qu'affiché dans la liste, jamais modifié une fois construit
+	public static final class Ligne {
+		private final int no_article;
+		private final String nom_article;
+		private final LocalDate date_fin_encheres;
+		private final int prix_initial;
+		private final int prix_vente;
+		private final int no_vendeur;
+		private final String pseudo_vendeur;
+
+		private Ligne(ArticleVendu article) {
+			this.no_article = article.getNo_article();
+			this.nom_article = article.getNom_article();
+			this.date_fin_encheres = article.getDate_fin_encheres();
+			this.prix_initial = article.getPrix_initial();
+			this.prix_vente = article.getPrix_vente();
+			this.no_vendeur = article.getVendeur() == null ? 0 : article.getVendeur().getNo_utilisateur();
+			this.pseudo_vendeur = article.getVendeur() == null ? null : article.getVendeur().getPseudo();
+		}
+
+		public int getNo_article() {
+			return no_article;
+		}
+
+		public String getNom_article() {
+			return nom_article;
+		}
+
+		public LocalDate getDate_fin_encheres() {
+			return date_fin_encheres;
+		}
+
+		public int getPrix_initial() {
+			return prix_initial;
+		}
+
+		public int getPrix_vente() {
+			return prix_vente;
+		}
+
+		public int getNo_vendeur() {
+			return no_vendeur;
+		}
+
+		public String getPseudo_vendeur() {
+			return pseudo_vendeur;
+		}
+	}
+
+	// Page d'une recherche, avec la version des prix lue avant la recherche
+	public static final class Resultat {
+		private final Page<Ligne> page;
+		private final long versionPrix;
+		private final long expiration;
+		// Recherche à oublier dès qu'une enchère est acceptée
+		private final boolean suitLesEncheres;
+
+		private Resultat(Page<Ligne> page, long versionPrix, long expiration, boolean suitLesEncheres) {
+			this.page = page;
+			this.versionPrix = versionPrix;
+			this.expiration = expiration;
+			this.suitLesEncheres = suitLesEncheres;
+		}
+
+		public Page<Ligne> getPage() {
+			return page;
+		}
+
+		public long getVersionPrix() {
+			return versionPrix;
+		}
+	}
+
+	// Accès en ordre d'utilisation : removeEldestEntry retire la recherche la moins récemment lue
+	private final Map<String, Resultat> resultats = new LinkedHashMap<String, Resultat>(16, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, Resultat> eldest) {
+			return size() > CAPACITE;
+		}
+	};
+
+	CacheRecherches() {
+	}
+
+	//Cache construit au démarrage (Registre)
+	public static CacheRecherches getInstance() {
+		return Registre.get().cacheRecherches;
+	}
+
+	//Page réduite aux colonnes de la liste
+	public static Page<Ligne> projeter(Page<ArticleVendu> page) {
+		List<Ligne> lignes = new ArrayList<>(page.getElements().size());
+		for (ArticleVendu article : page.getElements()) {
+			lignes.add(new Ligne(article));
+		}
+		return new Page<>(Collections.unmodifiableList(lignes), page.getSuivant(), page.getPrecedent());
+	}
+
+	//Résultat de la recherche, null s'il est absent ou expiré
+	public synchronized Resultat get(String cle) {
+		Resultat resultat = resultats.get(cle);
+		if (resultat != null && System.nanoTime() - resultat.expiration > 0) {
+			resultats.remove(cle);
+			return null;
+		}
+		return resultat;
+	}
+
+	/**
+	 * Conserve la page de la recherche
+	 * @param suitLesEncheres true si la liste dépend des enchères de l'utilisateur
+	 * @return Page<Ligne> la page conservée, à afficher
+	 */
+	public Page<Ligne> mettre(String cle, Page<ArticleVendu> page, long versionPrix, boolean suitLesEncheres) {
+		Page<Ligne> lignes = projeter(page);
+		synchronized (this) {
+			resultats.put(cle, new Resultat(lignes, versionPrix, System.nanoTime() + DUREE_VIE, suitLesEncheres));
+		}
+		return lignes;
+	}
+
+	//Enchère acceptée : les listes d'enchères en cours ou remportées peuvent avoir changé
+	@Override
+	public synchronized void prixModifie(int no_article, int prix, String meilleurEncherisseur) {
+		Iterator<Resultat> iterateur = resultats.values().iterator();
+		while (iterateur.hasNext()) {
+			if (iterateur.next().suitLesEncheres) {
+				iterateur.remove();
+			}
+		}
+	}
+
+	//Oublie toutes les recherches après une modification des articles ou d'un profil
+	synchronized void vider() {
+		resultats.clear();
+	}
+
+}
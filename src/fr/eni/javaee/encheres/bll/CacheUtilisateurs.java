@@ -0,0 +1,204 @@
+package fr.eni.javaee.encheres.bll;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import fr.eni.javaee.encheres.bo.Utilisateur;
+
+/**
+ * Cache borné des utilisateurs, indexé par no_utilisateur.
+ * - la table de hachage est indexée par des int : aucune conversion en Integer à la lecture
+ * - au-delà de la capacité, l'utilisateur le moins récemment lu est retiré (LRU)
+ * - une entrée expire après DUREE_VIE, les modifications la retirent explicitement
+ * - le pseudo et l'email sont des clés secondaires qui désignent les mêmes entrées
+ * Le cache conserve sa propre copie des utilisateurs et renvoie des copies : un appelant peut
+ * modifier l'utilisateur obtenu sans altérer le cache.
+ */
+public class CacheUtilisateurs {
+
+	private static final int CAPACITE = 1024;
+	private static final long DUREE_VIE = TimeUnit.MINUTES.toNanos(5);
+
+	// Entrée chaînée à la fois dans son seau et dans la liste d'utilisation
+	private static final class Entree {
+		private final int no_utilisateur;
+		private final Utilisateur utilisateur;
+		private final long expiration;
+		private Entree suivanteDansSeau;
+		private Entree plusRecente;
+		private Entree plusAncienne;
+
+		private Entree(Utilisateur utilisateur, long expiration) {
+			this.no_utilisateur = utilisateur.getNo_utilisateur();
+			this.utilisateur = utilisateur;
+			this.expiration = expiration;
+		}
+	}
+
+	private final int capacite;
+	private final long dureeVie;
+	private final Entree[] seaux;
+	private final Map<String, Entree> parPseudo = new HashMap<>();
+	private final Map<String, Entree> parEmail = new HashMap<>();
+	// Extrémités de la liste d'utilisation
+	private Entree plusRecente;
+	private Entree plusAncienne;
+	private int taille;
+
+	CacheUtilisateurs(int capacite, long dureeVie) {
+		this.capacite = capacite;
+		this.dureeVie = dureeVie;
+		// puissance de 2 au moins double de la capacité : seaux courts, index par masque
+		this.seaux = new Entree[Integer.highestOneBit(capacite) << 2];
+	}
+
+	//Capacité et durée de vie retenues pour l'application
+	CacheUtilisateurs() {
+		this(CAPACITE, DUREE_VIE);
+	}
+
+	//Cache construit au démarrage (Registre)
+	public static CacheUtilisateurs getInstance() {
+		return Registre.get().cacheUtilisateurs;
+	}
+
+	//Copie de l'utilisateur en cache, null s'il est absent ou expiré
+	synchronized Utilisateur get(int no_utilisateur) {
+		return lire(chercher(no_utilisateur));
+	}
+
+	synchronized Utilisateur getParPseudo(String pseudo) {
+		return pseudo == null ? null : lire(parPseudo.get(pseudo));
+	}
+
+	synchronized Utilisateur getParEmail(String email) {
+		return email == null ? null : lire(parEmail.get(email));
+	}
+
+	//Ajoute ou remplace l'utilisateur lu en base
+	synchronized void mettre(Utilisateur utilisateur) {
+		// le DAO renvoie un utilisateur vide (numéro 0) quand il ne trouve rien : rien à conserver
+		if (utilisateur == null || utilisateur.getNo_utilisateur() <= 0) {
+			return;
+		}
+		retirer(chercher(utilisateur.getNo_utilisateur()));
+		Entree entree = new Entree(copier(utilisateur), System.nanoTime() + dureeVie);
+
+		int index = index(entree.no_utilisateur);
+		entree.suivanteDansSeau = seaux[index];
+		seaux[index] = entree;
+		if (utilisateur.getPseudo() != null) {
+			retirer(parPseudo.get(utilisateur.getPseudo()));
+			parPseudo.put(utilisateur.getPseudo(), entree);
+		}
+		if (utilisateur.getEmail() != null) {
+			retirer(parEmail.get(utilisateur.getEmail()));
+			parEmail.put(utilisateur.getEmail(), entree);
+		}
+		enTete(entree);
+		taille++;
+
+		if (taille > capacite) {
+			retirer(plusAncienne);
+		}
+	}
+
+	//Retire l'utilisateur après une modification ou une suppression
+	synchronized void invalider(int no_utilisateur) {
+		retirer(chercher(no_utilisateur));
+	}
+
+	synchronized int getTaille() {
+		return taille;
+	}
+
+	private Utilisateur lire(Entree entree) {
+		if (entree == null) {
+			return null;
+		}
+		if (System.nanoTime() - entree.expiration > 0) {
+			retirer(entree);
+			return null;
+		}
+		detacher(entree);
+		enTete(entree);
+		return copier(entree.utilisateur);
+	}
+
+	private int index(int no_utilisateur) {
+		// mélange des bits : les numéros se suivent, le masque seul remplirait les seaux dans l'ordre
+		int h = no_utilisateur * 0x9E3779B9;
+		return (h ^ (h >>> 16)) & (seaux.length - 1);
+	}
+
+	private Entree chercher(int no_utilisateur) {
+		Entree entree = seaux[index(no_utilisateur)];
+		while (entree != null && entree.no_utilisateur != no_utilisateur) {
+			entree = entree.suivanteDansSeau;
+		}
+		return entree;
+	}
+
+	private void retirer(Entree entree) {
+		if (entree == null) {
+			return;
+		}
+		int index = index(entree.no_utilisateur);
+		if (seaux[index] == entree) {
+			seaux[index] = entree.suivanteDansSeau;
+		} else {
+			Entree precedente = seaux[index];
+			while (precedente != null && precedente.suivanteDansSeau != entree) {
+				precedente = precedente.suivanteDansSeau;
+			}
+			if (precedente == null) {
+				// entrée déjà retirée
+				return;
+			}
+			precedente.suivanteDansSeau = entree.suivanteDansSeau;
+		}
+		parPseudo.remove(entree.utilisateur.getPseudo(), entree);
+		parEmail.remove(entree.utilisateur.getEmail(), entree);
+		detacher(entree);
+		taille--;
+	}
+
+	private void enTete(Entree entree) {
+		entree.plusAncienne = plusRecente;
+		entree.plusRecente = null;
+		if (plusRecente != null) {
+			plusRecente.plusRecente = entree;
+		}
+		plusRecente = entree;
+		if (plusAncienne == null) {
+			plusAncienne = entree;
+		}
+	}
+
+	private void detacher(Entree entree) {
+		if (entree.plusRecente != null) {
+			entree.plusRecente.plusAncienne = entree.plusAncienne;
+		} else {
+			plusRecente = entree.plusAncienne;
+		}
+		if (entree.plusAncienne != null) {
+			entree.plusAncienne.plusRecente = entree.plusRecente;
+		} else {
+			plusAncienne = entree.plusRecente;
+		}
+		entree.plusRecente = null;
+		entree.plusAncienne = null;
+	}
+
+	private static Utilisateur copier(Utilisateur utilisateur) {
+		Utilisateur copie = new Utilisateur(utilisateur.getPseudo(), utilisateur.getNom(), utilisateur.getPrenom(),
+				utilisateur.getEmail(), utilisateur.getTelephone(), utilisateur.getRue(), utilisateur.getCode_postal(),
+				utilisateur.getVille(), utilisateur.getMot_de_passe());
+		copie.setNo_utilisateur(utilisateur.getNo_utilisateur());
+		copie.setCredit(utilisateur.getCredit());
+		copie.setAdministrateur(utilisateur.isAdministrateur());
+		return copie;
+	}
+
+}
@@ -4,31 +4,29 @@ import java.util.List;
 
 import fr.eni.javaee.encheres.bo.Categorie;
 import fr.eni.javaee.encheres.dal.CategorieDAO;
-import fr.eni.javaee.encheres.dal.DAOFactory;
 import fr.eni.javaee.encheres.messages.BusinessException;
 
 public class CategorieManager {
 
-	private static CategorieManager instance;
-	private static CategorieDAO DAOCategorie;
+	private final CategorieDAO DAOCategorie;
 
-	private CategorieManager() {
-		DAOCategorie=DAOFactory.getCategorieDAO();
+	CategorieManager(CategorieDAO DAOCategorie) {
+		this.DAOCategorie=DAOCategorie;
 	}
 
+	//Manager construit au démarrage (Registre)
 	public static CategorieManager getInstance() {
-		if (instance == null) {
-			return new CategorieManager();
-		}
-		return instance;
+		return Registre.get().categorieManager;
 	}
 
+	// Les lectures passent par le cache : les catégories renvoyées sont partagées, ne pas les modifier
+	
 	public List<Categorie> getListeCategories() throws BusinessException {
-		return DAOCategorie.selectAll();
+		return CacheCategories.getInstance().getListe(DAOCategorie);
 	}
 	
 	public Categorie getCategorie(int no_categorie) throws BusinessException {
-		return DAOCategorie.selectById(no_categorie);
+		return CacheCategories.getInstance().get(DAOCategorie, no_categorie);
 	}
 	
 	public void createCategorie(Categorie categorie) throws BusinessException {
@@ -38,6 +36,7 @@ public class CategorieManager {
 
 		if(!businessException.hasErreurs()) {
 			DAOCategorie.insert(categorie);
+			CacheCategories.getInstance().recharger(DAOCategorie);
 		}
 		else
 		{
@@ -53,6 +52,7 @@ public class CategorieManager {
 
 		if(!businessException.hasErreurs()) {
 			DAOCategorie.update(categorie);
+			CacheCategories.getInstance().recharger(DAOCategorie);
 		}
 		else
 		{
@@ -63,6 +63,7 @@ public class CategorieManager {
 	
 	public void deleteCategorie(int no_categorie) throws BusinessException {
 		DAOCategorie.delete(no_categorie);
+		CacheCategories.getInstance().recharger(DAOCategorie);
 	}
 
 	// Controles metiers
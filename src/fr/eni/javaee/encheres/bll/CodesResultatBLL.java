@@ -29,6 +29,10 @@ public abstract class CodesResultatBLL {
 	public static final int REGLE_ENCHERE_ARTICLE_INTROUVABLE = 20045;
 	public static final int REGLE_ENCHERE_CREDIT_INSUFFISANT = 20046;
 	public static final int REGLE_ENCHERE_INSUFFISANTE = 20047;
+	public static final int REGLE_ENCHERE_NON_TRAITEE = 20048;
+	public static final int REGLE_ENCHERE_DEPASSEE_AUTOMATIQUEMENT = 20049;
+	public static final int REGLE_ENCHERE_MAXIMUM_INVALIDE = 20050;
+	public static final int REGLE_ENCHERE_EN_COURS = 20051;
 	
 	/******* RETRAITS  *******/
 	public static final int REGLE_RETRAIT_ARTICLE_INCONNU = 20061;
@@ -64,4 +68,5 @@ public abstract class CodesResultatBLL {
 	public static final int REGLE_UTILISATEUR_VILLE_LONG = 20117;
 	public static final int REGLE_UTILISATEUR_MOT_DE_PASSE_MANQUANT = 20118;
 	public static final int REGLE_UTILISATEUR_MOT_DE_PASSE_LONG = 20119;
+	public static final int ENVOI_COURRIEL_ECHEC = 20120;
 }
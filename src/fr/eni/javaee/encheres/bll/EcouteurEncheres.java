@@ -0,0 +1,12 @@
+package fr.eni.javaee.encheres.bll;
+
+/**
+ * Reçoit les changements de prix des articles acceptés par le moteur d'enchères.
+ * Les appels sont faits par le thread de l'article : l'écouteur ne doit pas bloquer.
+ * Le meilleur enchérisseur est transmis par son pseudo, null si l'article n'a pas d'enchère.
+ */
+public interface EcouteurEncheres {
+
+	void prixModifie(int no_article, int prix, String meilleurEncherisseur);
+
+}
@@ -4,28 +4,31 @@ import java.time.LocalDate;
 import java.time.ZoneId;
 import java.util.Date;
 import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 import fr.eni.javaee.encheres.bo.ArticleVendu;
 import fr.eni.javaee.encheres.bo.Enchere;
-import fr.eni.javaee.encheres.bo.Utilisateur;
 import fr.eni.javaee.encheres.dal.EnchereDAO;
-import fr.eni.javaee.encheres.dal.DAOFactory;
 import fr.eni.javaee.encheres.messages.BusinessException;
 
 public class EnchereManager {
 
-	private static EnchereManager instance;
-	private static EnchereDAO DAOEnchere;
+	private final EnchereDAO DAOEnchere;
+	// Attente maximale de la réponse du moteur d'enchères, en secondes
+	private static final int DELAI_REPONSE = 5;
 
-	private EnchereManager() {
-		DAOEnchere=DAOFactory.getEnchereDAO();
+	EnchereManager(EnchereDAO DAOEnchere) {
+		this.DAOEnchere=DAOEnchere;
 	}
 
+	//Manager construit au démarrage (Registre)
 	public static EnchereManager getInstance() {
-		if (instance == null) {
-			return new EnchereManager();
-		}
-		return instance;
+		return Registre.get().enchereManager;
 	}
 
 	public List<Enchere> getListeEncheres() throws BusinessException {
@@ -36,71 +39,158 @@ public class EnchereManager {
 		return DAOEnchere.selectByArticle(no_article);
 	}
 
-	public Enchere getMeilleureEnchere(int no_article) throws BusinessException {
-		return DAOEnchere.selectByTopArticle(no_article);
+	public CacheMeilleuresEncheres.Meilleure getMeilleureEnchere(int no_article) throws BusinessException {
+		// lue dans le cache, tenu à jour par createEnchere
+		return CacheMeilleuresEncheres.getInstance().get(DAOEnchere, no_article);
 	}
 	
 	public Enchere getEnchere(int no_article) throws BusinessException {
 		return DAOEnchere.selectById(no_article);
 	}
 	
+	/**
+	 * Place l'enchère : elle est soumise au moteur d'enchères, qui l'accepte ou la refuse en mémoire
+	 * sur le thread de son article, et l'appel attend sa réponse.
+	 * Passé le délai de réponse, l'enchère est retirée si son thread ne l'a pas encore prise ; sinon
+	 * elle est en cours de traitement et l'enchérisseur en est averti, sans refus.
+	 * L'enregistrement en base des enchères acceptées se fait ensuite par lots.
+	 */
 	public void createEnchere(Enchere enchere) throws BusinessException {
 		
-		BusinessException businessException = new BusinessException();
-		
-		this.validerArticle(enchere.getArticle(), businessException);
-		this.validerUtilisateur(enchere.getEncherisseur(), businessException);
-		this.validerDate(enchere.getDate_enchere(), enchere.getArticle(), businessException);
-		this.validerMontant(enchere.getMontant_enchere(), enchere.getArticle(), enchere.getEncherisseur(),businessException);
+		// l'article est contrôlé par le moteur, sur son état en mémoire
+		VALIDATION_CREATION.valider(new EnchereAValider(enchere));
 		
-		if(!businessException.hasErreurs()) {
-			DAOEnchere.insert(enchere);
+		BusinessException businessException = new BusinessException();
+		int resultat;
+		CompletableFuture<MoteurEncheres.Resultat> reponse = MoteurEncheres.getInstance().soumettre(enchere);
+		try {
+			resultat = appliquer(enchere, reponse.get(DELAI_REPONSE, TimeUnit.SECONDS));
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			resultat = sansReponse(enchere, reponse);
+		} catch (TimeoutException e) {
+			resultat = sansReponse(enchere, reponse);
+		} catch (ExecutionException e) {
+			e.printStackTrace();
+			resultat = CodesResultatBLL.REGLE_ENCHERE_NON_TRAITEE;
 		}
-		else
-		{
+		if (resultat != MoteurEncheres.ACCEPTEE) {
+			businessException.ajouterErreur(resultat);
 			throw businessException;
 		}
 		
 	}
 	
-	public void updateEnchere(Enchere enchere) throws BusinessException {
-		
-		BusinessException businessException = new BusinessException();
-		this.validerArticle(enchere.getArticle(), businessException);
-		this.validerUtilisateur(enchere.getEncherisseur(), businessException);
-		this.validerDate(enchere.getDate_enchere(), enchere.getArticle(), businessException);
-		this.validerMontant(enchere.getMontant_enchere(), enchere.getArticle(), enchere.getEncherisseur(),businessException);
-
-		if(!businessException.hasErreurs()) {
-			DAOEnchere.update(enchere);
+	//Délai dépassé : retire l'enchère si elle n'a pas été prise, sinon sa réponse si elle vient d'arriver
+	private static int sansReponse(Enchere enchere, CompletableFuture<MoteurEncheres.Resultat> reponse) {
+		if (reponse.cancel(false)) {
+			return CodesResultatBLL.REGLE_ENCHERE_NON_TRAITEE;
 		}
-		else
-		{
-			throw businessException;
+		try {
+			MoteurEncheres.Resultat resultat = reponse.getNow(null);
+			return resultat == null ? CodesResultatBLL.REGLE_ENCHERE_EN_COURS : appliquer(enchere, resultat);
+		} catch (CancellationException | CompletionException e) {
+			return CodesResultatBLL.REGLE_ENCHERE_NON_TRAITEE;
+		}
+	}
+	
+	//Reporte le prix rendu par le moteur sur l'article de la requête, depuis le thread de la requête
+	private static int appliquer(Enchere enchere, MoteurEncheres.Resultat resultat) {
+		if (resultat.getPrix() > 0) {
+			enchere.getArticle().setPrix_vente(resultat.getPrix());
 		}
+		return resultat.getCode();
+	}
+	
+	public void updateEnchere(Enchere enchere) throws BusinessException {
+		
+		VALIDATION_MODIFICATION.valider(new EnchereAValider(enchere));
+		
+		DAOEnchere.update(enchere);
+		CacheMeilleuresEncheres.getInstance().invalider(enchere.getArticle().getNo_article());
 
 	}
 	
 	public void deleteEnchere(int no_enchere) throws BusinessException {
 		DAOEnchere.delete(no_enchere);
+		// l'article de l'enchère n'est pas connu ici : tout le cache est relu
+		CacheMeilleuresEncheres.getInstance().vider();
 	}
 
 	// Controles metiers
-	private void validerArticle (ArticleVendu articleVendu, BusinessException businessException) {
+	
+	/**
+	 * Enchère en cours de validation. L'article est chargé une seule fois, par validerArticle,
+	 * et les règles suivantes lisent cet instantané au lieu de relire l'article en base.
+	 */
+	private static final class EnchereAValider {
+		private final Enchere enchere;
+		private InstantaneArticle article;
+		
+		private EnchereAValider(Enchere enchere) {
+			this.enchere = enchere;
+		}
+	}
+	
+	// Prix et dates de l'article au moment de la validation
+	private static final class InstantaneArticle {
+		private final LocalDate date_debut_encheres;
+		private final LocalDate date_fin_encheres;
+		private final int prix_initial;
+		private final int prix_vente;
+		
+		private InstantaneArticle(ArticleVendu articleVendu) {
+			this.date_debut_encheres = articleVendu.getDate_debut_encheres();
+			this.date_fin_encheres = articleVendu.getDate_fin_encheres();
+			this.prix_initial = articleVendu.getPrix_initial();
+			this.prix_vente = articleVendu.getPrix_vente();
+		}
+	}
+	
+	// Contrôles de saisie, puis enchérisseur, puis article chargé une fois et règles qui l'exploitent
+	private static final Validation<EnchereAValider> VALIDATION_CREATION = Validation
+			.<EnchereAValider>de(EnchereManager::validerSaisie)
+			.puis(EnchereManager::validerUtilisateur);
+	private static final Validation<EnchereAValider> VALIDATION_MODIFICATION = VALIDATION_CREATION
+			.puis(EnchereManager::validerArticle)
+			.puis(EnchereManager::validerDate, EnchereManager::validerMontant);
+	
+	//Contrôles sans accès à la base
+	private static void validerSaisie (EnchereAValider saisie, BusinessException businessException) {
+		Enchere enchere = saisie.enchere;
+		if(enchere.getArticle()==null || enchere.getArticle().getNo_article()<=0) {
+			businessException.ajouterErreur(CodesResultatBLL.REGLE_ENCHERE_ARTICLE_INCONNU);
+		}
+		if(enchere.getEncherisseur()==null) {
+			businessException.ajouterErreur(CodesResultatBLL.REGLE_ENCHERE_UTILISATEUR_INCONNU);
+		}
+		if(enchere.getDate_enchere()==null) {
+			businessException.ajouterErreur(CodesResultatBLL.REGLE_ENCHERE_DATE_MANQUANTE);
+		}
+		if(enchere.getMontant_maximum()!=0 && enchere.getMontant_maximum()<enchere.getMontant_enchere()) {
+			businessException.ajouterErreur(CodesResultatBLL.REGLE_ENCHERE_MAXIMUM_INVALIDE);
+		}
+	}
+	
+	//Charge l'instantané de l'article
+	private static void validerArticle (EnchereAValider saisie, BusinessException businessException) {
 		try {
 			ArticleVenduManager articleVenduManager = ArticleVenduManager.getInstance();
-			if(articleVenduManager.getArticleVendu(articleVendu.getNo_article()) == null) {
-				businessException.ajouterErreur(CodesResultatBLL.REGLE_ENCHERE_ARTICLE_INCONNU);
+			ArticleVendu article = articleVenduManager.getArticleVendu(saisie.enchere.getArticle().getNo_article());
+			if(article == null || article.getNo_article() == 0) {
+				businessException.ajouterErreur(CodesResultatBLL.REGLE_ENCHERE_ARTICLE_INTROUVABLE);
+			} else {
+				saisie.article = new InstantaneArticle(article);
 			}
 		} catch (BusinessException e) {
-			businessException.ajouterErreur(CodesResultatBLL.REGLE_ENCHERE_ARTICLE_INCONNU);
+			businessException.ajouterErreur(CodesResultatBLL.REGLE_ENCHERE_ARTICLE_INTROUVABLE);
 		}
 	}	
 
-	private void validerUtilisateur (Utilisateur utilisateur, BusinessException businessException) {
+	private static void validerUtilisateur (EnchereAValider saisie, BusinessException businessException) {
 		try {
 			UtilisateurManager utilisateurManager = UtilisateurManager.getInstance();
-			if(utilisateurManager.getUtilisateur(utilisateur.getNo_utilisateur()) == null) {
+			if(utilisateurManager.getUtilisateur(saisie.enchere.getEncherisseur().getNo_utilisateur()) == null) {
 				businessException.ajouterErreur(CodesResultatBLL.REGLE_ENCHERE_UTILISATEUR_INCONNU);
 			}
 		} catch (BusinessException e) {
@@ -108,37 +198,19 @@ public class EnchereManager {
 		}
 	}	
 	
-	private void validerDate (LocalDate date_enchere, ArticleVendu articleVendu, BusinessException businessException) {
+	private static void validerDate (EnchereAValider saisie, BusinessException businessException) {
 		
-		if(date_enchere==null)
-		{
-			businessException.ajouterErreur(CodesResultatBLL.REGLE_ENCHERE_DATE_MANQUANTE);
-		}else
+		LocalDate date_enchere = saisie.enchere.getDate_enchere();
+		Date date = new Date();
+		LocalDate today = date.toInstant().atZone(ZoneId.systemDefault()).toLocalDate();
+		
+		if(date_enchere.isBefore(today) || date_enchere.isBefore(saisie.article.date_debut_encheres) || date_enchere.isAfter(saisie.article.date_fin_encheres))
 		{
-			
-			Date date = new Date();
-			LocalDate today = date.toInstant().atZone(ZoneId.systemDefault()).toLocalDate();
-			
-			ArticleVenduManager articleVenduManager = ArticleVenduManager.getInstance();
-			ArticleVendu article;
-			
-			try {
-				article = articleVenduManager.getArticleVendu(articleVendu.getNo_article());
-				if(article != null) {
-					if(date_enchere.isBefore(today) || date_enchere.isBefore(article.getDate_debut_encheres()) || date_enchere.isAfter(article.getDate_fin_encheres()))
-					{
-						businessException.ajouterErreur(CodesResultatBLL.REGLE_ENCHERE_DATE_INVALIDE);
-					}
-				}else {
-					businessException.ajouterErreur(CodesResultatBLL.REGLE_ENCHERE_ARTICLE_INTROUVABLE);
-				}
-			} catch (BusinessException e) {
-				businessException.ajouterErreur(CodesResultatBLL.REGLE_ENCHERE_ARTICLE_INTROUVABLE);
-			}
+			businessException.ajouterErreur(CodesResultatBLL.REGLE_ENCHERE_DATE_INVALIDE);
 		}
 	}	
 	
-	private void validerMontant (int montant_enchere, ArticleVendu articleVendu, Utilisateur encherisseur, BusinessException businessException) {
+	private static void validerMontant (EnchereAValider saisie, BusinessException businessException) {
 		
 		// Controle credit encherisseur
 		/* à remettre qd le credit sera géré
@@ -157,23 +229,12 @@ public class EnchereManager {
 		*/
 		
 		// Controle le montant de l'enchere
-		ArticleVenduManager articleVenduManager = ArticleVenduManager.getInstance();
-		ArticleVendu article;
-		
-		try {
-			article = articleVenduManager.getArticleVendu(articleVendu.getNo_article());
-			if(article != null) {			
-				if(montant_enchere <= article.getPrix_initial() 
-					|| (article.getPrix_vente()>0 && montant_enchere <= article.getPrix_vente()) 
-				)
-				{
-					businessException.ajouterErreur(CodesResultatBLL.REGLE_ENCHERE_INSUFFISANTE);
-				}
-			}else {
-				businessException.ajouterErreur(CodesResultatBLL.REGLE_ENCHERE_ARTICLE_INTROUVABLE);
-			}
-		} catch (BusinessException e) {
-			businessException.ajouterErreur(CodesResultatBLL.REGLE_ENCHERE_ARTICLE_INTROUVABLE);
+		int montant_enchere = saisie.enchere.getMontant_enchere();
+		if(montant_enchere <= saisie.article.prix_initial 
+			|| (saisie.article.prix_vente>0 && montant_enchere <= saisie.article.prix_vente) 
+		)
+		{
+			businessException.ajouterErreur(CodesResultatBLL.REGLE_ENCHERE_INSUFFISANTE);
 		}
 	}	
 	
@@ -0,0 +1,177 @@
+package fr.eni.javaee.encheres.bll;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import fr.eni.javaee.encheres.bo.Utilisateur;
+import fr.eni.javaee.encheres.messages.BusinessException;
+
+/**
+ * Filtre de Bloom des pseudos et des emails déjà utilisés.
+ * Un identifiant absent du filtre est libre à coup sûr : l'inscription n'interroge pas la base.
+ * Un identifiant présent n'est que peut-être pris (faux positifs, environ 1 %) et reste vérifié en base.
+ * Les identifiants sont comparés en minuscules, sans espaces autour : une variante de casse d'un identifiant
+ * connu est toujours vérifiée en base.
+ * Le filtre est construit au démarrage puis complété par UtilisateurManager ; un identifiant libéré
+ * (utilisateur modifié ou supprimé) y reste jusqu'à la construction suivante, ce qui ne coûte qu'une requête.
+ * Tant qu'il n'est pas construit, tous les identifiants sont vérifiés en base.
+ * "Libre à coup sûr" ne vaut que pour les inscriptions faites par ce serveur : celles d'un autre serveur
+ * ne sont pas dans son filtre. Les contraintes UNIQUE de la base restent l'arbitre, leur violation est
+ * rapportée comme un doublon par UtilisateurManager.
+ */
+public class FiltreIdentifiants {
+
+	// Environ 10 bits par identifiant et 7 fonctions de hachage : 1 % de faux positifs à pleine capacité
+	private static final int BITS_PAR_IDENTIFIANT = 10;
+	private static final int NB_HACHAGES = 7;
+	// Marge pour les inscriptions à venir : au-delà, le filtre est moins sélectif mais toujours exact
+	private static final int CAPACITE_MIN = 10000;
+
+	// Lecture des utilisateurs à mettre dans le filtre
+	@FunctionalInterface
+	interface Lecture {
+		List<Utilisateur> lire() throws BusinessException;
+	}
+
+	private volatile Bloom pseudos;
+	private volatile Bloom emails;
+	// Identifiants ajoutés pendant une construction, repris dans les nouveaux filtres ; null hors construction.
+	// Gardé par le moniteur du filtre, comme la publication des nouveaux filtres
+	private List<String[]> ajoutsPendantConstruction;
+	// Une seule construction à la fois
+	private final Object construction = new Object();
+
+	FiltreIdentifiants() {
+	}
+
+	//Filtre construit au démarrage (Registre)
+	public static FiltreIdentifiants getInstance() {
+		return Registre.get().filtreIdentifiants;
+	}
+
+	public boolean isConstruit() {
+		return pseudos != null;
+	}
+
+	/**
+	 * Remplace le contenu du filtre par les identifiants des utilisateurs lus.
+	 * Les ajouts faits pendant la lecture (inscription validée après le début de celle-ci, donc
+	 * peut-être absente de la liste) sont repris dans les nouveaux filtres.
+	 */
+	void construire(Lecture lecture) throws BusinessException {
+		synchronized (construction) {
+			synchronized (this) {
+				ajoutsPendantConstruction = new ArrayList<>();
+			}
+			try {
+				List<Utilisateur> utilisateurs = lecture.lire();
+				int capacite = Math.max(CAPACITE_MIN, 2 * utilisateurs.size());
+				Bloom nouveauxPseudos = new Bloom(capacite);
+				Bloom nouveauxEmails = new Bloom(capacite);
+				for (Utilisateur utilisateur : utilisateurs) {
+					nouveauxPseudos.ajouter(cle(utilisateur.getPseudo()));
+					nouveauxEmails.ajouter(cle(utilisateur.getEmail()));
+				}
+				synchronized (this) {
+					for (String[] identifiants : ajoutsPendantConstruction) {
+						nouveauxPseudos.ajouter(identifiants[0]);
+						nouveauxEmails.ajouter(identifiants[1]);
+					}
+					emails = nouveauxEmails;
+					pseudos = nouveauxPseudos;
+				}
+			} finally {
+				synchronized (this) {
+					ajoutsPendantConstruction = null;
+				}
+			}
+		}
+	}
+
+	//Ajoute les identifiants d'un utilisateur créé ou modifié, une fois l'écriture validée
+	public synchronized void ajouter(Utilisateur utilisateur) {
+		String pseudo = cle(utilisateur.getPseudo());
+		String email = cle(utilisateur.getEmail());
+		if (pseudos != null) {
+			pseudos.ajouter(pseudo);
+			emails.ajouter(email);
+		}
+		if (ajoutsPendantConstruction != null) {
+			ajoutsPendantConstruction.add(new String[] {pseudo, email});
+		}
+	}
+
+	//false si le pseudo est libre à coup sûr, true s'il faut le vérifier en base
+	public boolean peutExisterPseudo(String pseudo) {
+		Bloom filtre = pseudos;
+		return filtre == null || filtre.contient(cle(pseudo));
+	}
+
+	//false si l'email est libre à coup sûr, true s'il faut le vérifier en base
+	public boolean peutExisterEmail(String email) {
+		Bloom filtre = emails;
+		return filtre == null || filtre.contient(cle(email));
+	}
+
+	private static String cle(String identifiant) {
+		return identifiant == null ? "" : identifiant.trim().toLowerCase(Locale.ROOT);
+	}
+
+	// Tableau de bits partagé sans verrou : un bit positionné ne repasse jamais à zéro
+	private static final class Bloom {
+
+		private final AtomicLongArray bits;
+		private final int nbBits;
+
+		private Bloom(int capacite) {
+			int mots = (int) Math.min(Integer.MAX_VALUE / 64, ((long) capacite * BITS_PAR_IDENTIFIANT + 63) / 64);
+			this.bits = new AtomicLongArray(mots);
+			this.nbBits = mots * 64;
+		}
+
+		private void ajouter(String cle) {
+			long[] hachages = hachages(cle);
+			for (int i = 0; i < NB_HACHAGES; i++) {
+				int bit = position(hachages, i);
+				bits.getAndAccumulate(bit >>> 6, 1L << bit, (mot, masque) -> mot | masque);
+			}
+		}
+
+		private boolean contient(String cle) {
+			long[] hachages = hachages(cle);
+			for (int i = 0; i < NB_HACHAGES; i++) {
+				int bit = position(hachages, i);
+				if ((bits.get(bit >>> 6) & (1L << bit)) == 0) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		// Double hachage : la i-ème position est h1 + i * h2
+		private int position(long[] hachages, int i) {
+			return (int) Math.floorMod(hachages[0] + i * hachages[1], (long) nbBits);
+		}
+
+		// Deux hachages 64 bits indépendants (FNV-1a puis mélange de celui-ci)
+		private static long[] hachages(String cle) {
+			long h = 0xcbf29ce484222325L;
+			for (byte octet : cle.getBytes(StandardCharsets.UTF_8)) {
+				h ^= octet & 0xff;
+				h *= 0x100000001b3L;
+			}
+			long h2 = h;
+			h2 ^= h2 >>> 33;
+			h2 *= 0xff51afd7ed558ccdL;
+			h2 ^= h2 >>> 33;
+			h2 *= 0xc4ceb9fe1a85ec53L;
+			h2 ^= h2 >>> 33;
+			// h2 non nul : les positions sont distinctes
+			return new long[] {h, h2 | 1};
+		}
+	}
+
+}
@@ -0,0 +1,165 @@
+package fr.eni.javaee.encheres.bll;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import fr.eni.javaee.encheres.bo.ArticleVendu;
+import fr.eni.javaee.encheres.dal.CritereArticle;
+
+/**
+ * Index inversé en mémoire des trigrammes du nom et de la description des articles.
+ * Les textes sont mis en minuscules et débarrassés de leurs accents ("Théière" et "theiere" se
+ * retrouvent), la recherche d'un fragment renvoie les numéros des articles qui le contiennent.
+ * Sans index, la recherche en base (CritereArticle.setNom_article) donne le même résultat.
+ * L'index est construit au démarrage puis tenu à jour par ArticleVenduManager.
+ */
+public class IndexArticles {
+
+	private static final int TAILLE_GRAMME = 3;
+	// trigramme -> articles dont le nom ou la description le contient
+	private final Map<String, Set<Integer>> postings = new HashMap<>();
+	// article -> textes normalisés, pour vérifier les candidats et retirer l'article de l'index
+	private final Map<Integer, String> textes = new HashMap<>();
+	private final ReentrantReadWriteLock verrou = new ReentrantReadWriteLock();
+	private volatile boolean construit;
+
+	IndexArticles() {
+	}
+
+	//Index construit au démarrage (Registre)
+	public static IndexArticles getInstance() {
+		return Registre.get().indexArticles;
+	}
+
+	public boolean isConstruit() {
+		return construit;
+	}
+
+	//Remplace le contenu de l'index par la liste d'articles
+	public void construire(List<ArticleVendu> articles) {
+		verrou.writeLock().lock();
+		try {
+			postings.clear();
+			textes.clear();
+			for (ArticleVendu articleVendu : articles) {
+				indexer(articleVendu);
+			}
+			construit = true;
+		} finally {
+			verrou.writeLock().unlock();
+		}
+	}
+
+	//Ajoute l'article à l'index ou remplace sa version précédente
+	public void ajouter(ArticleVendu articleVendu) {
+		verrou.writeLock().lock();
+		try {
+			desindexer(articleVendu.getNo_article());
+			indexer(articleVendu);
+		} finally {
+			verrou.writeLock().unlock();
+		}
+	}
+
+	public void retirer(int no_article) {
+		verrou.writeLock().lock();
+		try {
+			desindexer(no_article);
+		} finally {
+			verrou.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Articles dont le nom ou la description contient le fragment recherché
+	 * @param String recherche
+	 * @return Set<Integer> numéros des articles, null si l'index n'est pas encore construit
+	 */
+	public Set<Integer> rechercher(String recherche) {
+
+		if (!construit) {
+			return null;
+		}
+		String fragment = normaliser(recherche);
+
+		verrou.readLock().lock();
+		try {
+			Set<Integer> candidats;
+			if (fragment.length() < TAILLE_GRAMME) {
+				// fragment trop court pour un trigramme : les textes sont parcourus en mémoire
+				candidats = textes.keySet();
+			} else {
+				// intersection des listes de trigrammes, en commençant par la plus courte
+				List<Set<Integer>> listes = new ArrayList<>();
+				for (String gramme : grammes(fragment)) {
+					Set<Integer> liste = postings.get(gramme);
+					if (liste == null) {
+						return Collections.emptySet();
+					}
+					listes.add(liste);
+				}
+				listes.sort(Comparator.comparingInt(Set::size));
+				candidats = new HashSet<>(listes.get(0));
+				for (int i = 1; i < listes.size() && !candidats.isEmpty(); i++) {
+					candidats.retainAll(listes.get(i));
+				}
+			}
+
+			// les trigrammes peuvent être présents sans former le fragment : vérification sur le texte
+			Set<Integer> resultat = new HashSet<>();
+			for (Integer no_article : candidats) {
+				if (textes.get(no_article).contains(fragment)) {
+					resultat.add(no_article);
+				}
+			}
+			return resultat;
+		} finally {
+			verrou.readLock().unlock();
+		}
+	}
+
+	//Forme comparée par la recherche, la même que celle de la recherche en base
+	static String normaliser(String texte) {
+		return CritereArticle.plier(texte);
+	}
+
+	private void indexer(ArticleVendu articleVendu) {
+		// séparateur improbable : un fragment ne chevauche pas le nom et la description
+		String texte = normaliser(articleVendu.getNom_article()) + "\n" + normaliser(articleVendu.getDescription());
+		textes.put(articleVendu.getNo_article(), texte);
+		for (String gramme : grammes(texte)) {
+			postings.computeIfAbsent(gramme, g -> new HashSet<>()).add(articleVendu.getNo_article());
+		}
+	}
+
+	private void desindexer(int no_article) {
+		String texte = textes.remove(no_article);
+		if (texte != null) {
+			for (String gramme : grammes(texte)) {
+				Set<Integer> liste = postings.get(gramme);
+				if (liste != null) {
+					liste.remove(no_article);
+					if (liste.isEmpty()) {
+						postings.remove(gramme);
+					}
+				}
+			}
+		}
+	}
+
+	private static Set<String> grammes(String texte) {
+		Set<String> grammes = new HashSet<>();
+		for (int i = 0; i + TAILLE_GRAMME <= texte.length(); i++) {
+			grammes.add(texte.substring(i, i + TAILLE_GRAMME));
+		}
+		return grammes;
+	}
+
+}
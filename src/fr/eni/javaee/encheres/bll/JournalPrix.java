@@ -0,0 +1,101 @@
+package fr.eni.javaee.encheres.bll;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Journal des changements de prix, alimenté par le moteur d'enchères.
+ * Chaque changement reçoit un numéro de version croissant ; seul le dernier changement de chaque
+ * article est conservé. Une page qui connaît la version de ses prix demande uniquement les
+ * changements intervenus depuis, pour ses articles.
+ * Seuls les CAPACITE articles modifiés le plus récemment sont gardés : une page qui interroge le
+ * journal régulièrement a reçu les changements d'un article bien avant qu'il n'en soit retiré.
+ */
+public class JournalPrix implements EcouteurEncheres {
+
+	private static final int CAPACITE = 10000;
+
+	// Dernier changement d'un article, jamais modifié une fois construit
+	public static final class Changement {
+		private final int no_article;
+		private final int prix;
+		private final String encherisseur;
+		private final long version;
+
+		private Changement(int no_article, int prix, String encherisseur, long version) {
+			this.no_article = no_article;
+			this.prix = prix;
+			this.encherisseur = encherisseur;
+			this.version = version;
+		}
+
+		public int getNo_article() {
+			return no_article;
+		}
+
+		public int getPrix() {
+			return prix;
+		}
+
+		public String getEncherisseur() {
+			return encherisseur;
+		}
+
+		public long getVersion() {
+			return version;
+		}
+	}
+
+	// Ordre des changements (un article modifié est retiré puis remis en dernier) :
+	// removeEldestEntry retire l'article modifié le moins récemment
+	private final Map<Integer, Changement> derniers = new LinkedHashMap<Integer, Changement>() {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<Integer, Changement> eldest) {
+			return size() > CAPACITE;
+		}
+	};
+	private long version;
+
+	JournalPrix() {
+	}
+
+	//Journal construit au démarrage (Registre), abonné au moteur d'enchères
+	public static JournalPrix getInstance() {
+		return Registre.get().journalPrix;
+	}
+
+	@Override
+	public synchronized void prixModifie(int no_article, int prix, String meilleurEncherisseur) {
+		derniers.remove(no_article);
+		derniers.put(no_article, new Changement(no_article, prix, meilleurEncherisseur, ++version));
+	}
+
+	//Version courante : à lire avant les prix qu'elle accompagne
+	public synchronized long getVersion() {
+		return version;
+	}
+
+	/**
+	 * Changements des articles indiqués postérieurs à la version indiquée.
+	 * Une version supérieure à la version courante vient d'avant un redémarrage : tous les
+	 * changements connus sont alors renvoyés.
+	 */
+	public synchronized List<Changement> getChangements(List<Integer> no_articles, long depuis) {
+		if (depuis > version) {
+			depuis = 0;
+		}
+		List<Changement> changements = new ArrayList<>();
+		for (int no_article : no_articles) {
+			Changement changement = derniers.get(no_article);
+			if (changement != null && changement.version > depuis) {
+				changements.add(changement);
+			}
+		}
+		return changements;
+	}
+
+}
@@ -0,0 +1,468 @@
+package fr.eni.javaee.encheres.bll;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Logger;
+
+import fr.eni.javaee.encheres.bo.ArticleVendu;
+import fr.eni.javaee.encheres.bo.Enchere;
+import fr.eni.javaee.encheres.bo.Utilisateur;
+import fr.eni.javaee.encheres.dal.EnchereDAO;
+import fr.eni.javaee.encheres.messages.BusinessException;
+import fr.eni.javaee.encheres.utils.ErrorLogger;
+
+/**
+ * Moteur d'enchères en mémoire.
+ * Les articles sont répartis par no_article entre des files traitées chacune par un seul thread :
+ * toutes les enchères d'un article passent par le même thread, qui détient le prix courant et le
+ * meilleur enchérisseur sans verrou. Une enchère est acceptée ou refusée en mémoire, puis les
+ * enchères acceptées sont enregistrées en base par lots, en arrière-plan.
+ * Une enchère peut porter un montant maximum (enchère automatique) : à chaque nouvelle enchère, le
+ * moteur compare en une fois ce maximum à celui du meneur et n'enregistre que les enchères visibles
+ * qui en résultent. Le maximum est enregistré avec l'enchère (montant_maximum) : l'état d'un article
+ * relu de la base (redémarrage, article modifié ou oublié) retrouve celui du meneur.
+ * Le moteur est construit par le Registre, avec son DAO des enchères, et démarré au démarrage de
+ * l'application (EcouteurDemarrage).
+ */
+public class MoteurEncheres {
+
+	private static Logger logger = ErrorLogger.getLogger("MoteurEncheres");
+
+	private static final int TAILLE_LOT = 100;
+	// Écart entre deux enchères automatiques
+	private static final int PAS = 1;
+	// Articles gardés en mémoire par file : au-delà, le moins récemment enchéri est relu à sa prochaine enchère
+	private static final int CAPACITE_FILE = 10000;
+	// Un lot en échec est retenté, à intervalles croissants, avant d'être enregistré enchère par enchère
+	private static final int TENTATIVES = 3;
+	private static final long DELAI_NOUVELLE_TENTATIVE_MS = 1000;
+
+	// Résultat d'une enchère acceptée
+	static final int ACCEPTEE = 0;
+
+	// Réponse du moteur : ACCEPTEE ou code de la règle qui refuse l'enchère, et prix de l'article
+	// après son traitement (0 si l'article est introuvable), que la requête reporte sur son article
+	static final class Resultat {
+		private final int code;
+		private final int prix;
+
+		private Resultat(int code, int prix) {
+			this.code = code;
+			this.prix = prix;
+		}
+
+		int getCode() {
+			return code;
+		}
+
+		int getPrix() {
+			return prix;
+		}
+	}
+
+	// Etat d'un article, lu et modifié uniquement par le thread de sa file.
+	// Il ne garde que des valeurs copiées : l'article et l'utilisateur lus par les requêtes ne sont
+	// jamais modifiés par le moteur.
+	private static final class EtatArticle {
+		private final int no_article;
+		private final LocalDate date_debut_encheres;
+		private final LocalDate date_fin_encheres;
+		private final int prix_initial;
+		private int prix;
+		// Meneur (numéro et pseudo), null s'il n'y a pas encore d'enchère
+		private Utilisateur meilleurEncherisseur;
+		// Maximum du meneur, égal au prix s'il n'a pas d'enchère automatique
+		private int maximum;
+		// Prix modifié depuis la dernière publication
+		private boolean aPublier;
+
+		private EtatArticle(ArticleVendu article, CacheMeilleuresEncheres.Meilleure meilleure) {
+			this.no_article = article.getNo_article();
+			this.date_debut_encheres = article.getDate_debut_encheres();
+			this.date_fin_encheres = article.getDate_fin_encheres();
+			this.prix_initial = article.getPrix_initial();
+			this.prix = article.getPrix_vente();
+			this.maximum = prix;
+			if (meilleure != null) {
+				// la meilleure enchère peut être plus récente que le prix lu en base (lot pas encore enregistré)
+				this.prix = Math.max(prix, meilleure.getMontant());
+				this.meilleurEncherisseur = encherisseur(meilleure.getNo_utilisateur(), meilleure.getPseudo());
+				this.maximum = Math.max(prix, meilleure.getMaximum());
+			}
+		}
+
+		// Enchère du meneur à son maximum courant, sur un article et un utilisateur propres au moteur
+		private Enchere enchereMeneur(LocalDate date_enchere, int montant) {
+			return enchere(meilleurEncherisseur, date_enchere, montant, maximum);
+		}
+
+		// Enchère construite par le moteur : l'enchère soumise par la requête n'est jamais modifiée
+		// ni enregistrée telle quelle, la requête pouvant encore la lire
+		private Enchere enchere(Utilisateur encherisseur, LocalDate date_enchere, int montant, int montant_maximum) {
+			ArticleVendu article = new ArticleVendu();
+			article.setNo_article(no_article);
+			Enchere enchere = new Enchere(encherisseur, article, date_enchere, montant);
+			enchere.setMontant_maximum(montant_maximum);
+			return enchere;
+		}
+	}
+
+	/**
+	 * Réponse à une enchère soumise. Tant que le thread de la file ne l'a pas prise, cancel retire
+	 * l'enchère : elle ne sera jamais traitée. Une fois prise, cancel échoue et la réponse viendra.
+	 */
+	static final class Soumission extends CompletableFuture<Resultat> {
+		private final AtomicBoolean prise = new AtomicBoolean();
+
+		@Override
+		public boolean cancel(boolean interrompre) {
+			return prise.compareAndSet(false, true) && super.cancel(interrompre);
+		}
+
+		//Réservée au thread de la file : false si l'enchère a été annulée
+		private boolean prendre() {
+			return prise.compareAndSet(false, true);
+		}
+	}
+
+	private final ExecutorService[] files;
+	private final List<Map<Integer, EtatArticle>> etats = new ArrayList<>();
+	// Jour de la dernière purge des ventes closes de chaque file, lu par le thread de la file
+	private final LocalDate[] purges;
+	private final BlockingQueue<Enchere> aEnregistrer = new LinkedBlockingQueue<>();
+	private final EnchereDAO dao;
+	private final List<EcouteurEncheres> ecouteurs = new CopyOnWriteArrayList<>();
+	private final Thread enregistreur;
+	private volatile boolean demarre;
+	private volatile boolean arrete;
+
+	//Construit les files sans démarrer de thread : voir demarrer
+	MoteurEncheres(int nombreFiles, EnchereDAO dao) {
+		this.dao = dao;
+		this.files = new ExecutorService[nombreFiles];
+		this.purges = new LocalDate[nombreFiles];
+		for (int i = 0; i < nombreFiles; i++) {
+			String nom = "moteur-encheres-" + i;
+			// le thread de la file n'est créé qu'à sa première enchère
+			files[i] = Executors.newSingleThreadExecutor(r -> {
+				Thread thread = new Thread(r, nom);
+				thread.setDaemon(true);
+				return thread;
+			});
+			// accès en ordre d'utilisation : removeEldestEntry retire l'article le moins récemment enchéri
+			etats.add(new LinkedHashMap<Integer, EtatArticle>(16, 0.75f, true) {
+				private static final long serialVersionUID = 1L;
+
+				@Override
+				protected boolean removeEldestEntry(Map.Entry<Integer, EtatArticle> eldest) {
+					return size() > CAPACITE_FILE;
+				}
+			});
+		}
+		this.enregistreur = new Thread(this::enregistrer, "moteur-encheres-enregistreur");
+		this.enregistreur.setDaemon(true);
+	}
+
+	//Moteur construit au démarrage (Registre)
+	public static MoteurEncheres getInstance() {
+		return Registre.get().moteurEncheres;
+	}
+
+	//Démarre le thread d'enregistrement, une seule fois
+	public synchronized void demarrer() {
+		if (!demarre && !arrete) {
+			enregistreur.start();
+			demarre = true;
+		}
+	}
+
+	/**
+	 * Soumet l'enchère au thread de son article
+	 * @return CompletableFuture<Resultat> ACCEPTEE, ou le code de la règle qui la refuse, et le prix ;
+	 * annulable tant que l'enchère n'est pas prise par son thread
+	 */
+	CompletableFuture<Resultat> soumettre(Enchere enchere) {
+		int no_article = enchere.getArticle().getNo_article();
+		int index = file(no_article);
+		if (!demarre) {
+			// hors conteneur, le moteur démarre à la première enchère
+			demarrer();
+		}
+		try {
+			if (!arrete) {
+				Soumission soumission = new Soumission();
+				files[index].execute(() -> {
+					// enchère annulée par la requête (délai de réponse dépassé) : elle n'est pas traitée
+					if (soumission.prendre()) {
+						try {
+							soumission.complete(traiterEtPublier(index, enchere));
+						} catch (RuntimeException e) {
+							soumission.completeExceptionally(e);
+						}
+					}
+				});
+				return soumission;
+			}
+		} catch (RejectedExecutionException e) {
+			// file arrêtée entre le contrôle et la soumission
+		}
+		CompletableFuture<Resultat> refus = new CompletableFuture<>();
+		refus.completeExceptionally(new IllegalStateException("Moteur d'enchères arrêté"));
+		return refus;
+	}
+
+	public void ajouterEcouteur(EcouteurEncheres ecouteur) {
+		ecouteurs.add(ecouteur);
+	}
+
+	public void retirerEcouteur(EcouteurEncheres ecouteur) {
+		ecouteurs.remove(ecouteur);
+	}
+
+	//Oublie l'état de l'article (modifié ou supprimé) : il sera relu à la prochaine enchère
+	void oublier(int no_article) {
+		int index = file(no_article);
+		try {
+			if (!arrete) {
+				files[index].execute(() -> etats.get(index).remove(no_article));
+			}
+		} catch (RejectedExecutionException e) {
+			// moteur arrêté : son état ne sera plus lu
+		}
+	}
+
+	//Arrête les files puis enregistre les enchères restantes
+	public void arreter() {
+		arrete = true;
+		for (ExecutorService file : files) {
+			file.shutdown();
+		}
+		try {
+			for (ExecutorService file : files) {
+				file.awaitTermination(5, TimeUnit.SECONDS);
+			}
+			enregistreur.interrupt();
+			enregistreur.join(TimeUnit.SECONDS.toMillis(5));
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private int file(int no_article) {
+		return Math.floorMod(no_article, files.length);
+	}
+
+	//Exécuté par le thread de la file de l'article : traite l'enchère puis publie le nouveau prix.
+	//L'article de la requête n'est jamais modifié ici : le prix lui est rendu avec le résultat.
+	private Resultat traiterEtPublier(int index, Enchere enchere) {
+		Map<Integer, EtatArticle> etatsFile = etats.get(index);
+		purger(index, etatsFile);
+		int code = traiter(etatsFile, enchere);
+		EtatArticle etat = etatsFile.get(enchere.getArticle().getNo_article());
+		if (etat != null && etat.aPublier) {
+			etat.aPublier = false;
+			String pseudo = etat.meilleurEncherisseur == null ? null : etat.meilleurEncherisseur.getPseudo();
+			for (EcouteurEncheres ecouteur : ecouteurs) {
+				try {
+					ecouteur.prixModifie(etat.no_article, etat.prix, pseudo);
+				} catch (RuntimeException e) {
+					logger.severe("Ecouteur d'enchères en erreur : " + e);
+				}
+			}
+		}
+		return new Resultat(code, etat == null ? 0 : etat.prix);
+	}
+
+	//Une fois par jour, oublie les ventes closes de la file : elles ne reçoivent plus d'enchère
+	private void purger(int index, Map<Integer, EtatArticle> etatsFile) {
+		LocalDate today = LocalDate.now();
+		if (today.equals(purges[index])) {
+			return;
+		}
+		purges[index] = today;
+		Iterator<EtatArticle> iterateur = etatsFile.values().iterator();
+		while (iterateur.hasNext()) {
+			if (iterateur.next().date_fin_encheres.isBefore(today)) {
+				iterateur.remove();
+			}
+		}
+	}
+
+	private int traiter(Map<Integer, EtatArticle> etatsFile, Enchere enchere) {
+
+		int no_article = enchere.getArticle().getNo_article();
+		EtatArticle etat = etatsFile.get(no_article);
+		if (etat == null) {
+			try {
+				etat = charger(no_article);
+			} catch (BusinessException e) {
+				return CodesResultatBLL.REGLE_ENCHERE_ARTICLE_INTROUVABLE;
+			}
+			if (etat == null) {
+				return CodesResultatBLL.REGLE_ENCHERE_ARTICLE_INTROUVABLE;
+			}
+			etatsFile.put(no_article, etat);
+		}
+
+		LocalDate date_enchere = enchere.getDate_enchere();
+		if (date_enchere.isBefore(etat.date_debut_encheres) || date_enchere.isAfter(etat.date_fin_encheres)) {
+			return CodesResultatBLL.REGLE_ENCHERE_DATE_INVALIDE;
+		}
+		if (enchere.getMontant_enchere() <= etat.prix || enchere.getMontant_enchere() <= etat.prix_initial) {
+			return CodesResultatBLL.REGLE_ENCHERE_INSUFFISANTE;
+		}
+
+		int maximum = Math.max(enchere.getMontant_enchere(), enchere.getMontant_maximum());
+		Utilisateur meneur = etat.meilleurEncherisseur;
+
+		if (meneur != null && meneur.getNo_utilisateur() == enchere.getEncherisseur().getNo_utilisateur()) {
+			// le meneur relève son maximum : le prix ne bouge pas, le nouveau maximum est enregistré au prix courant
+			if (maximum > etat.maximum) {
+				etat.maximum = maximum;
+				enregistrer(etat.enchereMeneur(date_enchere, etat.prix));
+			}
+			return ACCEPTEE;
+		}
+
+		if (meneur == null || maximum > etat.maximum) {
+			// le nouvel enchérisseur prend la tête : le maximum du meneur est atteint, puis dépassé d'un pas
+			int prixAtteint = etat.prix;
+			if (meneur != null && etat.maximum > etat.prix) {
+				prixAtteint = etat.maximum;
+				visible(etat, etat.enchereMeneur(date_enchere, prixAtteint));
+			}
+			int montant = Math.max(enchere.getMontant_enchere(), Math.min(maximum, prixAtteint + PAS));
+			etat.meilleurEncherisseur = encherisseur(enchere.getEncherisseur().getNo_utilisateur(), enchere.getEncherisseur().getPseudo());
+			etat.maximum = maximum;
+			visible(etat, etat.enchereMeneur(date_enchere, montant));
+			return ACCEPTEE;
+		}
+
+		// le maximum du meneur couvre celui de l'enchère : elle est enregistrée à son maximum puis
+		// dépassée d'un pas ; à maximum égal, le meneur garde la tête au prix de ce maximum
+		if (maximum < etat.maximum) {
+			Utilisateur encherisseur = encherisseur(enchere.getEncherisseur().getNo_utilisateur(), enchere.getEncherisseur().getPseudo());
+			visible(etat, etat.enchere(encherisseur, date_enchere, maximum, 0));
+		}
+		visible(etat, etat.enchereMeneur(date_enchere, Math.min(etat.maximum, maximum + PAS)));
+		return CodesResultatBLL.REGLE_ENCHERE_DEPASSEE_AUTOMATIQUEMENT;
+	}
+
+	//Enchère visible : devient le prix courant, puis part à l'enregistrement
+	private void visible(EtatArticle etat, Enchere enchere) {
+		etat.prix = enchere.getMontant_enchere();
+		etat.aPublier = true;
+		enregistrer(enchere);
+	}
+
+	//Met l'enchère en file d'enregistrement ; la meilleure enchère (et son maximum) est connue aussitôt
+	private void enregistrer(Enchere enchere) {
+		CacheMeilleuresEncheres.getInstance().enregistrer(enchere);
+		aEnregistrer.add(enchere);
+	}
+
+	private EtatArticle charger(int no_article) throws BusinessException {
+		ArticleVendu article = ArticleVenduManager.getInstance().getArticleVendu(no_article);
+		if (article == null) {
+			return null;
+		}
+		return new EtatArticle(article, CacheMeilleuresEncheres.getInstance().get(dao, no_article));
+	}
+
+	// Enchérisseur réduit à son numéro et à son pseudo, propre au moteur
+	private static Utilisateur encherisseur(int no_utilisateur, String pseudo) {
+		Utilisateur encherisseur = new Utilisateur();
+		encherisseur.setNo_utilisateur(no_utilisateur);
+		encherisseur.setPseudo(pseudo);
+		return encherisseur;
+	}
+
+	//Boucle du thread d'enregistrement : attend une enchère puis enregistre toutes celles en attente
+	private void enregistrer() {
+		List<Enchere> lot = new ArrayList<>();
+		while (true) {
+			try {
+				lot.add(aEnregistrer.take());
+			} catch (InterruptedException e) {
+				// arrêt : les enchères restantes sont enregistrées avant de sortir
+				aEnregistrer.drainTo(lot);
+				enregistrerLot(lot);
+				return;
+			}
+			aEnregistrer.drainTo(lot, TAILLE_LOT - 1);
+			enregistrerLot(lot);
+			lot.clear();
+		}
+	}
+
+	/**
+	 * Enregistre le lot. Les enchères ont déjà été annoncées aux enchérisseurs : un lot en échec
+	 * est retenté (erreur passagère de la base), puis enregistré enchère par enchère pour que seule
+	 * une enchère refusée par la base soit perdue. Une enchère perdue est journalisée en détail et
+	 * son article est relu de la base à sa prochaine enchère.
+	 */
+	private void enregistrerLot(List<Enchere> lot) {
+		if (lot.isEmpty()) {
+			return;
+		}
+		BusinessException erreur = null;
+		for (int tentative = 1; tentative <= TENTATIVES; tentative++) {
+			try {
+				dao.insertBatch(lot);
+				return;
+			} catch (BusinessException e) {
+				erreur = e;
+				logger.warning("Lot de " + lot.size() + " enchères en échec (tentative " + tentative + ") : " + e.getListeCodesErreur());
+			}
+			if (tentative < TENTATIVES && !attendre(DELAI_NOUVELLE_TENTATIVE_MS * tentative)) {
+				// arrêt de l'application : pas de nouvelle attente
+				break;
+			}
+		}
+		erreur.printStackTrace();
+		Set<Integer> articles = new LinkedHashSet<>();
+		for (Enchere enchere : lot) {
+			try {
+				dao.insertBatch(Collections.singletonList(enchere));
+			} catch (BusinessException e) {
+				logger.severe("Enchère acceptée non enregistrée : article " + enchere.getArticle().getNo_article()
+						+ ", enchérisseur " + enchere.getEncherisseur().getNo_utilisateur() + ", montant "
+						+ enchere.getMontant_enchere() + " " + e.getListeCodesErreur());
+				articles.add(enchere.getArticle().getNo_article());
+			}
+		}
+		// l'état en mémoire ne correspond plus à la base : ces articles seront relus
+		for (int no_article : articles) {
+			oublier(no_article);
+			CacheMeilleuresEncheres.getInstance().invalider(no_article);
+		}
+	}
+
+	//Attend avant une nouvelle tentative, false si le thread est interrompu (arrêt)
+	private static boolean attendre(long millisecondes) {
+		try {
+			Thread.sleep(millisecondes);
+			return true;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return false;
+		}
+	}
+
+}
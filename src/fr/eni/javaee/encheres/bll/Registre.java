@@ -0,0 +1,95 @@
+package fr.eni.javaee.encheres.bll;
+
+import fr.eni.javaee.encheres.dal.DAOFactory;
+import fr.eni.javaee.encheres.dal.EnchereDAO;
+import fr.eni.javaee.encheres.dal.UniteDeTravail;
+import fr.eni.javaee.encheres.utils.FileCourriels;
+
+/**
+ * Managers de l'application, leurs DAO, le moteur d'enchères et ses abonnés, les caches partagés
+ * (utilisateurs, catégories, meilleures enchères, recherches), l'index des articles, le filtre des
+ * identifiants, la file des courriels et l'unité de travail (Transaction), construits une seule fois.
+ * Le moteur et EnchereManager partagent le même DAO des enchères.
+ * Le registre est construit au démarrage (EcouteurDemarrage) puis publié par un champ volatile :
+ * ses champs étant final, chaque thread voit des managers complètement construits et les requêtes
+ * n'allouent ni ne synchronisent plus rien pour obtenir un manager.
+ * Hors conteneur (ou avant le démarrage), il est construit à la première demande.
+ */
+public final class Registre {
+
+	private static volatile Registre courant;
+
+	final UtilisateurManager utilisateurManager;
+	final CategorieManager categorieManager;
+	final ArticleVenduManager articleVenduManager;
+	final RetraitManager retraitManager;
+	final EnchereManager enchereManager;
+	final MoteurEncheres moteurEncheres;
+	final JournalPrix journalPrix;
+	final CacheMeilleuresEncheres cacheMeilleuresEncheres;
+	final CacheRecherches cacheRecherches;
+	final CacheUtilisateurs cacheUtilisateurs;
+	final CacheCategories cacheCategories;
+	final IndexArticles indexArticles;
+	final FiltreIdentifiants filtreIdentifiants;
+	final FileCourriels fileCourriels;
+	final UniteDeTravail uniteDeTravail;
+
+	// Les constructeurs appelés ici ne demandent rien au registre, qui n'est pas encore publié
+	private Registre() {
+		this.cacheMeilleuresEncheres = new CacheMeilleuresEncheres();
+		this.cacheRecherches = new CacheRecherches();
+		this.cacheUtilisateurs = new CacheUtilisateurs();
+		this.cacheCategories = new CacheCategories();
+		this.indexArticles = new IndexArticles();
+		this.filtreIdentifiants = new FiltreIdentifiants();
+		this.fileCourriels = new FileCourriels();
+		this.utilisateurManager = new UtilisateurManager(DAOFactory.getUtilisateurDAO());
+		this.categorieManager = new CategorieManager(DAOFactory.getCategorieDAO());
+		this.articleVenduManager = new ArticleVenduManager(DAOFactory.getArticleVenduDAO());
+		this.retraitManager = new RetraitManager(DAOFactory.getRetraitDAO());
+		EnchereDAO enchereDAO = DAOFactory.getEnchereDAO();
+		this.enchereManager = new EnchereManager(enchereDAO);
+		this.moteurEncheres = new MoteurEncheres(Runtime.getRuntime().availableProcessors(), enchereDAO);
+		// journal des prix interrogé par la liste des enchères
+		this.journalPrix = new JournalPrix();
+		this.moteurEncheres.ajouterEcouteur(journalPrix);
+		// recherches dépendant des enchères de l'utilisateur, oubliées à chaque enchère acceptée
+		this.moteurEncheres.ajouterEcouteur(cacheRecherches);
+		this.uniteDeTravail = DAOFactory.getUniteDeTravail();
+	}
+
+	//Construit le registre s'il ne l'est pas encore
+	public static void demarrer() {
+		get();
+	}
+
+	//File des courriels, dont EcouteurDemarrage choisit l'expéditeur
+	public static FileCourriels getFileCourriels() {
+		return get().fileCourriels;
+	}
+
+	//Arrêt de l'application : enregistre les enchères en attente, puis arrête la file des courriels
+	public static void arreter() {
+		Registre registre = courant;
+		if (registre != null) {
+			registre.moteurEncheres.arreter();
+			registre.fileCourriels.arreter();
+		}
+	}
+
+	static Registre get() {
+		Registre registre = courant;
+		if (registre == null) {
+			synchronized (Registre.class) {
+				registre = courant;
+				if (registre == null) {
+					registre = new Registre();
+					courant = registre;
+				}
+			}
+		}
+		return registre;
+	}
+
+}
@@ -0,0 +1,13 @@
+package fr.eni.javaee.encheres.bll;
+
+import fr.eni.javaee.encheres.messages.BusinessException;
+
+/**
+ * Règle métier : ajoute à businessException les codes des erreurs constatées sur l'objet.
+ */
+@FunctionalInterface
+public interface Regle<T> {
+
+	public void verifier(T objet, BusinessException businessException);
+
+}
@@ -5,23 +5,19 @@ import java.util.List;
 import fr.eni.javaee.encheres.bo.ArticleVendu;
 import fr.eni.javaee.encheres.bo.Retrait;
 import fr.eni.javaee.encheres.dal.RetraitDAO;
-import fr.eni.javaee.encheres.dal.DAOFactory;
 import fr.eni.javaee.encheres.messages.BusinessException;
 
 public class RetraitManager {
 
-	private static RetraitManager instance;
-	private static RetraitDAO DAORetrait;
+	private final RetraitDAO DAORetrait;
 
-	private RetraitManager() {
-		DAORetrait=DAOFactory.getRetraitDAO();
+	RetraitManager(RetraitDAO DAORetrait) {
+		this.DAORetrait=DAORetrait;
 	}
 
+	//Manager construit au démarrage (Registre)
 	public static RetraitManager getInstance() {
-		if (instance == null) {
-			return new RetraitManager();
-		}
-		return instance;
+		return Registre.get().retraitManager;
 	}
 
 	public List<Retrait> getListeRetraits() throws BusinessException {
@@ -34,38 +30,16 @@ public class RetraitManager {
 	
 	public void createRetrait(Retrait retrait) throws BusinessException {
 		
-		BusinessException businessException = new BusinessException();
-		this.validerArticle(retrait.getArticle(), businessException);
-		this.validerRue(retrait.getRue(), businessException);
-		this.validerCode_postal(retrait.getCode_postal(), businessException);
-		this.validerVille(retrait.getVille(), businessException);
-		
-		if(!businessException.hasErreurs()) {
-			DAORetrait.insert(retrait);
-		}
-		else
-		{
-			throw businessException;
-		}
+		VALIDATION.valider(retrait);
+		DAORetrait.insert(retrait);
 		
 	}
 	
 	public void updateRetrait(Retrait retrait) throws BusinessException {
 		
-		BusinessException businessException = new BusinessException();
-		this.validerArticle(retrait.getArticle(), businessException);
-		this.validerRue(retrait.getRue(), businessException);
-		this.validerCode_postal(retrait.getCode_postal(), businessException);
-		this.validerVille(retrait.getVille(), businessException);
-
-		if(!businessException.hasErreurs()) {
-			DAORetrait.update(retrait);
-		}
-		else
-		{
-			throw businessException;
-		}
-
+		VALIDATION.valider(retrait);
+		DAORetrait.update(retrait);
+		
 	}
 	
 	public void deleteRetrait(int no_retrait) throws BusinessException {
@@ -74,10 +48,16 @@ public class RetraitManager {
 
 	// Controles metiers
 	
-	private void validerArticle (ArticleVendu articleVendu, BusinessException businessException) {
+	// Contrôles de saisie, puis existence de l'article
+	private static final Validation<Retrait> VALIDATION = Validation
+			.<Retrait>de(RetraitManager::validerRue, RetraitManager::validerCode_postal, RetraitManager::validerVille)
+			.puis(RetraitManager::validerArticle);
+	
+	private static void validerArticle (Retrait retrait, BusinessException businessException) {
 		try {
+			ArticleVendu articleVendu = retrait.getArticle();
 			ArticleVenduManager articleVenduManager = ArticleVenduManager.getInstance();
-			if(articleVenduManager.getArticleVendu(articleVendu.getNo_article()) == null) {
+			if(articleVendu == null || articleVenduManager.getArticleVendu(articleVendu.getNo_article()) == null) {
 				businessException.ajouterErreur(CodesResultatBLL.REGLE_RETRAIT_ARTICLE_INCONNU);
 			}
 		} catch (BusinessException e) {
@@ -85,7 +65,8 @@ public class RetraitManager {
 		}
 	}	
 	
-	private void validerRue (String rue, BusinessException businessException) {
+	private static void validerRue (Retrait retrait, BusinessException businessException) {
+		String rue = retrait.getRue();
 		if(rue==null || rue.trim().length()==0)
 		{
 			businessException.ajouterErreur(CodesResultatBLL.REGLE_RETRAIT_RUE_MANQUANT);
@@ -96,7 +77,8 @@ public class RetraitManager {
 		}
 	}	
 	
-	private void validerCode_postal (String code_postal, BusinessException businessException) {
+	private static void validerCode_postal (Retrait retrait, BusinessException businessException) {
+		String code_postal = retrait.getCode_postal();
 		if(code_postal==null || code_postal.trim().length()==0)
 		{
 			businessException.ajouterErreur(CodesResultatBLL.REGLE_RETRAIT_CODE_POSTAL_MANQUANT);
@@ -107,7 +89,8 @@ public class RetraitManager {
 		}
 	}	
 	
-	private void validerVille (String ville, BusinessException businessException) {
+	private static void validerVille (Retrait retrait, BusinessException businessException) {
+		String ville = retrait.getVille();
 		if(ville==null || ville.trim().length()==0)
 		{
 			businessException.ajouterErreur(CodesResultatBLL.REGLE_RETRAIT_VILLE_MANQUANT);
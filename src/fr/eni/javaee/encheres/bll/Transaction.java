@@ -0,0 +1,83 @@
+package fr.eni.javaee.encheres.bll;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import fr.eni.javaee.encheres.dal.CodesResultatDAL;
+import fr.eni.javaee.encheres.dal.UniteDeTravail;
+import fr.eni.javaee.encheres.messages.BusinessException;
+
+/**
+ * Portée transactionnelle des managers : les écritures faites par le travail, sur un ou plusieurs DAO,
+ * partagent une connexion et sont validées ensemble, ou annulées ensemble si le travail échoue.
+ * Un travail exécuté pendant une transaction la rejoint ; s'il échoue, toute la transaction est annulée.
+ * Les caches ne sont mis à jour qu'une fois la transaction validée (apresValidation).
+ */
+public final class Transaction {
+
+	@FunctionalInterface
+	public interface Travail {
+		void executer() throws BusinessException;
+	}
+
+	// Transaction en cours sur le thread
+	private static final class Contexte {
+		private final List<Runnable> apresValidation = new ArrayList<>();
+		private boolean annulee;
+	}
+
+	private static final ThreadLocal<Contexte> enCours = new ThreadLocal<>();
+
+	private Transaction() {
+	}
+
+	public static void executer(Travail travail) throws BusinessException {
+
+		Contexte contexte = enCours.get();
+		if (contexte != null) {
+			// rejoint la transaction en cours
+			try {
+				travail.executer();
+			} catch (BusinessException | RuntimeException e) {
+				contexte.annulee = true;
+				throw e;
+			}
+			return;
+		}
+
+		UniteDeTravail uniteDeTravail = Registre.get().uniteDeTravail;
+		uniteDeTravail.commencer();
+		contexte = new Contexte();
+		enCours.set(contexte);
+		try {
+			travail.executer();
+			if (contexte.annulee) {
+				// un travail imbriqué a échoué et son erreur a été ignorée
+				BusinessException businessException = new BusinessException();
+				businessException.ajouterErreur(CodesResultatDAL.TRANSACTION_ANNULEE);
+				throw businessException;
+			}
+			uniteDeTravail.valider();
+		} catch (BusinessException | RuntimeException e) {
+			uniteDeTravail.annuler();
+			throw e;
+		} finally {
+			enCours.remove();
+		}
+
+		for (Runnable action : contexte.apresValidation) {
+			action.run();
+		}
+	}
+
+	//Exécute l'action une fois la transaction en cours validée, immédiatement s'il n'y en a pas
+	public static void apresValidation(Runnable action) {
+		Contexte contexte = enCours.get();
+		if (contexte == null) {
+			action.run();
+		} else {
+			contexte.apresValidation.add(action);
+		}
+	}
+
+}
@@ -1,102 +1,172 @@
 package fr.eni.javaee.encheres.bll;
 
-import java.util.ArrayList;
 import java.util.List;
 
 import fr.eni.javaee.encheres.messages.BusinessException;
 import fr.eni.javaee.encheres.bo.Utilisateur;
-import fr.eni.javaee.encheres.dal.DAOFactory;
+import fr.eni.javaee.encheres.dal.CodesResultatDAL;
 import fr.eni.javaee.encheres.dal.UtilisateurDAO;
+import fr.eni.javaee.encheres.utils.Courriel;
 
 public class UtilisateurManager {
 	
-	private UtilisateurDAO utilisateurDAO;
-	private static UtilisateurManager instance;
+	private final UtilisateurDAO utilisateurDAO;
+	// Contrôles de saisie ; à l'insertion, unicité du pseudo et de l'email ensuite (requêtes)
+	private static final Validation<Utilisateur> VALIDATION_MODIFICATION = Validation
+			.<Utilisateur>de(UtilisateurManager::validerNom, UtilisateurManager::validerPrenom, UtilisateurManager::validerEmail,
+					UtilisateurManager::validerPseudo, UtilisateurManager::validerTelephone, UtilisateurManager::validerRue,
+					UtilisateurManager::validerCodePostal, UtilisateurManager::validerVille, UtilisateurManager::validerMotDePasse);
+	private final Validation<Utilisateur> validationInsertion;
 	
-	public UtilisateurManager() {
-		this.utilisateurDAO = DAOFactory.getUtilisateurDAO();
+	UtilisateurManager(UtilisateurDAO utilisateurDAO) {
+		this.utilisateurDAO = utilisateurDAO;
+		this.validationInsertion = VALIDATION_MODIFICATION.puis(this::validerEmailUnique, this::validerPseudoUnique);
 	}
 	
+	//Manager construit au démarrage (Registre)
 	public static UtilisateurManager getInstance() {
-		if(instance == null){
-			instance = new UtilisateurManager();
-		}
-		return instance;
+		return Registre.get().utilisateurManager;
 	}
 	
 	public void ajouterUtilisateur(Utilisateur utilisateur) throws BusinessException {
-		BusinessException businessException = new BusinessException();
-		this.validerUtilisateurInsertion(utilisateur, businessException);
-		if(!businessException.hasErreurs()) 
-		{
+		this.validationInsertion.valider(utilisateur);
+		try {
 			this.utilisateurDAO.insert(utilisateur);
+		} catch (BusinessException e) {
+			throw doublon(e, utilisateur);
 		}
-		else
-		{
-			throw businessException;
-		}
+		Transaction.apresValidation(() -> FiltreIdentifiants.getInstance().ajouter(utilisateur));
 	}
 	
 	public void modifierUtilisateur(Utilisateur utilisateur) throws BusinessException {
-		BusinessException businessException = new BusinessException();
-		this.validerUtilisateurModification(utilisateur, businessException);
-		if(!businessException.hasErreurs()) 
-		{
+		VALIDATION_MODIFICATION.valider(utilisateur);
+		try {
 			this.utilisateurDAO.update(utilisateur);
+		} catch (BusinessException e) {
+			throw doublon(e, utilisateur);
 		}
-		else
-		{
-			throw businessException;
+		Transaction.apresValidation(() -> {
+			FiltreIdentifiants.getInstance().ajouter(utilisateur);
+			CacheUtilisateurs.getInstance().invalider(utilisateur.getNo_utilisateur());
+			// le pseudo du meilleur enchérisseur est relu pour les articles qu'il mène
+			CacheMeilleuresEncheres.getInstance().invaliderEncherisseur(utilisateur.getNo_utilisateur());
+			// et celui du vendeur dans les listes d'articles
+			CacheRecherches.getInstance().vider();
+		});
+	}
+	
+	/**
+	 * Contrainte UNIQUE violée malgré les contrôles (inscription concurrente, ou faite par un autre
+	 * serveur et absente du filtre) : l'erreur devient celle du contrôle d'unicité en échec.
+	 * @return BusinessException l'erreur à lever
+	 */
+	private BusinessException doublon(BusinessException e, Utilisateur utilisateur) throws BusinessException {
+		if (!e.getListeCodesErreur().contains(CodesResultatDAL.UTILISATEUR_DOUBLON)) {
+			return e;
 		}
+		BusinessException businessException = new BusinessException();
+		if (estAUnAutre(utilisateurDAO.selectByPseudo(utilisateur.getPseudo()), utilisateur)) {
+			businessException.ajouterErreur(CodesResultatBLL.REGLE_UTILISATEUR_PSEUDO_DOUBLON);
+		}
+		if (estAUnAutre(utilisateurDAO.selectByEmail(utilisateur.getEmail()), utilisateur)) {
+			businessException.ajouterErreur(CodesResultatBLL.REGLE_UTILISATEUR_EMAIL_DOUBLON);
+		}
+		// identifiant libéré entre-temps : l'erreur de la base est conservée
+		return businessException.hasErreurs() ? businessException : e;
+	}
+	
+	private static boolean estAUnAutre(Utilisateur trouve, Utilisateur utilisateur) {
+		// le DAO renvoie un utilisateur vide (numéro 0) quand l'identifiant est libre
+		return trouve != null && trouve.getNo_utilisateur() > 0 && trouve.getNo_utilisateur() != utilisateur.getNo_utilisateur();
 	}
 	
 	public void supprimerUtilisateur(int id) throws BusinessException {
 		this.utilisateurDAO.delete(id);
+		Transaction.apresValidation(() -> {
+			CacheUtilisateurs.getInstance().invalider(id);
+			CacheMeilleuresEncheres.getInstance().invaliderEncherisseur(id);
+			// ses articles et son pseudo de vendeur disparaissent des listes
+			CacheRecherches.getInstance().vider();
+		});
 	}
 	
 	public List<Utilisateur> getListeUtilisateurs() throws BusinessException {
 		return this.utilisateurDAO.selectAll();
 	}
 	
-	public Utilisateur getUtilisateur(int no_utilisateur) throws BusinessException {
-		return utilisateurDAO.selectById(no_utilisateur);
+	/**
+	 * Envoie son mot de passe à l'utilisateur dont c'est l'adresse email.
+	 * L'utilisateur est lu par son email (cache puis index de la colonne), le courriel est mis
+	 * en file d'envoi : l'appelant n'attend pas le serveur SMTP.
+	 * @return boolean false si aucun utilisateur n'a cette adresse
+	 * @throws BusinessException si la file d'envoi est pleine ou arrêtée
+	 */
+	public boolean envoyerMotDePasse(String email) throws BusinessException {
+		if (email == null || email.trim().isEmpty()) {
+			return false;
+		}
+		Utilisateur utilisateur = getUtilisateurByEmail(email.trim());
+		// le DAO renvoie un utilisateur vide (numéro 0) quand l'adresse est inconnue
+		if (utilisateur == null || utilisateur.getNo_utilisateur() <= 0) {
+			return false;
+		}
+		if (!Registre.get().fileCourriels.deposer(new Courriel(utilisateur.getEmail(), "Demande de mot de passe",
+				"Bonjour " + utilisateur.getPseudo() + ",\n\nVotre mot de passe pour ENI-Enchères est : " + utilisateur.getMot_de_passe()))) {
+			BusinessException businessException = new BusinessException();
+			businessException.ajouterErreur(CodesResultatBLL.ENVOI_COURRIEL_ECHEC);
+			throw businessException;
 		}
+		return true;
+	}
 	
-	public Utilisateur getUtilisateurByPseudo (String pseudo) throws BusinessException{
-		return utilisateurDAO.selectByPseudo(pseudo);
+	//Construit le filtre des pseudos et emails utilisés, consulté avant les contrôles d'unicité en base
+	public void indexerIdentifiants() throws BusinessException {
+		FiltreIdentifiants.getInstance().construire(utilisateurDAO::selectAll);
 	}
 	
-	public Utilisateur getUtilisateurByEmail (String email) throws BusinessException{
-		return utilisateurDAO.selectByEmail(email);
+	// Contrôles d'unicité : le filtre écarte sans requête les identifiants libres, les autres sont vérifiés en base
+	
+	private boolean isPseudoUtilise(String pseudo) throws BusinessException {
+		return FiltreIdentifiants.getInstance().peutExisterPseudo(pseudo) && utilisateurDAO.existePseudo(pseudo);
+	}
+	
+	private boolean isEmailUtilise(String email) throws BusinessException {
+		return FiltreIdentifiants.getInstance().peutExisterEmail(email) && utilisateurDAO.existeEmail(email);
 	}
 	
+	// Lectures par le cache des utilisateurs, la base n'est interrogée qu'en cas d'absence
 	
+	public Utilisateur getUtilisateur(int no_utilisateur) throws BusinessException {
+		Utilisateur utilisateur = CacheUtilisateurs.getInstance().get(no_utilisateur);
+		if (utilisateur == null) {
+			utilisateur = utilisateurDAO.selectById(no_utilisateur);
+			CacheUtilisateurs.getInstance().mettre(utilisateur);
+		}
+		return utilisateur;
+	}
 	
-	private void validerUtilisateurInsertion (Utilisateur utilisateur, BusinessException businessException) throws BusinessException {
-		this.validerNom(utilisateur.getNom(), businessException);
-		this.validerPrenom(utilisateur.getPrenom(), businessException);
-		this.validerEmailInsertion(utilisateur.getEmail(), businessException);
-		this.validerPseudoInsertion(utilisateur.getPseudo(), businessException);
-		this.validerTelephone(utilisateur.getTelephone(), businessException);
-		this.validerRue(utilisateur.getRue(), businessException);
-		this.validerCodePostal(utilisateur.getCode_postal(), businessException);
-		this.validerVille(utilisateur.getVille(), businessException);
-		this.validerMotDePasse(utilisateur.getMot_de_passe(), businessException);
+	public Utilisateur getUtilisateurByPseudo (String pseudo) throws BusinessException{
+		Utilisateur utilisateur = CacheUtilisateurs.getInstance().getParPseudo(pseudo);
+		if (utilisateur == null) {
+			utilisateur = utilisateurDAO.selectByPseudo(pseudo);
+			CacheUtilisateurs.getInstance().mettre(utilisateur);
+		}
+		return utilisateur;
 	}
 	
-	private void validerUtilisateurModification (Utilisateur utilisateur, BusinessException businessException) throws BusinessException {
-		this.validerNom(utilisateur.getNom(), businessException);
-		this.validerPrenom(utilisateur.getPrenom(), businessException);
-		this.validerEmailModification(utilisateur.getEmail(), businessException);
-		this.validerPseudoModification(utilisateur.getPseudo(), businessException);
-		this.validerTelephone(utilisateur.getTelephone(), businessException);
-		this.validerRue(utilisateur.getRue(), businessException);
-		this.validerCodePostal(utilisateur.getCode_postal(), businessException);
-		this.validerVille(utilisateur.getVille(), businessException);
-		this.validerMotDePasse(utilisateur.getMot_de_passe(), businessException);
+	public Utilisateur getUtilisateurByEmail (String email) throws BusinessException{
+		Utilisateur utilisateur = CacheUtilisateurs.getInstance().getParEmail(email);
+		if (utilisateur == null) {
+			utilisateur = utilisateurDAO.selectByEmail(email);
+			CacheUtilisateurs.getInstance().mettre(utilisateur);
+		}
+		return utilisateur;
 	}
 	
-	private void validerNom (String nom, BusinessException businessException) {
+	
+	
+	private static void validerNom (Utilisateur utilisateur, BusinessException businessException) {
+		String nom = utilisateur.getNom();
 		if(nom==null)
 		{
 			businessException.ajouterErreur(CodesResultatBLL.REGLE_UTILISATEUR_NOM_MANQUANT);
@@ -107,8 +177,9 @@ public class UtilisateurManager {
 		}
 	}
 	
-	private void validerPrenom (String prenom, BusinessException businessException) {
-		if(prenom.length()>30)
+	private static void validerPrenom (Utilisateur utilisateur, BusinessException businessException) {
+		String prenom = utilisateur.getPrenom();
+		if(prenom==null)
 		{
 			businessException.ajouterErreur(CodesResultatBLL.REGLE_UTILISATEUR_PRENOM_MANQUANT);
 		}
@@ -118,7 +189,8 @@ public class UtilisateurManager {
 		}
 	}
 	
-	private void validerEmailInsertion (String email, BusinessException businessException) throws BusinessException {
+	private static void validerEmail (Utilisateur utilisateur, BusinessException businessException) {
+		String email = utilisateur.getEmail();
 		if(email==null)
 		{
 			businessException.ajouterErreur(CodesResultatBLL.REGLE_UTILISATEUR_EMAIL_MANQUANT);
@@ -127,17 +199,23 @@ public class UtilisateurManager {
 		{
 			businessException.ajouterErreur(CodesResultatBLL.REGLE_UTILISATEUR_EMAIL_LONG);
 		}
-		List<Utilisateur>utilisateurs = new ArrayList<Utilisateur>();
-		utilisateurs = utilisateurDAO.selectAll();
-		for (Utilisateur utilisateur : utilisateurs) {
-			if(email.trim().equals(utilisateur.getEmail())) {
+	}
+	
+	private void validerEmailUnique (Utilisateur utilisateur, BusinessException businessException) {
+		try {
+			if(isEmailUtilise(utilisateur.getEmail().trim()))
+			{
 				businessException.ajouterErreur(CodesResultatBLL.REGLE_UTILISATEUR_EMAIL_DOUBLON);
-				break;
+			}
+		} catch (BusinessException e) {
+			for (int code : e.getListeCodesErreur()) {
+				businessException.ajouterErreur(code);
 			}
 		}
 	}
 	
-	private void validerPseudoInsertion (String pseudo, BusinessException businessException) throws BusinessException {
+	private static void validerPseudo (Utilisateur utilisateur, BusinessException businessException) {
+		String pseudo = utilisateur.getPseudo();
 		if(pseudo==null || pseudo.trim().length() <1)
 		{
 			businessException.ajouterErreur(CodesResultatBLL.REGLE_UTILISATEUR_PSEUDO_MANQUANT);
@@ -150,43 +228,27 @@ public class UtilisateurManager {
 		{
 			businessException.ajouterErreur(CodesResultatBLL.REGLE_UTILISATEUR_PSEUDO_CARACTERE_NON_AUTORISE);
 		}
-		List<Utilisateur>utilisateurs = new ArrayList<Utilisateur>();
-		utilisateurs = utilisateurDAO.selectAll();
-		for (Utilisateur utilisateur : utilisateurs) {
-			if(pseudo.trim().equals(utilisateur.getPseudo())) {
-				businessException.ajouterErreur(CodesResultatBLL.REGLE_UTILISATEUR_PSEUDO_DOUBLON);
-				break;
-			}
-		}
 	}
 	
-	private void validerEmailModification (String email, BusinessException businessException) throws BusinessException {
-		if(email==null)
-		{
-			businessException.ajouterErreur(CodesResultatBLL.REGLE_UTILISATEUR_EMAIL_MANQUANT);
-		}
-		else if(email.length()>200)
-		{
-			businessException.ajouterErreur(CodesResultatBLL.REGLE_UTILISATEUR_EMAIL_LONG);
+	private void validerPseudoUnique (Utilisateur utilisateur, BusinessException businessException) {
+		try {
+			if(isPseudoUtilise(utilisateur.getPseudo().trim()))
+			{
+				businessException.ajouterErreur(CodesResultatBLL.REGLE_UTILISATEUR_PSEUDO_DOUBLON);
+			}
+		} catch (BusinessException e) {
+			for (int code : e.getListeCodesErreur()) {
+				businessException.ajouterErreur(code);
+			}
 		}
 	}
 	
-	private void validerPseudoModification (String pseudo, BusinessException businessException) throws BusinessException {
-		if(pseudo==null || pseudo.trim().length() <1)
-		{
-			businessException.ajouterErreur(CodesResultatBLL.REGLE_UTILISATEUR_PSEUDO_MANQUANT);
-		}
-		else if(pseudo.length()>30)
-		{
-			businessException.ajouterErreur(CodesResultatBLL.REGLE_UTILISATEUR_PSEUDO_LONG);
-		}
-		else if(!pseudo.matches("[A-Za-z0-9]*"))
+	private static void validerTelephone (Utilisateur utilisateur, BusinessException businessException) {
+		String telephone = utilisateur.getTelephone();
+		if(telephone == null)
 		{
-			businessException.ajouterErreur(CodesResultatBLL.REGLE_UTILISATEUR_PSEUDO_CARACTERE_NON_AUTORISE);
+			return;
 		}
-	}
-	
-	private void validerTelephone (String telephone, BusinessException businessException) throws BusinessException {
 		if(telephone.length() >15) 
 		{
 			businessException.ajouterErreur(CodesResultatBLL.REGLE_UTILISATEUR_TELEPHONE_LONG);
@@ -197,7 +259,8 @@ public class UtilisateurManager {
 		}
 	}
 	
-	private void validerRue (String rue, BusinessException businessException) throws BusinessException {
+	private static void validerRue (Utilisateur utilisateur, BusinessException businessException) {
+		String rue = utilisateur.getRue();
 		if(rue == null || rue.trim().length() < 1) 
 		{
 			businessException.ajouterErreur(CodesResultatBLL.REGLE_UTILISATEUR_RUE_MANQUANT);
@@ -208,14 +271,16 @@ public class UtilisateurManager {
 		}
 	}
 	
-	private void validerCodePostal (String codePostal, BusinessException businessException) throws BusinessException {
-		if(codePostal.trim().length() >10 || codePostal == null || !codePostal.matches("[0-9]*")) 
+	private static void validerCodePostal (Utilisateur utilisateur, BusinessException businessException) {
+		String codePostal = utilisateur.getCode_postal();
+		if(codePostal == null || codePostal.trim().length() >10 || !codePostal.matches("[0-9]*")) 
 		{
 			businessException.ajouterErreur(CodesResultatBLL.REGLE_UTILISATEUR_CODE_POSTAL_ERREUR);
 		}
 	}
 	
-	private void validerVille (String ville, BusinessException businessException) throws BusinessException {
+	private static void validerVille (Utilisateur utilisateur, BusinessException businessException) {
+		String ville = utilisateur.getVille();
 		if(ville == null) 
 		{
 			businessException.ajouterErreur(CodesResultatBLL.REGLE_UTILISATEUR_VILLE_MANQUANT);
@@ -226,7 +291,8 @@ public class UtilisateurManager {
 		}
 	}
 	
-	private void validerMotDePasse (String mdp, BusinessException businessException) throws BusinessException {
+	private static void validerMotDePasse (Utilisateur utilisateur, BusinessException businessException) {
+		String mdp = utilisateur.getMot_de_passe();
 		if(mdp == null) 
 		{
 			businessException.ajouterErreur(CodesResultatBLL.REGLE_UTILISATEUR_MOT_DE_PASSE_MANQUANT);
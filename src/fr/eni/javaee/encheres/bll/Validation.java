@@ -0,0 +1,65 @@
+package fr.eni.javaee.encheres.bll;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import fr.eni.javaee.encheres.messages.BusinessException;
+
+/**
+ * Suite de règles appliquées avant une écriture, par étapes.
+ * Toutes les règles d'une étape sont vérifiées, pour afficher ensemble les erreurs de saisie ;
+ * si l'une d'elles échoue, les étapes suivantes ne sont pas exécutées. Les règles qui interrogent
+ * la base sont donc placées après les contrôles de saisie, et celles qui exploitent un objet chargé
+ * par une étape précédente peuvent compter sur lui.
+ * Une validation est immuable : elle est construite une fois par manager.
+ */
+public final class Validation<T> {
+
+	private final List<List<Regle<? super T>>> etapes;
+
+	private Validation(List<List<Regle<? super T>>> etapes) {
+		this.etapes = etapes;
+	}
+
+	//Validation dont la première étape est formée des règles indiquées
+	@SafeVarargs
+	public static <T> Validation<T> de(Regle<? super T>... regles) {
+		List<Regle<? super T>> etape = new ArrayList<>(regles.length);
+		for (Regle<? super T> regle : regles) {
+			etape.add(regle);
+		}
+		return new Validation<T>(Collections.emptyList()).puis(etape);
+	}
+
+	//Nouvelle validation, complétée d'une étape exécutée si les précédentes ont réussi
+	@SafeVarargs
+	public final Validation<T> puis(Regle<? super T>... regles) {
+		List<Regle<? super T>> etape = new ArrayList<>(regles.length);
+		for (Regle<? super T> regle : regles) {
+			etape.add(regle);
+		}
+		return puis(etape);
+	}
+
+	// Les varargs sont copiés élément par élément : leur tableau n'est ni conservé ni transmis
+	private Validation<T> puis(List<Regle<? super T>> etape) {
+		List<List<Regle<? super T>>> suite = new ArrayList<>(etapes);
+		suite.add(Collections.unmodifiableList(etape));
+		return new Validation<>(Collections.unmodifiableList(suite));
+	}
+
+	//Vérifie l'objet, lève les erreurs de la première étape en échec
+	public void valider(T objet) throws BusinessException {
+		BusinessException businessException = new BusinessException();
+		for (List<Regle<? super T>> etape : etapes) {
+			for (Regle<? super T> regle : etape) {
+				regle.verifier(objet, businessException);
+			}
+			if (businessException.hasErreurs()) {
+				throw businessException;
+			}
+		}
+	}
+
+}
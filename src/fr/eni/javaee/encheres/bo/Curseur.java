@@ -0,0 +1,50 @@
+package fr.eni.javaee.encheres.bo;
+
+import java.io.Serializable;
+
+/**
+ * Position dans une liste d'articles triée par (clé de tri, no_article).
+ * Le curseur désigne le dernier article vu, par la valeur de sa clé de tri (nom, date de fin ou prix
+ * sous forme de texte) et son numéro, ainsi que le sens de lecture à partir de celui-ci.
+ */
+public class Curseur implements Serializable{
+
+	private static final long serialVersionUID = 1L;
+	
+	private final String cle;
+	private final int no_article;
+	private final boolean precedent;
+	
+	public Curseur(String cle, int no_article, boolean precedent) {
+		super();
+		this.cle = cle;
+		this.no_article = no_article;
+		this.precedent = precedent;
+	}
+
+	public String getCle() {
+		return cle;
+	}
+
+	public int getNo_article() {
+		return no_article;
+	}
+
+	public boolean isPrecedent() {
+		return precedent;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder();
+		builder.append("Curseur [cle=");
+		builder.append(cle);
+		builder.append(", no_article=");
+		builder.append(no_article);
+		builder.append(", precedent=");
+		builder.append(precedent);
+		builder.append("]");
+		return builder.toString();
+	}
+	
+}
@@ -12,6 +12,8 @@ public class Enchere implements Serializable{
 	private ArticleVendu article;
 	private LocalDate date_enchere;
 	private int montant_enchere;
+	// Enchère automatique : montant jusqu'auquel l'enchérisseur accepte de surenchérir, 0 si aucun
+	private int montant_maximum;
 	
 	public Enchere() {
 	}
@@ -56,6 +58,14 @@ public class Enchere implements Serializable{
 		this.montant_enchere = montant_enchere;
 	}
 
+	public int getMontant_maximum() {
+		return montant_maximum;
+	}
+
+	public void setMontant_maximum(int montant_maximum) {
+		this.montant_maximum = montant_maximum;
+	}
+
 	public static long getSerialversionuid() {
 		return serialVersionUID;
 	}
@@ -71,6 +81,8 @@ public class Enchere implements Serializable{
 		builder.append(date_enchere);
 		builder.append(", montant_enchere=");
 		builder.append(montant_enchere);
+		builder.append(", montant_maximum=");
+		builder.append(montant_maximum);
 		builder.append("]");
 		return builder.toString();
 	}
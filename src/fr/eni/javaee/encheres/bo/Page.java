@@ -0,0 +1,50 @@
+package fr.eni.javaee.encheres.bo;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * Page d'une liste paginée par curseur.
+ * Les curseurs suivant et précédent sont null lorsqu'il n'y a pas de page dans ce sens.
+ */
+public class Page<T> implements Serializable{
+
+	private static final long serialVersionUID = 1L;
+	
+	private final List<T> elements;
+	private final Curseur suivant;
+	private final Curseur precedent;
+	
+	public Page(List<T> elements, Curseur suivant, Curseur precedent) {
+		super();
+		this.elements = elements;
+		this.suivant = suivant;
+		this.precedent = precedent;
+	}
+
+	public List<T> getElements() {
+		return elements;
+	}
+
+	public Curseur getSuivant() {
+		return suivant;
+	}
+
+	public Curseur getPrecedent() {
+		return precedent;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder();
+		builder.append("Page [elements=");
+		builder.append(elements.size());
+		builder.append(", suivant=");
+		builder.append(suivant);
+		builder.append(", precedent=");
+		builder.append(precedent);
+		builder.append("]");
+		return builder.toString();
+	}
+	
+}
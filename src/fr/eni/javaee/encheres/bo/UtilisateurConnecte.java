@@ -0,0 +1,68 @@
+package fr.eni.javaee.encheres.bo;
+
+import java.io.Serializable;
+
+/**
+ * Utilisateur connecté, tel qu'il est conservé en session.
+ * Seuls son numéro, son pseudo et son rôle y figurent : le profil complet (adresse, crédit,
+ * mot de passe) est relu au besoin par UtilisateurManager, à travers le cache des utilisateurs.
+ * La version augmente à chaque modification du profil pendant la session.
+ */
+public final class UtilisateurConnecte implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	private final int no_utilisateur;
+	private final String pseudo;
+	private final boolean administrateur;
+	private final int version;
+
+	private UtilisateurConnecte(int no_utilisateur, String pseudo, boolean administrateur, int version) {
+		this.no_utilisateur = no_utilisateur;
+		this.pseudo = pseudo;
+		this.administrateur = administrateur;
+		this.version = version;
+	}
+
+	//Utilisateur qui vient de se connecter
+	public static UtilisateurConnecte de(Utilisateur utilisateur) {
+		return new UtilisateurConnecte(utilisateur.getNo_utilisateur(), utilisateur.getPseudo(), utilisateur.isAdministrateur(), 1);
+	}
+
+	//Même utilisateur après la modification de son profil
+	public UtilisateurConnecte modifie(Utilisateur utilisateur) {
+		return new UtilisateurConnecte(no_utilisateur, utilisateur.getPseudo(), administrateur, version + 1);
+	}
+
+	public int getNo_utilisateur() {
+		return no_utilisateur;
+	}
+
+	public String getPseudo() {
+		return pseudo;
+	}
+
+	public boolean isAdministrateur() {
+		return administrateur;
+	}
+
+	public int getVersion() {
+		return version;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder();
+		builder.append("UtilisateurConnecte [no_utilisateur=");
+		builder.append(no_utilisateur);
+		builder.append(", pseudo=");
+		builder.append(pseudo);
+		builder.append(", administrateur=");
+		builder.append(administrateur);
+		builder.append(", version=");
+		builder.append(version);
+		builder.append("]");
+		return builder.toString();
+	}
+
+}
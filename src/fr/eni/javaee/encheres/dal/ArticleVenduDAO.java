@@ -3,6 +3,8 @@ package fr.eni.javaee.encheres.dal;
 import java.util.List;
 
 import fr.eni.javaee.encheres.bo.ArticleVendu;
+import fr.eni.javaee.encheres.bo.Curseur;
+import fr.eni.javaee.encheres.bo.Page;
 import fr.eni.javaee.encheres.messages.BusinessException;
 
 public interface ArticleVenduDAO extends DAO<ArticleVendu>{
@@ -28,4 +30,23 @@ public interface ArticleVenduDAO extends DAO<ArticleVendu>{
 	//Ventes terminées du user 
 	public List<ArticleVendu> selectVentesTermineesUtilisateur(int no_utilisateur, int no_categorie, String nom_article) throws BusinessException;
 	
+	//Articles répondant aux critères, sur une page si une taille est indiquée
+	public Page<ArticleVendu> selectByCritere(CritereArticle critere) throws BusinessException;
+	
+	//Variantes paginées : page de taille articles lue à partir du curseur (première page si curseur null)
+	
+	public Page<ArticleVendu> selectAllEnCours(int no_categorie, String nom_article, Curseur curseur, int taille) throws BusinessException;
+	
+	public Page<ArticleVendu> selectEncheresEnCours(int no_utilisateur, int no_categorie, String nom_article, Curseur curseur, int taille) throws BusinessException;
+	
+	public Page<ArticleVendu> selectEncheresEnCoursUtilisateur(int no_utilisateur, int no_categorie, String nom_article, Curseur curseur, int taille) throws BusinessException;
+	
+	public Page<ArticleVendu> selectEncheresRemporteesUtilisateur(int no_utilisateur, int no_categorie, String nom_article, Curseur curseur, int taille) throws BusinessException;
+	
+	public Page<ArticleVendu> selectVentesEnCoursUtilisateur(int no_utilisateur, int no_categorie, String nom_article, Curseur curseur, int taille) throws BusinessException;
+	
+	public Page<ArticleVendu> selectVentesAVenirUtilisateur(int no_utilisateur, int no_categorie, String nom_article, Curseur curseur, int taille) throws BusinessException;
+	
+	public Page<ArticleVendu> selectVentesTermineesUtilisateur(int no_utilisateur, int no_categorie, String nom_article, Curseur curseur, int taille) throws BusinessException;
+	
 }
@@ -0,0 +1,75 @@
+package fr.eni.javaee.encheres.dal;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Carte d'identité des business objects lus pendant une requête.
+ * Un objet (type, numéro) n'est lu qu'une fois par requête : les lectures suivantes, par numéro ou
+ * dans une jointure, renvoient la même instance. La carte est ouverte par le filtre des requêtes et
+ * vidée à la fin de celles-ci ; hors requête (démarrage, moteur d'enchères) elle reste fermée et
+ * chaque lecture va en base.
+ */
+public class CarteIdentite {
+
+	private static final ThreadLocal<Map<Class<?>, Map<Integer, Object>>> carte = new ThreadLocal<>();
+
+	private CarteIdentite() {
+	}
+
+	/**
+	 * Ouvre la carte du thread courant
+	 * @return boolean true si elle vient d'être ouverte, false si elle l'était déjà
+	 */
+	public static boolean ouvrir() {
+		if (carte.get() != null) {
+			return false;
+		}
+		carte.set(new HashMap<>());
+		return true;
+	}
+
+	public static void fermer() {
+		carte.remove();
+	}
+
+	//Oublie tous les objets lus, sans fermer la carte (transaction annulée)
+	public static void vider() {
+		Map<Class<?>, Map<Integer, Object>> objets = carte.get();
+		if (objets != null) {
+			objets.clear();
+		}
+	}
+
+	//Objet déjà lu pendant la requête, null s'il ne l'a pas été ou si la carte est fermée
+	public static <T> T get(Class<T> type, int numero) {
+		Map<Class<?>, Map<Integer, Object>> objets = carte.get();
+		if (objets == null) {
+			return null;
+		}
+		Map<Integer, Object> parNumero = objets.get(type);
+		return parNumero == null ? null : type.cast(parNumero.get(numero));
+	}
+
+	/**
+	 * Enregistre l'objet qui vient d'être lu
+	 * @return T l'instance déjà connue pour ce numéro, sinon l'objet lui-même
+	 */
+	public static <T> T mettre(Class<T> type, int numero, T objet) {
+		Map<Class<?>, Map<Integer, Object>> objets = carte.get();
+		if (objets == null || objet == null) {
+			return objet;
+		}
+		Object connu = objets.computeIfAbsent(type, t -> new HashMap<>()).putIfAbsent(numero, objet);
+		return connu == null ? objet : type.cast(connu);
+	}
+
+	//Oublie l'objet modifié ou supprimé : la prochaine lecture ira en base
+	public static void retirer(Class<?> type, int numero) {
+		Map<Class<?>, Map<Integer, Object>> objets = carte.get();
+		if (objets != null && objets.containsKey(type)) {
+			objets.get(type).remove(numero);
+		}
+	}
+
+}
@@ -4,7 +4,8 @@ package fr.eni.javaee.encheres.dal;
  * 10021 à 10040 pour articles, 
  * 10041 à 10060 pour enchères, 
  * 10061 à 10080 pour retrait, 
- * 10081 à 10100 pour catégorie.
+ * 10081 à 10100 pour catégorie,
+ * 10120 à 10139 pour les transactions.
 */
  
 /**
@@ -28,6 +29,7 @@ public abstract class CodesResultatDAL {
 	public static final int DELETE_ENCHERE_ECHEC = 10055;
 	public static final int SELECT_ENCHERE_ECHEC = 10046;
 	public static final int BUILDER_ENCHERE_ECHEC = 10047;
+	public static final int INSERT_ENCHERE_DEPASSEE = 10048;
 	
 	/******* RETRAITS *******/
 	public static final int INSERT_RETRAIT_NULL=10061;
@@ -54,6 +56,11 @@ public abstract class CodesResultatDAL {
 	public static final int UPDATE_UTILISATEUR_ECHEC = 10103;
 	public static final int DELETE_UTILISATEUR_ECHEC = 10104;
 	public static final int SELECT_UTILISATEUR_ECHEC = 10105;
+	public static final int UTILISATEUR_DOUBLON = 10106;
+	
+	/******* TRANSACTION *******/
+	public static final int TRANSACTION_ECHEC = 10120;
+	public static final int TRANSACTION_ANNULEE = 10121;
 	
 }
 
@@ -0,0 +1,238 @@
+package fr.eni.javaee.encheres.dal;
+
+import java.text.Normalizer;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+
+import fr.eni.javaee.encheres.bo.ArticleVendu;
+import fr.eni.javaee.encheres.bo.Curseur;
+
+/**
+ * Critères de recherche des articles : état de la vente, vendeur, vendeur exclu, enchérisseur,
+ * catégorie, fragment du nom ou liste de numéros d'articles, tri et page.
+ * Un critère à 0 ou null n'est pas appliqué.
+ * Le fragment est cherché dans le nom et la description, sans tenir compte de la casse ni des
+ * accents (plier) : la base et l'index des articles (IndexArticles) répondent de la même façon.
+ */
+public class CritereArticle {
+
+	// Etat de la vente par rapport à la date du jour
+	public enum Etat {
+		TOUS, EN_COURS, A_VENIR, TERMINEES
+	}
+
+	// Ordre de tri, départagé par no_article
+	public enum Tri {
+
+		NOM("a.nom_article", false),
+		FIN_ENCHERES("a.date_fin_encheres", false),
+		PRIX_CROISSANT("a.prix_vente", false),
+		PRIX_DECROISSANT("a.prix_vente", true);
+
+		private final String colonne;
+		private final boolean decroissant;
+
+		private Tri(String colonne, boolean decroissant) {
+			this.colonne = colonne;
+			this.decroissant = decroissant;
+		}
+
+		public String getColonne() {
+			return colonne;
+		}
+
+		public boolean isDecroissant() {
+			return decroissant;
+		}
+
+		//Valeur de la clé de tri de l'article, conservée dans le curseur
+		public String cle(ArticleVendu articleVendu) {
+			switch (this) {
+				case FIN_ENCHERES :
+					return articleVendu.getDate_fin_encheres().toString();
+				case PRIX_CROISSANT :
+				case PRIX_DECROISSANT :
+					return String.valueOf(articleVendu.getPrix_vente());
+				default :
+					return articleVendu.getNom_article();
+			}
+		}
+
+		//Vrai si la clé lue dans un curseur est une valeur de ce tri (le curseur vient du client)
+		public boolean accepte(String cle) {
+			if (cle == null) {
+				return false;
+			}
+			try {
+				valeur(cle);
+				return true;
+			} catch (NumberFormatException | DateTimeParseException e) {
+				return false;
+			}
+		}
+
+		//Valeur à passer en paramètre pour la clé lue dans un curseur
+		public Object valeur(String cle) {
+			switch (this) {
+				case FIN_ENCHERES :
+					return java.sql.Date.valueOf(LocalDate.parse(cle));
+				case PRIX_CROISSANT :
+				case PRIX_DECROISSANT :
+					return Integer.valueOf(cle);
+				default :
+					return cle;
+			}
+		}
+	}
+
+	//Minuscules sans accents ni ligatures, espaces réduits : forme comparée par la recherche
+	public static String plier(String texte) {
+		if (texte == null) {
+			return "";
+		}
+		String resultat = Normalizer.normalize(texte.toLowerCase(), Normalizer.Form.NFD)
+				.replaceAll("\\p{M}", "")
+				.replace("œ", "oe")
+				.replace("æ", "ae");
+		return resultat.replaceAll("\\s+", " ").trim();
+	}
+
+	private Etat etat = Etat.TOUS;
+	private int no_vendeur;
+	private int no_vendeur_exclu;
+	private int no_encherisseur;
+	private boolean remportees;
+	private int no_categorie;
+	private String nom_article;
+	private List<Integer> no_articles;
+	private Tri tri = Tri.NOM;
+	private Curseur curseur;
+	private int taille;
+
+	public CritereArticle() {
+		super();
+	}
+
+	public Etat getEtat() {
+		return etat;
+	}
+
+	public void setEtat(Etat etat) {
+		this.etat = etat;
+	}
+
+	public int getNo_vendeur() {
+		return no_vendeur;
+	}
+
+	public void setNo_vendeur(int no_vendeur) {
+		this.no_vendeur = no_vendeur;
+	}
+
+	public int getNo_vendeur_exclu() {
+		return no_vendeur_exclu;
+	}
+
+	public void setNo_vendeur_exclu(int no_vendeur_exclu) {
+		this.no_vendeur_exclu = no_vendeur_exclu;
+	}
+
+	public int getNo_encherisseur() {
+		return no_encherisseur;
+	}
+
+	public void setNo_encherisseur(int no_encherisseur) {
+		this.no_encherisseur = no_encherisseur;
+	}
+
+	public boolean isRemportees() {
+		return remportees;
+	}
+
+	//Limite les enchères de l'enchérisseur à celles qu'il remporte (montant égal au prix de vente)
+	public void setRemportees(boolean remportees) {
+		this.remportees = remportees;
+	}
+
+	public int getNo_categorie() {
+		return no_categorie;
+	}
+
+	public void setNo_categorie(int no_categorie) {
+		this.no_categorie = no_categorie;
+	}
+
+	public String getNom_article() {
+		return nom_article;
+	}
+
+	public void setNom_article(String nom_article) {
+		this.nom_article = nom_article;
+	}
+
+	public List<Integer> getNo_articles() {
+		return no_articles;
+	}
+
+	//Limite la recherche à ces articles, par exemple les candidats de l'index des noms
+	public void setNo_articles(List<Integer> no_articles) {
+		this.no_articles = no_articles;
+	}
+
+	public Tri getTri() {
+		return tri;
+	}
+
+	public void setTri(Tri tri) {
+		this.tri = tri;
+	}
+
+	//Curseur de la page, null (première page) si sa clé ne correspond pas au tri
+	public Curseur getCurseur() {
+		return curseur == null || tri.accepte(curseur.getCle()) ? curseur : null;
+	}
+
+	public void setCurseur(Curseur curseur) {
+		this.curseur = curseur;
+	}
+
+	public int getTaille() {
+		return taille;
+	}
+
+	//Taille de la page, 0 pour lire toute la liste
+	public void setTaille(int taille) {
+		this.taille = taille;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder();
+		builder.append("CritereArticle [etat=");
+		builder.append(etat);
+		builder.append(", no_vendeur=");
+		builder.append(no_vendeur);
+		builder.append(", no_vendeur_exclu=");
+		builder.append(no_vendeur_exclu);
+		builder.append(", no_encherisseur=");
+		builder.append(no_encherisseur);
+		builder.append(", remportees=");
+		builder.append(remportees);
+		builder.append(", no_categorie=");
+		builder.append(no_categorie);
+		builder.append(", nom_article=");
+		builder.append(nom_article);
+		builder.append(", no_articles=");
+		builder.append(no_articles == null ? null : no_articles.size());
+		builder.append(", tri=");
+		builder.append(tri);
+		builder.append(", curseur=");
+		builder.append(curseur);
+		builder.append(", taille=");
+		builder.append(taille);
+		builder.append("]");
+		return builder.toString();
+	}
+
+}
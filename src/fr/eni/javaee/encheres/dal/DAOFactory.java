@@ -5,33 +5,48 @@ import fr.eni.javaee.encheres.dal.jdbc.ArticleVenduDAOJdbcImpl;
 import fr.eni.javaee.encheres.dal.jdbc.CategorieDAOJdbcImpl;
 import fr.eni.javaee.encheres.dal.jdbc.EnchereDAOJdbcImpl;
 import fr.eni.javaee.encheres.dal.jdbc.RetraitDAOJdbcImpl;
+import fr.eni.javaee.encheres.dal.jdbc.UniteDeTravailJdbcImpl;
 import fr.eni.javaee.encheres.dal.jdbc.UtilisateurDAOJdbcImpl;
+import fr.eni.javaee.encheres.dal.memoire.ArticleVenduDAOMemoireImpl;
+import fr.eni.javaee.encheres.dal.memoire.CategorieDAOMemoireImpl;
+import fr.eni.javaee.encheres.dal.memoire.EnchereDAOMemoireImpl;
+import fr.eni.javaee.encheres.dal.memoire.RetraitDAOMemoireImpl;
+import fr.eni.javaee.encheres.dal.memoire.UniteDeTravailMemoireImpl;
+import fr.eni.javaee.encheres.dal.memoire.UtilisateurDAOMemoireImpl;
 
 public class DAOFactory {
 	
+	// -Dencheres.dal=memoire : DAO en mémoire, sans base ni pool JNDI (tests de charge, développement)
+	private static final boolean MEMOIRE = "memoire".equals(System.getProperty("encheres.dal"));
+	
 	public static UtilisateurDAO getUtilisateurDAO() 
 	{
-		return new UtilisateurDAOJdbcImpl();
+		return MEMOIRE ? new UtilisateurDAOMemoireImpl() : new UtilisateurDAOJdbcImpl();
 	}
 	
 	public static RetraitDAO getRetraitDAO()
 	{
-		return new RetraitDAOJdbcImpl();
+		return MEMOIRE ? new RetraitDAOMemoireImpl() : new RetraitDAOJdbcImpl();
 	}
 	
 	public static CategorieDAO getCategorieDAO()
 	{
-		return new CategorieDAOJdbcImpl();
+		return MEMOIRE ? new CategorieDAOMemoireImpl() : new CategorieDAOJdbcImpl();
 	}
 	
 	public static ArticleVenduDAO getArticleVenduDAO()
 	{
-		return new ArticleVenduDAOJdbcImpl();
+		return MEMOIRE ? new ArticleVenduDAOMemoireImpl() : new ArticleVenduDAOJdbcImpl();
 	}
 	
 	public static EnchereDAO getEnchereDAO()
 	{
-		return new EnchereDAOJdbcImpl();
+		return MEMOIRE ? new EnchereDAOMemoireImpl() : new EnchereDAOJdbcImpl();
+	}
+	
+	public static UniteDeTravail getUniteDeTravail()
+	{
+		return MEMOIRE ? new UniteDeTravailMemoireImpl() : new UniteDeTravailJdbcImpl();
 	}
 	
 }
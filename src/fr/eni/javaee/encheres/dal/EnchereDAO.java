@@ -11,4 +11,7 @@ public interface EnchereDAO extends DAO<Enchere>{
 
 	Enchere selectByTopArticle(int no_article) throws BusinessException;
 
+	//Enregistre en une transaction des enchères déjà acceptées, dans l'ordre de la liste
+	void insertBatch(List<Enchere> encheres) throws BusinessException;
+
 }
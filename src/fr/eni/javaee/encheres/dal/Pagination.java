@@ -0,0 +1,58 @@
+package fr.eni.javaee.encheres.dal;
+
+import java.util.Collections;
+import java.util.List;
+
+import fr.eni.javaee.encheres.bo.ArticleVendu;
+import fr.eni.javaee.encheres.bo.Curseur;
+import fr.eni.javaee.encheres.bo.Page;
+import fr.eni.javaee.encheres.dal.CritereArticle.Tri;
+
+/**
+ * Construction des pages d'articles, commune aux implémentations des DAO.
+ * La liste reçue contient au plus taille+1 articles lus dans le sens du curseur : l'article en trop
+ * indique qu'il reste une page dans ce sens.
+ */
+public final class Pagination {
+
+	private Pagination() {
+	}
+
+	//Construit la page et ses curseurs à partir des taille+1 articles lus
+	public static Page<ArticleVendu> page(List<ArticleVendu> liste, CritereArticle critere) {
+		
+		int taille = critere.getTaille();
+		Curseur curseur = critere.getCurseur();
+		
+		if (taille<=0) {
+			// liste complète : pas de page suivante ni précédente
+			return new Page<>(liste, null, null);
+		}
+		
+		boolean encore = liste.size()>taille;
+		if (encore) {
+			liste.remove(liste.size()-1);
+		}
+		boolean versPrecedent = curseur!=null && curseur.isPrecedent();
+		if (versPrecedent) {
+			// la page précédente est lue à l'envers
+			Collections.reverse(liste);
+		}
+		
+		Curseur suivant = null;
+		Curseur precedent = null;
+		if (!liste.isEmpty()) {
+			Tri tri = critere.getTri();
+			ArticleVendu premier = liste.get(0);
+			ArticleVendu dernier = liste.get(liste.size()-1);
+			if (versPrecedent || encore) {
+				suivant = new Curseur(tri.cle(dernier), dernier.getNo_article(), false);
+			}
+			if (versPrecedent ? encore : curseur!=null) {
+				precedent = new Curseur(tri.cle(premier), premier.getNo_article(), true);
+			}
+		}
+		return new Page<>(liste, suivant, precedent);
+	}
+
+}
@@ -0,0 +1,20 @@
+package fr.eni.javaee.encheres.dal;
+
+import fr.eni.javaee.encheres.messages.BusinessException;
+
+/**
+ * Unité de travail : les DAO appelés entre commencer et valider (ou annuler) écrivent
+ * sur une même connexion, dans une seule transaction.
+ */
+public interface UniteDeTravail {
+	
+	//Commencer la transaction
+	public void commencer() throws BusinessException;
+	
+	//Valider la transaction, échoue si un DAO l'a annulée entre-temps
+	public void valider() throws BusinessException;
+	
+	//Annuler la transaction
+	public void annuler();
+	
+}
@@ -7,5 +7,7 @@ public interface UtilisateurDAO extends DAO<Utilisateur>{
 	
 	public Utilisateur selectByPseudo(String pseudo) throws BusinessException;
 	public Utilisateur selectByEmail(String email) throws BusinessException;
+	public boolean existePseudo(String pseudo) throws BusinessException;
+	public boolean existeEmail(String email) throws BusinessException;
 	
 }
@@ -4,19 +4,19 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.time.ZoneId;
 import java.util.ArrayList;
-import java.util.Date;
 import java.util.List;
 import java.util.logging.Logger;
 
-import fr.eni.javaee.encheres.bll.CategorieManager;
-import fr.eni.javaee.encheres.bll.UtilisateurManager;
 import fr.eni.javaee.encheres.bo.ArticleVendu;
-import fr.eni.javaee.encheres.bo.Categorie;
-import fr.eni.javaee.encheres.bo.Utilisateur;
+import fr.eni.javaee.encheres.bo.Curseur;
+import fr.eni.javaee.encheres.bo.Page;
+import fr.eni.javaee.encheres.dal.CarteIdentite;
 import fr.eni.javaee.encheres.dal.ArticleVenduDAO;
 import fr.eni.javaee.encheres.dal.CodesResultatDAL;
+import fr.eni.javaee.encheres.dal.CritereArticle;
+import fr.eni.javaee.encheres.dal.CritereArticle.Etat;
+import fr.eni.javaee.encheres.dal.Pagination;
 import fr.eni.javaee.encheres.messages.BusinessException;
 import fr.eni.javaee.encheres.utils.ErrorLogger;
 
@@ -24,49 +24,9 @@ public class ArticleVenduDAOJdbcImpl implements ArticleVenduDAO{
 	
 	private static Logger logger = ErrorLogger.getLogger("ArticleVenduDAOJdbcImpl");
 	
-	private UtilisateurManager utilisateurManager = UtilisateurManager.getInstance();
-	private CategorieManager categorieManager = CategorieManager.getInstance();
-	
 	private static final String SQL_SELECT_BY=
-			"SELECT * FROM ARTICLES_VENDUS WHERE no_article=? ORDER BY nom_article;";
-	private static final String SQL_SELECT_ALL=
-			"SELECT * FROM ARTICLES_VENDUS ORDER BY nom_article;";
-	private static final String SQL_SELECT_ALL_ENCOURS=
-			"SELECT * FROM ARTICLES_VENDUS WHERE LOWER(nom_article) like ? AND date_debut_encheres<=? AND date_fin_encheres>=? ORDER BY nom_article;";
-	private static final String SQL_SELECT_ALL_ENCOURS_CATEGORIE=
-			"SELECT * FROM ARTICLES_VENDUS WHERE LOWER(nom_article) like ? AND no_categorie=? AND date_debut_encheres<=? AND date_fin_encheres>=? ORDER BY nom_article;";
-	private static final String SQL_SELECT_ENCHERES_ENCOURS=	
-			"SELECT * FROM ARTICLES_VENDUS WHERE no_utilisateur<>? AND LOWER(nom_article) like ? AND date_debut_encheres<=? AND date_fin_encheres>=? ORDER BY nom_article;";
-	private static final String SQL_SELECT_ENCHERES_ENCOURS_CATEGORIE=	
-			"SELECT * FROM ARTICLES_VENDUS WHERE no_utilisateur<>? AND LOWER(nom_article) like ? AND no_categorie=? AND date_debut_encheres<=? AND date_fin_encheres>=? ORDER BY nom_article;";
-	private static final String SQL_SELECT_ENCHERES_UTILISATEUR=
-			"SELECT a.* FROM ARTICLES_VENDUS a " + 
-			"INNER JOIN ENCHERES e on a.no_article = e.no_article " + 
-			"WHERE e.no_utilisateur=? AND LOWER(nom_article) like ? AND date_debut_encheres<=? AND date_fin_encheres>=? ORDER BY nom_article;";
-	private static final String SQL_SELECT_ENCHERES_UTILISATEUR_CATEGORIE=
-			"SELECT a.* FROM ARTICLES_VENDUS a " + 
-			"INNER JOIN ENCHERES e on a.no_article = e.no_article " + 
-			"WHERE e.no_utilisateur=? AND no_categorie=? AND LOWER(nom_article) like ? AND date_debut_encheres<=? AND date_fin_encheres>=? ORDER BY nom_article;";
-	private static final String SQL_SELECT_ENCHERES_REMPORTEES=
-			"SELECT a.* FROM ARTICLES_VENDUS a " + 
-			"INNER JOIN ENCHERES e on a.no_article = e.no_article " + 
-			"WHERE e.no_utilisateur=? AND LOWER(nom_article) like ? AND e.montant_enchere=a.prix_vente AND date_fin_encheres<? ORDER BY nom_article;";
-	private static final String SQL_SELECT_ENCHERES_REMPORTEES_CATEGORIE=
-			"SELECT a.* FROM ARTICLES_VENDUS a " + 
-			"INNER JOIN ENCHERES e on a.no_article = e.no_article " + 
-			"WHERE e.no_utilisateur=? AND no_categorie=? AND LOWER(nom_article) like ? AND e.montant_enchere=a.prix_vente AND date_fin_encheres<? ORDER BY nom_article;";
-	private static final String SQL_SELECT_VENTES_ENCOURS=
-			"SELECT * FROM ARTICLES_VENDUS WHERE no_utilisateur=? AND LOWER(nom_article) like ? AND date_debut_encheres<=? AND date_fin_encheres>=? ORDER BY nom_article;";
-	private static final String SQL_SELECT_VENTES_ENCOURS_CATEGORIE=
-			"SELECT * FROM ARTICLES_VENDUS WHERE no_utilisateur=? AND LOWER(nom_article) like ? AND no_categorie=? AND date_debut_encheres<=? AND date_fin_encheres>=? ORDER BY nom_article;";
-	private static final String SQL_SELECT_VENTES_A_VENIR=
-			"SELECT * FROM ARTICLES_VENDUS WHERE no_utilisateur=? AND LOWER(nom_article) like ? AND date_debut_encheres>?  ORDER BY nom_article;";
-	private static final String SQL_SELECT_VENTES_A_VENIR_CATEGORIE=
-			"SELECT * FROM ARTICLES_VENDUS WHERE no_utilisateur=? AND LOWER(nom_article) like ? AND no_categorie=? AND date_debut_encheres>?  ORDER BY nom_article;";
-	private static final String SQL_SELECT_VENTES_TERMINEES=
-			"SELECT * FROM ARTICLES_VENDUS WHERE no_utilisateur=? AND LOWER(nom_article) like ? AND date_fin_encheres<? ORDER BY nom_article;";
-	private static final String SQL_SELECT_VENTES_TERMINEES_CATEGORIE=
-			"SELECT * FROM ARTICLES_VENDUS WHERE no_utilisateur=? AND LOWER(nom_article) like ? AND no_categorie=? AND date_fin_encheres<? ORDER BY nom_article;";
+			Hydrateur.SELECT_ARTICLE + Hydrateur.FROM_ARTICLE + "WHERE a.no_article=?;";
+	
 	private static final String SQL_INSERT=
 			"INSERT INTO ARTICLES_VENDUS (nom_article, description, date_debut_encheres, date_fin_encheres, prix_initial, prix_vente, no_utilisateur, no_categorie ) VALUES (?,?,?,?,?,?,?,?);";
 	private static final String SQL_UPDATE=
@@ -77,7 +37,11 @@ public class ArticleVenduDAOJdbcImpl implements ArticleVenduDAO{
 	@Override
 	public ArticleVendu selectById(int no_article) throws BusinessException {
 		
-		ArticleVendu articleVendu=null;
+		// article déjà lu pendant la requête
+		ArticleVendu articleVendu=CarteIdentite.get(ArticleVendu.class, no_article);
+		if (articleVendu != null) {
+			return articleVendu;
+		}
 		
 		try(Connection cn=ConnectionProvider.getConnection())
 		{
@@ -85,7 +49,7 @@ public class ArticleVenduDAOJdbcImpl implements ArticleVenduDAO{
 			stmt.setInt(1, no_article);
 			ResultSet rs=stmt.executeQuery();
 			if (rs.next()) {
-				articleVendu=articleBuilder(rs);
+				articleVendu=articleBuilder(rs, new Hydrateur());
 			}
 		
 		} catch (SQLException e) {
@@ -99,131 +63,32 @@ public class ArticleVenduDAOJdbcImpl implements ArticleVenduDAO{
 		return articleVendu;
 	}
 
-	private List<ArticleVendu> select(String sql, int no_utilisateur, int no_categorie, String nom_article) throws BusinessException {
+	@Override
+	public Page<ArticleVendu> selectByCritere(CritereArticle critere) throws BusinessException {
+		List<ArticleVendu> articles = select(critere);
+		return Pagination.page(articles, critere);
+	}
+	
+	//Execute la requete compilée pour les critères, paginée si la taille est positive
+	private List<ArticleVendu> select(CritereArticle critere) throws BusinessException {
 		
 		List<ArticleVendu> liste=new ArrayList<>();
+		if (critere.getNo_articles()!=null && critere.getNo_articles().isEmpty()) {
+			// aucun candidat : inutile d'interroger la base
+			return liste;
+		}
+		RequeteArticle requete=RequeteArticle.compiler(critere);
 		
 		try(Connection cn=ConnectionProvider.getConnection())
 		{
-			PreparedStatement stmt = cn.prepareStatement(sql);
-			
-			//controle le nom de l'article - la recherche se fait en lower case
-			if (nom_article == null) {
-				nom_article="";
-			}
-			nom_article="%" + nom_article.toLowerCase() + "%";
-			
-			//recupere la date du jour
-			Date date = new Date();
-			java.sql.Date today = java.sql.Date.valueOf(date.toInstant().atZone(ZoneId.systemDefault()).toLocalDate());
-			
-			//passe les parametres selon le contexte
-			switch(sql) {
-			
-				case SQL_SELECT_ALL_ENCOURS :
-					stmt.setString(1, nom_article);
-					stmt.setDate(2, today);
-					stmt.setDate(3, today);		
-					break;
-					
-				case SQL_SELECT_ALL_ENCOURS_CATEGORIE :
-					stmt.setString(1, nom_article);
-					stmt.setInt(2, no_categorie);
-					stmt.setDate(3, today);
-					stmt.setDate(4, today);
-					break;
-					
-				case SQL_SELECT_ENCHERES_ENCOURS :
-					stmt.setInt(1, no_utilisateur);
-					stmt.setString(2, nom_article);
-					stmt.setDate(3, today);
-					stmt.setDate(4, today);
-					break;
-					
-				case SQL_SELECT_ENCHERES_ENCOURS_CATEGORIE :
-					stmt.setInt(1, no_utilisateur);
-					stmt.setString(2, nom_article);
-					stmt.setInt(3, no_categorie);
-					stmt.setDate(4, today);
-					stmt.setDate(5, today);
-					break;
-					
-				case SQL_SELECT_ENCHERES_UTILISATEUR :
-					stmt.setInt(1, no_utilisateur);
-					stmt.setString(2, nom_article);
-					stmt.setDate(3, today);
-					stmt.setDate(4, today);
-					break;
-					
-				case SQL_SELECT_ENCHERES_UTILISATEUR_CATEGORIE :
-					stmt.setInt(1, no_utilisateur);
-					stmt.setString(2, nom_article);
-					stmt.setInt(3, no_categorie);
-					stmt.setDate(4, today);
-					stmt.setDate(5, today);
-					break;
-					
-				case SQL_SELECT_ENCHERES_REMPORTEES :
-					stmt.setInt(1, no_utilisateur);
-					stmt.setString(2, nom_article);
-					stmt.setDate(3, today);
-					break;			
-					
-				case SQL_SELECT_ENCHERES_REMPORTEES_CATEGORIE :
-					stmt.setInt(1, no_utilisateur);
-					stmt.setString(2, nom_article);
-					stmt.setInt(3, no_categorie);
-					stmt.setDate(4, today);
-					break;
-					
-				case SQL_SELECT_VENTES_ENCOURS :
-					stmt.setInt(1, no_utilisateur);
-					stmt.setString(2, nom_article);
-					stmt.setDate(3, today);
-					stmt.setDate(4, today);
-					break;
-					
-				case SQL_SELECT_VENTES_ENCOURS_CATEGORIE :
-					stmt.setInt(1, no_utilisateur);
-					stmt.setString(2, nom_article);
-					stmt.setInt(3, no_categorie);
-					stmt.setDate(4, today);
-					stmt.setDate(5, today);
-					break;
-					
-				case SQL_SELECT_VENTES_A_VENIR :
-					stmt.setInt(1, no_utilisateur);
-					stmt.setString(2, nom_article);
-					stmt.setDate(3, today);
-					break;					
-					
-				case SQL_SELECT_VENTES_A_VENIR_CATEGORIE :
-					stmt.setInt(1, no_utilisateur);
-					stmt.setString(2, nom_article);
-					stmt.setInt(3, no_categorie);
-					stmt.setDate(4, today);
-					break;
-					
-				case SQL_SELECT_VENTES_TERMINEES :
-					stmt.setInt(1, no_utilisateur);
-					stmt.setString(2, nom_article);
-					stmt.setDate(3, today);
-					break;	
-					
-				case SQL_SELECT_VENTES_TERMINEES_CATEGORIE :
-					stmt.setInt(1, no_utilisateur);
-					stmt.setString(2, nom_article);
-					stmt.setInt(3, no_categorie);
-					stmt.setDate(4, today);
-					break;
-			}
+			PreparedStatement stmt = cn.prepareStatement(requete.getSql());
+			requete.lier(stmt, critere);
 			
-			//execute la requete
+			//execute la requete : vendeurs et catégories sont ramenés par jointure et partagés entre les lignes
 			ResultSet rs=stmt.executeQuery();
+			Hydrateur hydrateur=new Hydrateur();
 			while (rs.next()) {
-				ArticleVendu articleVendu=new ArticleVendu();
-				articleVendu=articleBuilder(rs);
-				liste.add(articleVendu);
+				liste.add(articleBuilder(rs, hydrateur));
 			}
 		
 		} catch (SQLException e) {
@@ -236,7 +101,22 @@ public class ArticleVenduDAOJdbcImpl implements ArticleVenduDAO{
 		
 		return liste;
 	}
-
+	
+	//Critères communs aux listes : état de la vente, catégorie et nom saisis
+	private CritereArticle critere(Etat etat, int no_categorie, String nom_article) {
+		CritereArticle critere = new CritereArticle();
+		critere.setEtat(etat);
+		critere.setNo_categorie(no_categorie);
+		critere.setNom_article(nom_article);
+		return critere;
+	}
+	
+	private CritereArticle critere(Etat etat, int no_categorie, String nom_article, Curseur curseur, int taille) {
+		CritereArticle critere = critere(etat, no_categorie, nom_article);
+		critere.setCurseur(curseur);
+		critere.setTaille(taille);
+		return critere;
+	}
 
 	@Override
 	public void insert(ArticleVendu obj) throws BusinessException {
@@ -279,6 +159,7 @@ public class ArticleVenduDAOJdbcImpl implements ArticleVenduDAO{
 
 	@Override
 	public void update(ArticleVendu obj) throws BusinessException {
+		CarteIdentite.retirer(ArticleVendu.class, obj.getNo_article());
 
 		try(Connection cn=ConnectionProvider.getConnection())
 		{
@@ -314,6 +195,7 @@ public class ArticleVenduDAOJdbcImpl implements ArticleVenduDAO{
 
 	@Override
 	public void delete(int no_article) throws BusinessException {
+		CarteIdentite.retirer(ArticleVendu.class, no_article);
 
 		try(Connection cn=ConnectionProvider.getConnection())
 		{
@@ -332,24 +214,12 @@ public class ArticleVenduDAOJdbcImpl implements ArticleVenduDAO{
 	}
 
 	//Charge l'objet à partir du ResultSet
-	private ArticleVendu articleBuilder(ResultSet rs) throws BusinessException, SQLException {
+	private ArticleVendu articleBuilder(ResultSet rs, Hydrateur hydrateur) throws BusinessException, SQLException {
 		
-		ArticleVendu articleVendu = new ArticleVendu();
+		ArticleVendu articleVendu = null;
 		
 		try {
-			articleVendu.setNo_article(rs.getInt("no_article"));
-			articleVendu.setNom_article(rs.getString("nom_article"));
-			articleVendu.setDescription(rs.getString("description"));
-			articleVendu.setDate_debut_encheres(rs.getDate("date_debut_encheres").toLocalDate());
-			articleVendu.setDate_fin_encheres(rs.getDate("date_fin_encheres").toLocalDate());
-			articleVendu.setPrix_initial(rs.getInt("prix_initial"));
-			articleVendu.setPrix_vente(rs.getInt("prix_vente"));
-			
-			Utilisateur vendeur = utilisateurManager.getUtilisateur(rs.getInt("no_utilisateur"));
-			articleVendu.setVendeur(vendeur);
-			
-			Categorie categorie = categorieManager.getCategorie(rs.getInt("no_categorie"));
-			articleVendu.setCategorie(categorie);
+			articleVendu = hydrateur.article(rs);
 		} catch (SQLException e) {
 			e.printStackTrace();
 			logger.severe(e.getMessage());
@@ -364,89 +234,121 @@ public class ArticleVenduDAOJdbcImpl implements ArticleVenduDAO{
 	@Override
 	public List<ArticleVendu> selectAll() throws BusinessException {
 		// Liste de tous les articles en base de données
-		List<ArticleVendu> articles = select(SQL_SELECT_ALL,-1,-1,null);
-		return articles;
+		return select(critere(Etat.TOUS, -1, null));
 	}
 
 	@Override
 	public List<ArticleVendu> selectAllEnCours(int no_categorie, String nom_article) throws BusinessException {
 		//Toutes les encheres en cours 
-		String sql=SQL_SELECT_ALL_ENCOURS;
-		if (no_categorie>0) {
-			sql=SQL_SELECT_ALL_ENCOURS_CATEGORIE;
-		}
-		List<ArticleVendu> articles = select(sql, -1, no_categorie, nom_article);
-		return articles;
+		return select(critere(Etat.EN_COURS, no_categorie, nom_article));
 	}
 
 	@Override
 	public List<ArticleVendu> selectEncheresEnCours(int no_utilisateur, int no_categorie, String nom_article) throws BusinessException {
 		//Encheres en-cours sauf celles du user connecté 
-		String sql=SQL_SELECT_ENCHERES_ENCOURS;
-		if (no_categorie>0) {
-			sql=SQL_SELECT_ENCHERES_ENCOURS_CATEGORIE;
-		}
-		List<ArticleVendu> articles = select(sql, no_utilisateur, no_categorie, nom_article);
-		return articles;
+		CritereArticle critere = critere(Etat.EN_COURS, no_categorie, nom_article);
+		critere.setNo_vendeur_exclu(no_utilisateur);
+		return select(critere);
 	}
 
 	@Override
 	public List<ArticleVendu> selectEncheresEnCoursUtilisateur(int no_utilisateur, int no_categorie, String nom_article) throws BusinessException {
 		//Encheres en cours pour le user connecte
-		String sql=SQL_SELECT_ENCHERES_UTILISATEUR;
-		if (no_categorie>0) {
-			sql=SQL_SELECT_ENCHERES_UTILISATEUR_CATEGORIE;
-		}
-		List<ArticleVendu> articles = select(sql, no_utilisateur, no_categorie, nom_article);
-		return articles;
+		CritereArticle critere = critere(Etat.EN_COURS, no_categorie, nom_article);
+		critere.setNo_encherisseur(no_utilisateur);
+		return select(critere);
 	}
 
 	@Override
 	public List<ArticleVendu> selectEncheresRemporteesUtilisateur(int no_utilisateur, int no_categorie, String nom_article)
 			throws BusinessException {
 		//Encheres remportées pour le user connecte
-		String sql=SQL_SELECT_ENCHERES_REMPORTEES;
-		if (no_categorie>0) {
-			sql=SQL_SELECT_ENCHERES_REMPORTEES_CATEGORIE;
-		}
-		List<ArticleVendu> articles = select(sql, no_utilisateur, no_categorie, nom_article);
-		return articles;
+		CritereArticle critere = critere(Etat.TERMINEES, no_categorie, nom_article);
+		critere.setNo_encherisseur(no_utilisateur);
+		critere.setRemportees(true);
+		return select(critere);
 	}
 
 	@Override
 	public List<ArticleVendu> selectVentesEnCoursUtilisateur(int no_utilisateur, int no_categorie, String nom_article)
 			throws BusinessException {
 		//Ventes en cours du user 
-		String sql=SQL_SELECT_VENTES_ENCOURS;
-		if (no_categorie>0) {
-			sql=SQL_SELECT_VENTES_ENCOURS_CATEGORIE;
-		}
-		List<ArticleVendu> articles = select(sql, no_utilisateur, no_categorie, nom_article);
-		return articles;
+		CritereArticle critere = critere(Etat.EN_COURS, no_categorie, nom_article);
+		critere.setNo_vendeur(no_utilisateur);
+		return select(critere);
 	}
 
 	@Override
 	public List<ArticleVendu> selectVentesAVenirUtilisateur(int no_utilisateur, int no_categorie, String nom_article)
 			throws BusinessException {
 		//Ventes à venir du user 
-		String sql=SQL_SELECT_VENTES_A_VENIR;
-		if (no_categorie>0) {
-			sql=SQL_SELECT_VENTES_A_VENIR_CATEGORIE;
-		}
-		List<ArticleVendu> articles = select(sql, no_utilisateur, no_categorie, nom_article);
-		return articles;
+		CritereArticle critere = critere(Etat.A_VENIR, no_categorie, nom_article);
+		critere.setNo_vendeur(no_utilisateur);
+		return select(critere);
 	}
 
 	@Override
 	public List<ArticleVendu> selectVentesTermineesUtilisateur(int no_utilisateur, int no_categorie, String nom_article)
 			throws BusinessException {
 		//Ventes terminées du user  
-		String sql=SQL_SELECT_VENTES_TERMINEES;
-		if (no_categorie>0) {
-			sql=SQL_SELECT_VENTES_TERMINEES_CATEGORIE;
-		}
-		List<ArticleVendu> articles = select(sql, no_utilisateur, no_categorie, nom_article);
-		return articles;
+		CritereArticle critere = critere(Etat.TERMINEES, no_categorie, nom_article);
+		critere.setNo_vendeur(no_utilisateur);
+		return select(critere);
+	}
+
+	@Override
+	public Page<ArticleVendu> selectAllEnCours(int no_categorie, String nom_article, Curseur curseur, int taille) throws BusinessException {
+		//Toutes les encheres en cours (paginées)
+		return selectByCritere(critere(Etat.EN_COURS, no_categorie, nom_article, curseur, taille));
+	}
+
+	@Override
+	public Page<ArticleVendu> selectEncheresEnCours(int no_utilisateur, int no_categorie, String nom_article, Curseur curseur, int taille) throws BusinessException {
+		//Encheres en-cours sauf celles du user connecté (paginées)
+		CritereArticle critere = critere(Etat.EN_COURS, no_categorie, nom_article, curseur, taille);
+		critere.setNo_vendeur_exclu(no_utilisateur);
+		return selectByCritere(critere);
+	}
+
+	@Override
+	public Page<ArticleVendu> selectEncheresEnCoursUtilisateur(int no_utilisateur, int no_categorie, String nom_article, Curseur curseur, int taille) throws BusinessException {
+		//Encheres en cours pour le user connecte (paginées)
+		CritereArticle critere = critere(Etat.EN_COURS, no_categorie, nom_article, curseur, taille);
+		critere.setNo_encherisseur(no_utilisateur);
+		return selectByCritere(critere);
+	}
+
+	@Override
+	public Page<ArticleVendu> selectEncheresRemporteesUtilisateur(int no_utilisateur, int no_categorie, String nom_article, Curseur curseur, int taille) throws BusinessException {
+		//Encheres remportées pour le user connecte (paginées)
+		CritereArticle critere = critere(Etat.TERMINEES, no_categorie, nom_article, curseur, taille);
+		critere.setNo_encherisseur(no_utilisateur);
+		critere.setRemportees(true);
+		return selectByCritere(critere);
+	}
+
+	@Override
+	public Page<ArticleVendu> selectVentesEnCoursUtilisateur(int no_utilisateur, int no_categorie, String nom_article, Curseur curseur, int taille) throws BusinessException {
+		//Ventes en cours du user (paginées)
+		CritereArticle critere = critere(Etat.EN_COURS, no_categorie, nom_article, curseur, taille);
+		critere.setNo_vendeur(no_utilisateur);
+		return selectByCritere(critere);
+	}
+
+	@Override
+	public Page<ArticleVendu> selectVentesAVenirUtilisateur(int no_utilisateur, int no_categorie, String nom_article, Curseur curseur, int taille) throws BusinessException {
+		//Ventes à venir du user (paginées)
+		CritereArticle critere = critere(Etat.A_VENIR, no_categorie, nom_article, curseur, taille);
+		critere.setNo_vendeur(no_utilisateur);
+		return selectByCritere(critere);
+	}
+
+	@Override
+	public Page<ArticleVendu> selectVentesTermineesUtilisateur(int no_utilisateur, int no_categorie, String nom_article, Curseur curseur, int taille) throws BusinessException {
+		//Ventes terminées du user (paginées)
+		CritereArticle critere = critere(Etat.TERMINEES, no_categorie, nom_article, curseur, taille);
+		critere.setNo_vendeur(no_utilisateur);
+		return selectByCritere(critere);
 	}
 
 }
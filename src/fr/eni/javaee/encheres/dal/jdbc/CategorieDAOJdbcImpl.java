@@ -9,6 +9,7 @@ import java.util.List;
 import java.util.logging.Logger;
 
 import fr.eni.javaee.encheres.bo.Categorie;
+import fr.eni.javaee.encheres.dal.CarteIdentite;
 import fr.eni.javaee.encheres.dal.CategorieDAO;
 import fr.eni.javaee.encheres.dal.CodesResultatDAL;
 import fr.eni.javaee.encheres.messages.BusinessException;
@@ -27,7 +28,11 @@ public class CategorieDAOJdbcImpl implements CategorieDAO{
 	@Override
 	public Categorie selectById(int no_categorie) throws BusinessException {
 		
-		Categorie categorie=null;
+		// catégorie déjà lue pendant la requête
+		Categorie categorie=CarteIdentite.get(Categorie.class, no_categorie);
+		if (categorie != null) {
+			return categorie;
+		}
 		
 		try(Connection cn=ConnectionProvider.getConnection())
 		{
@@ -35,7 +40,7 @@ public class CategorieDAOJdbcImpl implements CategorieDAO{
 			stmt.setInt(1, no_categorie);
 			ResultSet rs=stmt.executeQuery();
 			if (rs.next()) {
-				categorie=categorieBuilder(rs);
+				categorie=CarteIdentite.mettre(Categorie.class, no_categorie, categorieBuilder(rs));
 			}
 		;
 		} catch (SQLException e) {
@@ -79,6 +84,7 @@ public class CategorieDAOJdbcImpl implements CategorieDAO{
 
 	@Override
 	public void update(Categorie obj) throws BusinessException {
+		CarteIdentite.retirer(Categorie.class, obj.getNo_categorie());
 		
 		try(Connection cn=ConnectionProvider.getConnection())
 		{
@@ -137,6 +143,7 @@ public class CategorieDAOJdbcImpl implements CategorieDAO{
 
 	@Override
 	public void delete(int no_categorie) throws BusinessException {
+		CarteIdentite.retirer(Categorie.class, no_categorie);
 
 		try(Connection cn=ConnectionProvider.getConnection())
 		{
@@ -29,11 +29,23 @@ abstract class ConnectionProvider {
 	/**
 	 * Cette méthode retourne une connection opérationnelle issue du pool de connexion
 	 * vers la base de données. 
+	 * Si la requête en cours est liée à une connexion (ConnexionRequete), c'est une vue de
+	 * celle-ci qui est retournée : la fermer ne la rend pas au pool.
 	 * @return
 	 * @throws SQLException
 	 */
 	public static Connection getConnection() throws SQLException
 	{
+		Connection connexionRequete = ConnexionRequete.vue(ConnectionProvider.dataSource);
+		if (connexionRequete != null) {
+			return connexionRequete;
+		}
 		return ConnectionProvider.dataSource.getConnection();
 	}
+	
+	//DataSource du pool, pour les unités de travail
+	static DataSource getDataSource()
+	{
+		return ConnectionProvider.dataSource;
+	}
 }
@@ -0,0 +1,243 @@
+package fr.eni.javaee.encheres.dal.jdbc;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Logger;
+
+import javax.sql.DataSource;
+
+import fr.eni.javaee.encheres.utils.ErrorLogger;
+
+/**
+ * Connexion liée à la requête en cours.
+ * Une fois la requête liée, la première demande de connexion emprunte une connexion au pool ;
+ * les DAO reçoivent ensuite des vues de cette même connexion. Fermer une vue ferme ses requêtes
+ * SQL et annule une transaction laissée ouverte, sans rendre la connexion : elle n'est rendue
+ * au pool qu'à la libération, en fin de requête.
+ * Pendant une unité de travail (UniteDeTravailJdbcImpl), les vues partagent la transaction :
+ * leurs commit et setAutoCommit sont ignorés et un rollback annule toute l'unité.
+ */
+public final class ConnexionRequete {
+
+	private static Logger logger = ErrorLogger.getLogger("ConnexionRequete");
+
+	// Connexion de la requête, empruntée à la première utilisation
+	private static final class Liaison {
+		private Connection connexion;
+		// une erreur SQL a eu lieu : la connexion est remplacée à la prochaine demande
+		private boolean douteuse;
+		// unité de travail en cours, annulée par une vue
+		private boolean enTransaction;
+		private boolean annulee;
+		// la requête a été liée par l'unité de travail, qui libère la connexion en se terminant
+		private boolean proprietaire;
+	}
+
+	private static final ThreadLocal<Liaison> liaison = new ThreadLocal<>();
+
+	private ConnexionRequete() {
+	}
+
+	/**
+	 * Lie la requête en cours à une connexion
+	 * @return boolean true si elle vient d'être liée, false si elle l'était déjà
+	 */
+	public static boolean lier() {
+		if (liaison.get() != null) {
+			return false;
+		}
+		liaison.set(new Liaison());
+		return true;
+	}
+
+	//Rend au pool la connexion de la requête
+	public static void liberer() {
+		Liaison courante = liaison.get();
+		liaison.remove();
+		if (courante != null && courante.connexion != null) {
+			rendre(courante.connexion);
+		}
+	}
+
+	//Vue de la connexion de la requête, null si la requête n'est pas liée
+	static Connection vue(DataSource dataSource) throws SQLException {
+		Liaison courante = liaison.get();
+		if (courante == null) {
+			return null;
+		}
+		return vueNonFermante(courante, emprunter(courante, dataSource));
+	}
+
+	//Connexion de la requête, empruntée ou remplacée si besoin
+	private static Connection emprunter(Liaison courante, DataSource dataSource) throws SQLException {
+		if (courante.enTransaction) {
+			// remplacer la connexion perdrait la transaction : l'unité de travail échoue
+			if (courante.connexion == null || courante.connexion.isClosed()) {
+				courante.annulee = true;
+				throw new SQLException("Transaction interrompue");
+			}
+			return courante.connexion;
+		}
+		if (courante.connexion != null && (courante.douteuse || courante.connexion.isClosed())) {
+			rendre(courante.connexion);
+			courante.connexion = null;
+		}
+		if (courante.connexion == null) {
+			courante.connexion = dataSource.getConnection();
+			courante.douteuse = false;
+		}
+		return courante.connexion;
+	}
+
+	//Commence une unité de travail sur la connexion de la requête, liée pour l'occasion si besoin
+	static void commencer(DataSource dataSource) throws SQLException {
+		boolean proprietaire = lier();
+		Liaison courante = liaison.get();
+		if (courante.enTransaction) {
+			throw new SQLException("Transaction déjà commencée");
+		}
+		try {
+			emprunter(courante, dataSource).setAutoCommit(false);
+		} catch (SQLException e) {
+			if (proprietaire) {
+				liberer();
+			}
+			throw e;
+		}
+		courante.enTransaction = true;
+		courante.annulee = false;
+		courante.proprietaire = proprietaire;
+	}
+
+	/**
+	 * Termine l'unité de travail : elle est validée, sauf si une vue l'a annulée
+	 * @return boolean true si la transaction a été validée, false si elle a été annulée
+	 */
+	static boolean valider() throws SQLException {
+		Liaison courante = liaison.get();
+		if (courante == null || !courante.enTransaction) {
+			throw new SQLException("Aucune transaction commencée");
+		}
+		boolean validee = !courante.annulee;
+		try {
+			if (validee) {
+				courante.connexion.commit();
+			} else {
+				courante.connexion.rollback();
+			}
+			courante.connexion.setAutoCommit(true);
+		} catch (SQLException e) {
+			// la connexion est réinitialisée (rollback) avant d'être rendue ou remplacée
+			courante.douteuse = true;
+			throw e;
+		} finally {
+			terminer(courante);
+		}
+		return validee;
+	}
+
+	//Annule l'unité de travail en cours, s'il y en a une
+	static void annuler() {
+		Liaison courante = liaison.get();
+		if (courante == null || !courante.enTransaction) {
+			return;
+		}
+		try {
+			courante.connexion.rollback();
+			courante.connexion.setAutoCommit(true);
+		} catch (SQLException e) {
+			logger.warning("Transaction non annulée : " + e.getMessage());
+			courante.douteuse = true;
+		} finally {
+			terminer(courante);
+		}
+	}
+
+	private static void terminer(Liaison courante) {
+		courante.enTransaction = false;
+		courante.annulee = false;
+		if (courante.proprietaire) {
+			courante.proprietaire = false;
+			liberer();
+		}
+	}
+
+	private static Connection vueNonFermante(Liaison courante, Connection connexion) {
+		List<Statement> statements = new ArrayList<>();
+		boolean[] fermee = {false};
+		return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[] {Connection.class}, (proxy, method, args) -> {
+			switch (method.getName()) {
+				case "close" :
+					if (!fermee[0]) {
+						fermee[0] = true;
+						for (Statement statement : statements) {
+							statement.close();
+						}
+						if (!courante.enTransaction) {
+							reinitialiser(connexion);
+						}
+					}
+					return null;
+				case "isClosed" :
+					return fermee[0] || connexion.isClosed();
+				default :
+					break;
+			}
+			if (fermee[0]) {
+				throw new SQLException("Connexion fermée");
+			}
+			if (courante.enTransaction) {
+				// la transaction appartient à l'unité de travail
+				switch (method.getName()) {
+					case "setAutoCommit" :
+					case "commit" :
+						return null;
+					case "rollback" :
+						courante.annulee = true;
+						return null;
+					default :
+						break;
+				}
+			}
+			try {
+				Object resultat = method.invoke(connexion, args);
+				if (resultat instanceof Statement) {
+					statements.add((Statement) resultat);
+				}
+				return resultat;
+			} catch (InvocationTargetException e) {
+				if (e.getCause() instanceof SQLException) {
+					courante.douteuse = true;
+				}
+				throw e.getCause();
+			}
+		});
+	}
+
+	//Annule la transaction laissée ouverte, comme le ferait le pool au retour de la connexion
+	private static void reinitialiser(Connection connexion) throws SQLException {
+		if (!connexion.isClosed() && !connexion.getAutoCommit()) {
+			connexion.rollback();
+			connexion.setAutoCommit(true);
+		}
+	}
+
+	private static void rendre(Connection connexion) {
+		try {
+			reinitialiser(connexion);
+		} catch (SQLException e) {
+			logger.warning("Connexion non réinitialisée : " + e.getMessage());
+		}
+		try {
+			connexion.close();
+		} catch (SQLException e) {
+			logger.warning("Connexion non rendue : " + e.getMessage());
+		}
+	}
+
+}
@@ -0,0 +1,68 @@
+package fr.eni.javaee.encheres.dal.jdbc;
+
+import java.sql.SQLException;
+import java.util.Locale;
+
+/**
+ * Dialecte SQL de la base du pool : les DAO écrivent du SQL standard, seules les clauses
+ * propres à une base passent par le dialecte.
+ * Choisi au démarrage par la propriété système encheres.dialecte (sqlserver par défaut, h2).
+ * Le schéma de chaque base, avec les mêmes tables et les mêmes index, est dans schema-<dialecte>.sql.
+ */
+enum Dialecte {
+
+	SQLSERVER(" OFFSET 0 ROWS FETCH NEXT %s ROWS ONLY", "%s COLLATE Latin1_General_CI_AI"),
+	H2(" LIMIT %s", "REPLACE(REPLACE(TRANSLATE(LOWER(%s), 'àáâãäåçèéêëìíîïñòóôõöùúûüýÿ', 'aaaaaaceeeeiiiinooooouuuuyy'), 'œ', 'oe'), 'æ', 'ae')");
+
+	private static final Dialecte courant = choisir(System.getProperty("encheres.dialecte"));
+
+	private final String limite;
+	private final String plier;
+
+	private Dialecte(String limite, String plier) {
+		this.limite = limite;
+		this.plier = plier;
+	}
+
+	static Dialecte get() {
+		return courant;
+	}
+
+	//Clause à placer après l'ORDER BY pour ne lire que les premières lignes (un nombre ou ?)
+	String limite(String nombre) {
+		return String.format(limite, nombre);
+	}
+
+	//Colonne comparée sans casse ni accents à un fragment plié par CritereArticle.plier
+	String plier(String colonne) {
+		return String.format(plier, colonne);
+	}
+
+	//Vrai si l'erreur est la violation d'une contrainte UNIQUE (ou d'une clé primaire)
+	boolean isDoublon(SQLException e) {
+		switch (this) {
+			case H2 :
+				return "23505".equals(e.getSQLState());
+			default :
+				// 2627 : contrainte UNIQUE ou PRIMARY KEY, 2601 : index unique
+				return e.getErrorCode() == 2627 || e.getErrorCode() == 2601;
+		}
+	}
+
+	//Script de création du schéma, dans le classpath à côté des DAO
+	String getScript() {
+		return "schema-" + name().toLowerCase(Locale.ROOT) + ".sql";
+	}
+
+	private static Dialecte choisir(String nom) {
+		if (nom == null || nom.isEmpty()) {
+			return SQLSERVER;
+		}
+		try {
+			return valueOf(nom.trim().toUpperCase(Locale.ROOT));
+		} catch (IllegalArgumentException e) {
+			throw new IllegalStateException("Dialecte SQL inconnu : " + nom);
+		}
+	}
+
+}
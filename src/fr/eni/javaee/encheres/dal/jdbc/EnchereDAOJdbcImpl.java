@@ -4,15 +4,12 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Types;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.logging.Logger;
 
-import fr.eni.javaee.encheres.bll.ArticleVenduManager;
-import fr.eni.javaee.encheres.bll.UtilisateurManager;
-import fr.eni.javaee.encheres.bo.ArticleVendu;
 import fr.eni.javaee.encheres.bo.Enchere;
-import fr.eni.javaee.encheres.bo.Utilisateur;
 import fr.eni.javaee.encheres.dal.EnchereDAO;
 import fr.eni.javaee.encheres.dal.CodesResultatDAL;
 import fr.eni.javaee.encheres.messages.BusinessException;
@@ -22,14 +19,31 @@ public class EnchereDAOJdbcImpl implements EnchereDAO{
 	
 	private static Logger logger = ErrorLogger.getLogger("EnchereDAOJdbcImpl");
 	
-	private static final String SQL_SELECT_BY_ARTICLE="SELECT no_utilisateur, no_article, date_enchere, montant_enchere FROM ENCHERES WHERE no_article=? ORDER BY date_enchere;";
-	private static final String SQL_SELECT_BY_TOP_ARTICLE="SELECT TOP 1 no_utilisateur, no_article, date_enchere, montant_enchere FROM ENCHERES WHERE no_article=? ORDER BY montant_enchere DESC;";
-	private static final String SQL_SELECT_ALL="SELECT no_utilisateur, no_article, date_enchere, montant_enchere FROM ENCHERES ORDER BY no_article, no_utilisateur;";
-	private static final String SQL_INSERT=""
-			+ "BEGIN TRANSACTION; "
-			+ "INSERT INTO ENCHERES (no_utilisateur, no_article, date_enchere, montant_enchere) VALUES (?,?,?,?); "
-			+ "UPDATE ARTICLES_VENDUS SET prix_vente=? WHERE no_article=?; "
-			+ "COMMIT TRANSACTION; ";
+	// Enchère jointe à son article (avec vendeur et catégorie) et à son enchérisseur
+	private static final String SQL_COLONNES=
+			"e.date_enchere, e.montant_enchere, e.montant_maximum, " + Hydrateur.COLONNES_ARTICLE + ", " + Hydrateur.COLONNES_VENDEUR + ", " 
+			+ Hydrateur.COLONNES_CATEGORIE + ", " + Hydrateur.COLONNES_ENCHERISSEUR + " ";
+	private static final String SQL_FROM=
+			"FROM ENCHERES e "
+			+ "INNER JOIN ARTICLES_VENDUS a ON a.no_article = e.no_article "
+			+ "INNER JOIN UTILISATEURS v ON v.no_utilisateur = a.no_utilisateur "
+			+ "INNER JOIN CATEGORIES c ON c.no_categorie = a.no_categorie "
+			+ "INNER JOIN UTILISATEURS u ON u.no_utilisateur = e.no_utilisateur ";
+	
+	private static final String SQL_SELECT_BY_ARTICLE="SELECT " + SQL_COLONNES + SQL_FROM + "WHERE e.no_article=? ORDER BY e.date_enchere;";
+	private static final String SQL_SELECT_BY_TOP_ARTICLE="SELECT " + SQL_COLONNES + SQL_FROM + "WHERE e.no_article=? ORDER BY e.montant_enchere DESC, e.no_enchere DESC"
+			+ Dialecte.get().limite("1") + ";";
+	private static final String SQL_SELECT_ALL="SELECT " + SQL_COLONNES + SQL_FROM + "ORDER BY e.no_article, e.no_utilisateur;";
+	// Le prix n'est modifié que si l'enchère dépasse le prix courant et que la vente est ouverte :
+	// la base arbitre entre deux enchères concurrentes, la moins élevée ne modifie aucune ligne
+	private static final String SQL_UPDATE_PRIX=
+			"UPDATE ARTICLES_VENDUS SET prix_vente=? WHERE no_article=? AND prix_vente<? AND prix_initial<? "
+			+ "AND date_debut_encheres<=? AND date_fin_encheres>=?;";
+	// Enregistrement par lot d'enchères déjà acceptées : le prix ne fait que monter
+	private static final String SQL_UPDATE_PRIX_LOT=
+			"UPDATE ARTICLES_VENDUS SET prix_vente=? WHERE no_article=? AND prix_vente<?;";
+	private static final String SQL_INSERT=
+			"INSERT INTO ENCHERES (no_utilisateur, no_article, date_enchere, montant_enchere, montant_maximum) VALUES (?,?,?,?,?);";
 	
 	@Override
 	public List<Enchere> selectByArticle(int no_article) throws BusinessException {
@@ -42,10 +56,9 @@ public class EnchereDAOJdbcImpl implements EnchereDAO{
 			PreparedStatement stmt = cn.prepareStatement(SQL_SELECT_BY_ARTICLE);
 			stmt.setInt(1,no_article);
 			ResultSet rs=stmt.executeQuery();
+			Hydrateur hydrateur=new Hydrateur();
 			while (rs.next()) {
-				Enchere enchere=new Enchere();
-				enchere=enchereBuilder(rs);
-				liste.add(enchere);
+				liste.add(enchereBuilder(rs, hydrateur));
 			}
 		
 		} catch (SQLException e) {
@@ -71,8 +84,7 @@ public class EnchereDAOJdbcImpl implements EnchereDAO{
 			stmt.setInt(1,no_article);
 			ResultSet rs=stmt.executeQuery();
 			if (rs.next()) {
-				enchere=new Enchere();
-				enchere=enchereBuilder(rs);
+				enchere=enchereBuilder(rs, new Hydrateur());
 			}
 		
 		} catch (SQLException e) {
@@ -94,10 +106,9 @@ public class EnchereDAOJdbcImpl implements EnchereDAO{
 		{
 			PreparedStatement stmt = cn.prepareStatement(SQL_SELECT_ALL);
 			ResultSet rs=stmt.executeQuery();
+			Hydrateur hydrateur=new Hydrateur();
 			while (rs.next()) {
-				Enchere enchere=new Enchere();
-				enchere=enchereBuilder(rs);
-				liste.add(enchere);
+				liste.add(enchereBuilder(rs, hydrateur));
 			}
 		
 		} catch (SQLException e) {
@@ -114,17 +125,100 @@ public class EnchereDAOJdbcImpl implements EnchereDAO{
 	
 	@Override
 	public void insert(Enchere obj) throws BusinessException {
-
+		
+		if (!insertSiMeilleure(obj)) {
+			BusinessException businessException = new BusinessException();
+			businessException.ajouterErreur(CodesResultatDAL.INSERT_ENCHERE_DEPASSEE);
+			throw businessException;
+		}
+		
+	}
+	
+	// Enregistre l'enchère si elle dépasse le prix courant d'une vente ouverte, en une transaction ;
+	// false si une meilleure enchère l'a précédée. Les enchères du moteur passent par insertBatch.
+	private boolean insertSiMeilleure(Enchere obj) throws BusinessException {
+		
+		boolean remportee = false;
+		
 		try(Connection cn=ConnectionProvider.getConnection())
 		{
-			PreparedStatement stmt = cn.prepareStatement(SQL_INSERT);
-			stmt.setInt(1, obj.getEncherisseur().getNo_utilisateur());
-			stmt.setInt(2, obj.getArticle().getNo_article());
-			stmt.setDate(3, java.sql.Date.valueOf(obj.getDate_enchere()));
-			stmt.setInt(4, obj.getMontant_enchere());
-			stmt.setInt(5, obj.getMontant_enchere());
-			stmt.setInt(6, obj.getArticle().getNo_article());
-			stmt.executeUpdate();
+			cn.setAutoCommit(false);
+			try {
+				// met à jour le prix si l'enchère est la meilleure
+				PreparedStatement stmt = cn.prepareStatement(SQL_UPDATE_PRIX);
+				java.sql.Date date_enchere = java.sql.Date.valueOf(obj.getDate_enchere());
+				stmt.setInt(1, obj.getMontant_enchere());
+				stmt.setInt(2, obj.getArticle().getNo_article());
+				stmt.setInt(3, obj.getMontant_enchere());
+				stmt.setInt(4, obj.getMontant_enchere());
+				stmt.setDate(5, date_enchere);
+				stmt.setDate(6, date_enchere);
+				remportee = stmt.executeUpdate()==1;
+				
+				// enregistre l'enchère dans la même transaction
+				if (remportee) {
+					stmt = cn.prepareStatement(SQL_INSERT);
+					stmt.setInt(1, obj.getEncherisseur().getNo_utilisateur());
+					stmt.setInt(2, obj.getArticle().getNo_article());
+					stmt.setDate(3, date_enchere);
+					stmt.setInt(4, obj.getMontant_enchere());
+					setMaximum(stmt, 5, obj);
+					stmt.executeUpdate();
+					cn.commit();
+				} else {
+					cn.rollback();
+				}
+			} catch (SQLException | RuntimeException e) {
+				cn.rollback();
+				throw e;
+			}
+			
+		} catch (NullPointerException e) {
+			e.printStackTrace();
+			logger.severe(e.getMessage());
+			BusinessException businessException = new BusinessException();
+			businessException.ajouterErreur(CodesResultatDAL.INSERT_ENCHERE_NULL);
+			throw businessException;
+		} catch (SQLException e) {
+			e.printStackTrace();
+			logger.severe(e.getMessage());
+			BusinessException businessException = new BusinessException();
+			businessException.ajouterErreur(CodesResultatDAL.INSERT_ENCHERE_ECHEC);
+			throw businessException;
+		}
+		
+		return remportee;
+	}
+	
+	@Override
+	public void insertBatch(List<Enchere> encheres) throws BusinessException {
+		
+		try(Connection cn=ConnectionProvider.getConnection())
+		{
+			cn.setAutoCommit(false);
+			try {
+				PreparedStatement stmtInsert = cn.prepareStatement(SQL_INSERT);
+				PreparedStatement stmtPrix = cn.prepareStatement(SQL_UPDATE_PRIX_LOT);
+				for (Enchere obj : encheres) {
+					stmtInsert.setInt(1, obj.getEncherisseur().getNo_utilisateur());
+					stmtInsert.setInt(2, obj.getArticle().getNo_article());
+					stmtInsert.setDate(3, java.sql.Date.valueOf(obj.getDate_enchere()));
+					stmtInsert.setInt(4, obj.getMontant_enchere());
+					setMaximum(stmtInsert, 5, obj);
+					stmtInsert.addBatch();
+					
+					stmtPrix.setInt(1, obj.getMontant_enchere());
+					stmtPrix.setInt(2, obj.getArticle().getNo_article());
+					stmtPrix.setInt(3, obj.getMontant_enchere());
+					stmtPrix.addBatch();
+				}
+				stmtInsert.executeBatch();
+				stmtPrix.executeBatch();
+				cn.commit();
+			} catch (SQLException | RuntimeException e) {
+				cn.rollback();
+				throw e;
+			}
 			
 		} catch (NullPointerException e) {
 			e.printStackTrace();
@@ -158,23 +252,29 @@ public class EnchereDAOJdbcImpl implements EnchereDAO{
 		throw businessException;
 	}
 
+	//Maximum de l'enchère automatique, NULL si l'enchère n'en a pas
+	private static void setMaximum(PreparedStatement stmt, int index, Enchere obj) throws SQLException {
+		if (obj.getMontant_maximum() > obj.getMontant_enchere()) {
+			stmt.setInt(index, obj.getMontant_maximum());
+		} else {
+			stmt.setNull(index, Types.INTEGER);
+		}
+	}
+
 	//Charge l'objet à partir du ResultSet
-	private Enchere enchereBuilder(ResultSet rs) throws BusinessException, SQLException {
+	//L'article et l'enchérisseur sont partagés entre toutes les enchères du même ResultSet
+	private Enchere enchereBuilder(ResultSet rs, Hydrateur hydrateur) throws BusinessException, SQLException {
 		
 		Enchere enchere = new Enchere();
 		
 		try {
 
-			ArticleVenduManager articleVenduManager = ArticleVenduManager.getInstance();
-			ArticleVendu articleVendu = articleVenduManager.getArticleVendu(rs.getInt("no_article"));
-			
-			UtilisateurManager utilisateurManager = UtilisateurManager.getInstance();
-			Utilisateur encherisseur = utilisateurManager.getUtilisateur(rs.getInt("no_utilisateur"));
-			
-			enchere.setArticle(articleVendu);
-			enchere.setEncherisseur(encherisseur);
+			enchere.setArticle(hydrateur.article(rs));
+			enchere.setEncherisseur(hydrateur.utilisateur(rs, Hydrateur.PREFIXE_ENCHERISSEUR));
 			enchere.setDate_enchere(rs.getDate("date_enchere").toLocalDate());
 			enchere.setMontant_enchere(rs.getInt("montant_enchere"));
+			// NULL (pas d'enchère automatique) est lu 0
+			enchere.setMontant_maximum(rs.getInt("montant_maximum"));
 
 		} catch (SQLException e) {
 			e.printStackTrace();
@@ -0,0 +1,135 @@
+package fr.eni.javaee.encheres.dal.jdbc;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+
+import fr.eni.javaee.encheres.bo.ArticleVendu;
+import fr.eni.javaee.encheres.bo.Categorie;
+import fr.eni.javaee.encheres.bo.Utilisateur;
+import fr.eni.javaee.encheres.dal.CarteIdentite;
+
+/**
+ * Construit les business objects à partir d'un ResultSet issu d'une jointure
+ * ARTICLES_VENDUS / UTILISATEURS / CATEGORIES.
+ * Une instance est utilisée pour un seul ResultSet : les vendeurs, catégories et articles
+ * déjà rencontrés sont réutilisés au lieu d'être reconstruits ligne par ligne, de même que ceux
+ * déjà lus pendant la requête (CarteIdentite).
+ */
+class Hydrateur {
+
+	// Colonnes de l'article (alias a)
+	static final String COLONNES_ARTICLE =
+			"a.no_article, a.nom_article, a.description, a.date_debut_encheres, a.date_fin_encheres, a.prix_initial, a.prix_vente";
+
+	// Colonnes du vendeur (alias v, préfixe v_)
+	static final String COLONNES_VENDEUR =
+			"v.no_utilisateur AS v_no_utilisateur, v.pseudo AS v_pseudo, v.nom AS v_nom, v.prenom AS v_prenom, v.email AS v_email, "
+			+ "v.telephone AS v_telephone, v.rue AS v_rue, v.code_postal AS v_code_postal, v.ville AS v_ville, "
+			+ "v.mot_de_passe AS v_mot_de_passe, v.credit AS v_credit, v.administrateur AS v_administrateur";
+
+	// Colonnes de l'enchérisseur (alias u, préfixe u_)
+	static final String COLONNES_ENCHERISSEUR =
+			"u.no_utilisateur AS u_no_utilisateur, u.pseudo AS u_pseudo, u.nom AS u_nom, u.prenom AS u_prenom, u.email AS u_email, "
+			+ "u.telephone AS u_telephone, u.rue AS u_rue, u.code_postal AS u_code_postal, u.ville AS u_ville, "
+			+ "u.mot_de_passe AS u_mot_de_passe, u.credit AS u_credit, u.administrateur AS u_administrateur";
+
+	// Colonnes de la catégorie (alias c, préfixe c_)
+	static final String COLONNES_CATEGORIE =
+			"c.no_categorie AS c_no_categorie, c.libelle AS c_libelle";
+
+	// Article joint à son vendeur et à sa catégorie
+	static final String SELECT_ARTICLE =
+			"SELECT " + COLONNES_ARTICLE + ", " + COLONNES_VENDEUR + ", " + COLONNES_CATEGORIE + " ";
+	static final String FROM_ARTICLE =
+			"FROM ARTICLES_VENDUS a "
+			+ "INNER JOIN UTILISATEURS v ON v.no_utilisateur = a.no_utilisateur "
+			+ "INNER JOIN CATEGORIES c ON c.no_categorie = a.no_categorie ";
+
+	static final String PREFIXE_VENDEUR = "v_";
+	static final String PREFIXE_ENCHERISSEUR = "u_";
+	static final String PREFIXE_CATEGORIE = "c_";
+
+	private final Map<Integer, ArticleVendu> articles = new HashMap<>();
+	private final Map<Integer, Utilisateur> utilisateurs = new HashMap<>();
+	private final Map<Integer, Categorie> categories = new HashMap<>();
+
+	//Charge l'article courant avec son vendeur et sa catégorie
+	ArticleVendu article(ResultSet rs) throws SQLException {
+
+		int no_article = rs.getInt("no_article");
+		ArticleVendu articleVendu = articles.get(no_article);
+		if (articleVendu == null) {
+			articleVendu = CarteIdentite.get(ArticleVendu.class, no_article);
+		}
+
+		if (articleVendu == null) {
+			articleVendu = new ArticleVendu();
+			articleVendu.setNo_article(no_article);
+			articleVendu.setNom_article(rs.getString("nom_article"));
+			articleVendu.setDescription(rs.getString("description"));
+			articleVendu.setDate_debut_encheres(rs.getDate("date_debut_encheres").toLocalDate());
+			articleVendu.setDate_fin_encheres(rs.getDate("date_fin_encheres").toLocalDate());
+			articleVendu.setPrix_initial(rs.getInt("prix_initial"));
+			articleVendu.setPrix_vente(rs.getInt("prix_vente"));
+			articleVendu.setVendeur(utilisateur(rs, PREFIXE_VENDEUR));
+			articleVendu.setCategorie(categorie(rs, PREFIXE_CATEGORIE));
+			articleVendu = CarteIdentite.mettre(ArticleVendu.class, no_article, articleVendu);
+		}
+		articles.put(no_article, articleVendu);
+
+		return articleVendu;
+	}
+
+	//Charge l'utilisateur dont les colonnes portent le préfixe indiqué
+	Utilisateur utilisateur(ResultSet rs, String prefixe) throws SQLException {
+
+		int no_utilisateur = rs.getInt(prefixe + "no_utilisateur");
+		Utilisateur utilisateur = utilisateurs.get(no_utilisateur);
+		if (utilisateur == null) {
+			utilisateur = CarteIdentite.get(Utilisateur.class, no_utilisateur);
+		}
+
+		if (utilisateur == null) {
+			utilisateur = new Utilisateur();
+			utilisateur.setNo_utilisateur(no_utilisateur);
+			utilisateur.setPseudo(rs.getString(prefixe + "pseudo"));
+			utilisateur.setNom(rs.getString(prefixe + "nom"));
+			utilisateur.setPrenom(rs.getString(prefixe + "prenom"));
+			utilisateur.setEmail(rs.getString(prefixe + "email"));
+			utilisateur.setTelephone(rs.getString(prefixe + "telephone"));
+			utilisateur.setRue(rs.getString(prefixe + "rue"));
+			utilisateur.setCode_postal(rs.getString(prefixe + "code_postal"));
+			utilisateur.setVille(rs.getString(prefixe + "ville"));
+			utilisateur.setMot_de_passe(rs.getString(prefixe + "mot_de_passe"));
+			utilisateur.setCredit(rs.getInt(prefixe + "credit"));
+			utilisateur.setAdministrateur(rs.getBoolean(prefixe + "administrateur"));
+			utilisateur = CarteIdentite.mettre(Utilisateur.class, no_utilisateur, utilisateur);
+		}
+		utilisateurs.put(no_utilisateur, utilisateur);
+
+		return utilisateur;
+	}
+
+	//Charge la catégorie dont les colonnes portent le préfixe indiqué
+	Categorie categorie(ResultSet rs, String prefixe) throws SQLException {
+
+		int no_categorie = rs.getInt(prefixe + "no_categorie");
+		Categorie categorie = categories.get(no_categorie);
+		if (categorie == null) {
+			categorie = CarteIdentite.get(Categorie.class, no_categorie);
+		}
+
+		if (categorie == null) {
+			categorie = new Categorie();
+			categorie.setNo_categorie(no_categorie);
+			categorie.setLibelle(rs.getString(prefixe + "libelle"));
+			categorie = CarteIdentite.mettre(Categorie.class, no_categorie, categorie);
+		}
+		categories.put(no_categorie, categorie);
+
+		return categorie;
+	}
+
+}
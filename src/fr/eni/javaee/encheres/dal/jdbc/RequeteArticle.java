@@ -0,0 +1,207 @@
+package fr.eni.javaee.encheres.dal.jdbc;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import fr.eni.javaee.encheres.dal.CritereArticle;
+import fr.eni.javaee.encheres.dal.CritereArticle.Etat;
+import fr.eni.javaee.encheres.dal.CritereArticle.Tri;
+
+/**
+ * Requête de liste des articles compilée à partir d'un CritereArticle.
+ * Les critères ne produisent que la forme de la requête : deux recherches qui ne diffèrent que par
+ * les valeurs partagent le même texte SQL (et donc le même plan côté base).
+ * Les formes déjà compilées sont conservées dans un cache borné, la moins récemment utilisée
+ * étant retirée en premier.
+ */
+class RequeteArticle {
+
+	private static final int TAILLE_CACHE = 64;
+	// Les listes de numéros sont complétées jusqu'à la puissance de 2 supérieure (au moins 8)
+	// pour limiter le nombre de formes différentes
+	private static final int TAILLE_LISTE_MIN = 8;
+
+	// Accès en ordre d'utilisation : removeEldestEntry retire la forme la moins récemment utilisée
+	private static final Map<String, RequeteArticle> cache = new LinkedHashMap<String, RequeteArticle>(16, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, RequeteArticle> eldest) {
+			return size() > TAILLE_CACHE;
+		}
+	};
+
+	private static final String SQL_ENCHERE_UTILISATEUR=
+			"EXISTS (SELECT 1 FROM ENCHERES e WHERE e.no_article = a.no_article AND e.no_utilisateur=?)";
+	private static final String SQL_ENCHERE_REMPORTEE=
+			"EXISTS (SELECT 1 FROM ENCHERES e WHERE e.no_article = a.no_article AND e.no_utilisateur=? AND e.montant_enchere=a.prix_vente)";
+
+	// Passe un paramètre de la requête à partir des critères
+	private interface Parametre {
+		void lier(PreparedStatement stmt, int index, CritereArticle critere, java.sql.Date today) throws SQLException;
+	}
+
+	private final String sql;
+	private final List<Parametre> parametres;
+
+	private RequeteArticle(String sql, List<Parametre> parametres) {
+		this.sql = sql;
+		this.parametres = Collections.unmodifiableList(parametres);
+	}
+
+	String getSql() {
+		return sql;
+	}
+
+	//Retourne la requête correspondant à la forme des critères, compilée au premier usage
+	static RequeteArticle compiler(CritereArticle critere) {
+
+		String forme = forme(critere);
+		RequeteArticle requete;
+		synchronized (cache) {
+			requete = cache.get(forme);
+		}
+		if (requete == null) {
+			requete = construire(critere);
+			synchronized (cache) {
+				cache.put(forme, requete);
+			}
+		}
+		return requete;
+	}
+
+	//Passe les valeurs des critères dans l'ordre des paramètres de la requête
+	void lier(PreparedStatement stmt, CritereArticle critere) throws SQLException {
+
+		java.sql.Date today = java.sql.Date.valueOf(LocalDate.now());
+		for (int i = 0; i < parametres.size(); i++) {
+			parametres.get(i).lier(stmt, i + 1, critere, today);
+		}
+	}
+
+	//Signature des critères : seuls les filtres présents, l'état, le tri et le sens de lecture comptent
+	private static String forme(CritereArticle critere) {
+
+		StringBuilder builder = new StringBuilder();
+		builder.append(critere.getEtat().ordinal());
+		builder.append(critere.getNo_vendeur() > 0 ? 'V' : '-');
+		builder.append(critere.getNo_vendeur_exclu() > 0 ? 'X' : '-');
+		builder.append(critere.getNo_encherisseur() > 0 ? (critere.isRemportees() ? 'R' : 'E') : '-');
+		builder.append(critere.getNo_categorie() > 0 ? 'C' : '-');
+		builder.append(avecNom(critere) ? 'N' : '-');
+		if (critere.getNo_articles() != null) {
+			builder.append('I').append(tailleListe(critere.getNo_articles().size()));
+		}
+		builder.append(critere.getTri().ordinal());
+		if (critere.getTaille() > 0) {
+			builder.append(critere.getCurseur() == null ? 'P' : critere.getCurseur().isPrecedent() ? '<' : '>');
+		}
+		return builder.toString();
+	}
+
+	private static boolean avecNom(CritereArticle critere) {
+		return critere.getNom_article() != null && !critere.getNom_article().isEmpty();
+	}
+
+	//Nombre de paramètres réservés pour une liste de numéros
+	static int tailleListe(int nombre) {
+		int taille = TAILLE_LISTE_MIN;
+		while (taille < nombre) {
+			taille <<= 1;
+		}
+		return taille;
+	}
+
+	private static RequeteArticle construire(CritereArticle critere) {
+
+		List<String> conditions = new ArrayList<>();
+		List<Parametre> parametres = new ArrayList<>();
+
+		if (critere.getNo_vendeur() > 0) {
+			conditions.add("a.no_utilisateur=?");
+			parametres.add((stmt, i, c, today) -> stmt.setInt(i, c.getNo_vendeur()));
+		}
+		if (critere.getNo_vendeur_exclu() > 0) {
+			conditions.add("a.no_utilisateur<>?");
+			parametres.add((stmt, i, c, today) -> stmt.setInt(i, c.getNo_vendeur_exclu()));
+		}
+		if (critere.getNo_encherisseur() > 0) {
+			// Une seule ligne par article, quel que soit le nombre d'enchères de l'utilisateur
+			conditions.add(critere.isRemportees() ? SQL_ENCHERE_REMPORTEE : SQL_ENCHERE_UTILISATEUR);
+			parametres.add((stmt, i, c, today) -> stmt.setInt(i, c.getNo_encherisseur()));
+		}
+		if (avecNom(critere)) {
+			// nom ou description, sans casse ni accents comme l'index des articles
+			conditions.add("(" + Dialecte.get().plier("a.nom_article") + " like ? OR " + Dialecte.get().plier("a.description") + " like ?)");
+			parametres.add((stmt, i, c, today) -> stmt.setString(i, "%" + CritereArticle.plier(c.getNom_article()) + "%"));
+			parametres.add((stmt, i, c, today) -> stmt.setString(i, "%" + CritereArticle.plier(c.getNom_article()) + "%"));
+		}
+		if (critere.getNo_articles() != null) {
+			// recherche par clé primaire : la liste est complétée en répétant son dernier numéro
+			int taille = tailleListe(critere.getNo_articles().size());
+			conditions.add("a.no_article IN (" + String.join(",", Collections.nCopies(taille, "?")) + ")");
+			for (int k = 0; k < taille; k++) {
+				int position = k;
+				parametres.add((stmt, i, c, today) -> {
+					List<Integer> no_articles = c.getNo_articles();
+					stmt.setInt(i, no_articles.get(Math.min(position, no_articles.size() - 1)));
+				});
+			}
+		}
+		if (critere.getNo_categorie() > 0) {
+			conditions.add("a.no_categorie=?");
+			parametres.add((stmt, i, c, today) -> stmt.setInt(i, c.getNo_categorie()));
+		}
+
+		Parametre dateDuJour = (stmt, i, c, today) -> stmt.setDate(i, today);
+		if (critere.getEtat() == Etat.EN_COURS) {
+			conditions.add("a.date_debut_encheres<=?");
+			parametres.add(dateDuJour);
+			conditions.add("a.date_fin_encheres>=?");
+			parametres.add(dateDuJour);
+		} else if (critere.getEtat() == Etat.A_VENIR) {
+			conditions.add("a.date_debut_encheres>?");
+			parametres.add(dateDuJour);
+		} else if (critere.getEtat() == Etat.TERMINEES) {
+			conditions.add("a.date_fin_encheres<?");
+			parametres.add(dateDuJour);
+		}
+
+		// Sens de lecture : la page précédente se lit à rebours du tri
+		Tri tri = critere.getTri();
+		boolean paginee = critere.getTaille() > 0;
+		boolean aRebours = tri.isDecroissant();
+		if (paginee && critere.getCurseur() != null) {
+			aRebours ^= critere.getCurseur().isPrecedent();
+			String comparaison = aRebours ? "<" : ">";
+			conditions.add("(" + tri.getColonne() + comparaison + "? OR (" + tri.getColonne() + "=? AND a.no_article" + comparaison + "?))");
+			parametres.add((stmt, i, c, today) -> stmt.setObject(i, c.getTri().valeur(c.getCurseur().getCle())));
+			parametres.add((stmt, i, c, today) -> stmt.setObject(i, c.getTri().valeur(c.getCurseur().getCle())));
+			parametres.add((stmt, i, c, today) -> stmt.setInt(i, c.getCurseur().getNo_article()));
+		}
+
+		StringBuilder builder = new StringBuilder(Hydrateur.SELECT_ARTICLE);
+		builder.append(Hydrateur.FROM_ARTICLE);
+		if (!conditions.isEmpty()) {
+			builder.append("WHERE ");
+			builder.append(String.join(" AND ", conditions));
+		}
+		String ordre = aRebours ? " DESC" : "";
+		builder.append(" ORDER BY ").append(tri.getColonne()).append(ordre).append(", a.no_article").append(ordre);
+		if (paginee) {
+			// une ligne de plus pour savoir s'il reste une page dans ce sens
+			builder.append(Dialecte.get().limite("?"));
+			parametres.add((stmt, i, c, today) -> stmt.setInt(i, c.getTaille() + 1));
+		}
+		builder.append(";");
+
+		return new RequeteArticle(builder.toString(), parametres);
+	}
+
+}
@@ -8,9 +8,9 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.logging.Logger;
 
-import fr.eni.javaee.encheres.bll.ArticleVenduManager;
 import fr.eni.javaee.encheres.bo.ArticleVendu;
 import fr.eni.javaee.encheres.bo.Retrait;
+import fr.eni.javaee.encheres.dal.CarteIdentite;
 import fr.eni.javaee.encheres.dal.RetraitDAO;
 import fr.eni.javaee.encheres.dal.CodesResultatDAL;
 import fr.eni.javaee.encheres.messages.BusinessException;
@@ -29,7 +29,11 @@ public class RetraitDAOJdbcImpl implements RetraitDAO{
 	@Override
 	public Retrait selectById(int no_article) throws BusinessException {
 		
-		Retrait retrait=null;
+		// retrait déjà lu pendant la requête
+		Retrait retrait=CarteIdentite.get(Retrait.class, no_article);
+		if (retrait != null) {
+			return retrait;
+		}
 		
 		try(Connection cn=ConnectionProvider.getConnection())
 		{
@@ -37,7 +41,7 @@ public class RetraitDAOJdbcImpl implements RetraitDAO{
 			stmt.setInt(1, no_article);
 			ResultSet rs=stmt.executeQuery();
 			if (rs.next()) {
-				retrait=retraitBuilder(rs);
+				retrait=CarteIdentite.mettre(Retrait.class, no_article, retraitBuilder(rs));
 			}
 		;
 		} catch (SQLException e) {
@@ -79,6 +83,9 @@ public class RetraitDAOJdbcImpl implements RetraitDAO{
 
 	@Override
 	public void update(Retrait obj) throws BusinessException {
+		if (obj.getArticle() != null) {
+			CarteIdentite.retirer(Retrait.class, obj.getArticle().getNo_article());
+		}
 		
 		try(Connection cn=ConnectionProvider.getConnection())
 		{
@@ -111,20 +118,14 @@ public class RetraitDAOJdbcImpl implements RetraitDAO{
 
 		try(Connection cn=ConnectionProvider.getConnection())
 		{
-			PreparedStatement stmt = cn.prepareStatement(SQL_INSERT, PreparedStatement.RETURN_GENERATED_KEYS);
+			// la clé est le numéro de l'article : pas de clé générée à relire
+			PreparedStatement stmt = cn.prepareStatement(SQL_INSERT);
 			stmt.setInt(1, obj.getArticle().getNo_article());
 			stmt.setString(2, obj.getRue());
 			stmt.setString(3, obj.getCode_postal());
 			stmt.setString(4, obj.getVille());
 			stmt.executeUpdate();
 			
-			ResultSet rs = stmt.getGeneratedKeys();
-			if(rs.next())
-			{
-				ArticleVenduManager articleManager = ArticleVenduManager.getInstance();
-				obj.setArticle(articleManager.getArticleVendu(rs.getInt(1)));
-			}
-			
 		} catch (NullPointerException e) {
 			e.printStackTrace();
 			logger.severe(e.getMessage());
@@ -143,6 +144,7 @@ public class RetraitDAOJdbcImpl implements RetraitDAO{
 
 	@Override
 	public void delete(int no_article) throws BusinessException {
+		CarteIdentite.retirer(Retrait.class, no_article);
 
 		try(Connection cn=ConnectionProvider.getConnection())
 		{
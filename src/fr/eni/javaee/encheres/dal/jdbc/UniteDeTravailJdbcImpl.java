@@ -0,0 +1,61 @@
+package fr.eni.javaee.encheres.dal.jdbc;
+
+import java.sql.SQLException;
+import java.util.logging.Logger;
+
+import fr.eni.javaee.encheres.dal.CarteIdentite;
+import fr.eni.javaee.encheres.dal.CodesResultatDAL;
+import fr.eni.javaee.encheres.dal.UniteDeTravail;
+import fr.eni.javaee.encheres.messages.BusinessException;
+import fr.eni.javaee.encheres.utils.ErrorLogger;
+
+/**
+ * Unité de travail JDBC : la transaction est portée par la connexion de la requête (ConnexionRequete),
+ * que les DAO reçoivent déjà de ConnectionProvider. Hors requête, la connexion est liée le temps de l'unité.
+ */
+public class UniteDeTravailJdbcImpl implements UniteDeTravail {
+	
+	private static Logger logger = ErrorLogger.getLogger("UniteDeTravailJdbcImpl");
+
+	@Override
+	public void commencer() throws BusinessException {
+		try {
+			ConnexionRequete.commencer(ConnectionProvider.getDataSource());
+		} catch (SQLException e) {
+			e.printStackTrace();
+			logger.severe(e.getMessage());
+			BusinessException businessException = new BusinessException();
+			businessException.ajouterErreur(CodesResultatDAL.TRANSACTION_ECHEC);
+			throw businessException;
+		}
+	}
+
+	@Override
+	public void valider() throws BusinessException {
+		boolean validee;
+		try {
+			validee = ConnexionRequete.valider();
+		} catch (SQLException e) {
+			e.printStackTrace();
+			logger.severe(e.getMessage());
+			CarteIdentite.vider();
+			BusinessException businessException = new BusinessException();
+			businessException.ajouterErreur(CodesResultatDAL.TRANSACTION_ECHEC);
+			throw businessException;
+		}
+		if (!validee) {
+			CarteIdentite.vider();
+			BusinessException businessException = new BusinessException();
+			businessException.ajouterErreur(CodesResultatDAL.TRANSACTION_ANNULEE);
+			throw businessException;
+		}
+	}
+
+	@Override
+	public void annuler() {
+		ConnexionRequete.annuler();
+		// les objets lus pendant l'unité peuvent refléter des écritures annulées
+		CarteIdentite.vider();
+	}
+
+}
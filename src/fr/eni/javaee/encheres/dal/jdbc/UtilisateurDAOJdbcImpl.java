@@ -8,6 +8,7 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.logging.Logger;
 
+import fr.eni.javaee.encheres.dal.CarteIdentite;
 import fr.eni.javaee.encheres.dal.CodesResultatDAL;
 import fr.eni.javaee.encheres.dal.UtilisateurDAO;
 import fr.eni.javaee.encheres.dal.jdbc.ConnectionProvider;
@@ -27,6 +28,9 @@ public class UtilisateurDAOJdbcImpl implements UtilisateurDAO{
 	private static final String SELECT_ALL = "SELECT no_utilisateur, pseudo, nom, prenom, email, telephone, rue, code_postal, ville, mot_de_passe, credit, administrateur FROM UTILISATEURS ORDER BY nom, prenom";
 	private static final String SELECT_BY_PSEUDO ="SELECT no_utilisateur, pseudo, nom, prenom, email, telephone, rue, code_postal, ville, mot_de_passe, credit, administrateur FROM UTILISATEURS WHERE pseudo=?";
 	private static final String SELECT_BY_EMAIL ="SELECT no_utilisateur, pseudo, nom, prenom, email, telephone, rue, code_postal, ville, mot_de_passe, credit, administrateur FROM UTILISATEURS WHERE email=?";
+	// Contrôles d'unicité : une ligne suffit, lue dans l'index de la colonne
+	private static final String EXISTE_PSEUDO = "SELECT 1 FROM UTILISATEURS WHERE pseudo=?";
+	private static final String EXISTE_EMAIL = "SELECT 1 FROM UTILISATEURS WHERE email=?";
 	
 
 	@Override
@@ -65,13 +69,14 @@ public class UtilisateurDAOJdbcImpl implements UtilisateurDAO{
 			e.printStackTrace();
 			logger.severe(e.getMessage());
 			BusinessException businessException = new BusinessException();
-			businessException.ajouterErreur(CodesResultatDAL.INSERT_UTILISATEUR_ECHEC);
+			businessException.ajouterErreur(isDoublon(e) ? CodesResultatDAL.UTILISATEUR_DOUBLON : CodesResultatDAL.INSERT_UTILISATEUR_ECHEC);
 			throw businessException;
 		}
 	}
 
 	@Override
 	public void delete(int id) throws BusinessException {
+		CarteIdentite.retirer(Utilisateur.class, id);
 		try(Connection cnx = ConnectionProvider.getConnection())
 		{
 			PreparedStatement pstmt = cnx.prepareStatement(DELETE);
@@ -95,6 +100,7 @@ public class UtilisateurDAOJdbcImpl implements UtilisateurDAO{
 			businessException.ajouterErreur(CodesResultatDAL.UPDATE_UTILISATEUR_NULL);
 			throw businessException;
 		}
+		CarteIdentite.retirer(Utilisateur.class, utilisateur.getNo_utilisateur());
 		try(Connection cnx = ConnectionProvider.getConnection())
 		{
 			PreparedStatement pstmt;
@@ -118,7 +124,7 @@ public class UtilisateurDAOJdbcImpl implements UtilisateurDAO{
 			e.printStackTrace();
 			logger.severe(e.getMessage());
 			BusinessException businessException = new BusinessException();
-			businessException.ajouterErreur(CodesResultatDAL.UPDATE_UTILISATEUR_ECHEC);
+			businessException.ajouterErreur(isDoublon(e) ? CodesResultatDAL.UTILISATEUR_DOUBLON : CodesResultatDAL.UPDATE_UTILISATEUR_ECHEC);
 			throw businessException;
 		}
 		
@@ -127,6 +133,11 @@ public class UtilisateurDAOJdbcImpl implements UtilisateurDAO{
 
 	@Override
 	public Utilisateur selectById(int id) throws BusinessException {
+		// utilisateur déjà lu pendant la requête
+		Utilisateur connu = CarteIdentite.get(Utilisateur.class, id);
+		if (connu != null) {
+			return connu;
+		}
 		Utilisateur utilisateur = new Utilisateur();
 		try(Connection cnx = ConnectionProvider.getConnection())
 		{
@@ -147,6 +158,7 @@ public class UtilisateurDAOJdbcImpl implements UtilisateurDAO{
 				utilisateur.setMot_de_passe(rs.getString("mot_de_passe"));
 				utilisateur.setCredit(rs.getInt("credit"));
 				utilisateur.setAdministrateur(rs.getBoolean("administrateur"));
+				utilisateur = CarteIdentite.mettre(Utilisateur.class, id, utilisateur);
 			}
 			
 		}
@@ -267,4 +279,38 @@ public class UtilisateurDAOJdbcImpl implements UtilisateurDAO{
 		}
 		return utilisateur;
 	}
+
+	@Override
+	public boolean existePseudo(String pseudo) throws BusinessException {
+		return existe(EXISTE_PSEUDO, pseudo);
+	}
+
+	@Override
+	public boolean existeEmail(String email) throws BusinessException {
+		return existe(EXISTE_EMAIL, email);
+	}
+
+	private boolean existe(String requete, String valeur) throws BusinessException {
+		try(Connection cnx = ConnectionProvider.getConnection())
+		{
+			PreparedStatement pstmt = cnx.prepareStatement(requete);
+			pstmt.setMaxRows(1);
+			pstmt.setString(1, valeur);
+			ResultSet rs = pstmt.executeQuery();
+			return rs.next();
+		}
+		catch(Exception e)
+		{
+			e.printStackTrace();
+			logger.severe(e.getMessage());
+			BusinessException businessException = new BusinessException();
+			businessException.ajouterErreur(CodesResultatDAL.SELECT_UTILISATEUR_ECHEC);
+			throw businessException;
+		}
+	}
+	//Pseudo ou email déjà pris : la contrainte UNIQUE de la base arbitre entre deux inscriptions concurrentes
+	private static boolean isDoublon(Exception e) {
+		return e instanceof SQLException && Dialecte.get().isDoublon((SQLException) e);
+	}
+
 }
@@ -0,0 +1,81 @@
+-- Schéma ENI-Encheres pour SQL Server (dialecte SQLSERVER)
+-- Mêmes tables, contraintes et index que schema-h2.sql : à modifier ensemble.
+-- Les comparaisons de texte suivent la collation de la base, insensible à la casse.
+
+CREATE TABLE UTILISATEURS (
+	no_utilisateur   INTEGER IDENTITY(1,1) NOT NULL,
+	pseudo           VARCHAR(30)  NOT NULL,
+	nom              VARCHAR(30)  NOT NULL,
+	prenom           VARCHAR(30)  NOT NULL,
+	email            VARCHAR(200) NOT NULL,
+	telephone        VARCHAR(15),
+	rue              VARCHAR(30)  NOT NULL,
+	code_postal      VARCHAR(10)  NOT NULL,
+	ville            VARCHAR(30)  NOT NULL,
+	mot_de_passe     VARCHAR(30)  NOT NULL,
+	credit           INTEGER      NOT NULL DEFAULT 0,
+	administrateur   BIT          NOT NULL DEFAULT 0,
+	CONSTRAINT utilisateur_pk PRIMARY KEY (no_utilisateur),
+	CONSTRAINT utilisateur_pseudo_uk UNIQUE (pseudo),
+	CONSTRAINT utilisateur_email_uk UNIQUE (email)
+);
+
+CREATE TABLE CATEGORIES (
+	no_categorie     INTEGER IDENTITY(1,1) NOT NULL,
+	libelle          VARCHAR(30)  NOT NULL,
+	CONSTRAINT categorie_pk PRIMARY KEY (no_categorie)
+);
+
+CREATE TABLE ARTICLES_VENDUS (
+	no_article           INTEGER IDENTITY(1,1) NOT NULL,
+	nom_article          VARCHAR(30)  NOT NULL,
+	description          VARCHAR(300),
+	date_debut_encheres  DATE         NOT NULL,
+	date_fin_encheres    DATE         NOT NULL,
+	prix_initial         INTEGER      NOT NULL DEFAULT 0,
+	prix_vente           INTEGER      NOT NULL DEFAULT 0,
+	no_utilisateur       INTEGER      NOT NULL,
+	no_categorie         INTEGER      NOT NULL,
+	CONSTRAINT articles_vendus_pk PRIMARY KEY (no_article),
+	CONSTRAINT articles_vendus_utilisateur_fk FOREIGN KEY (no_utilisateur) REFERENCES UTILISATEURS (no_utilisateur),
+	CONSTRAINT articles_vendus_categorie_fk FOREIGN KEY (no_categorie) REFERENCES CATEGORIES (no_categorie)
+);
+
+-- Une ligne par enchère : un utilisateur peut enchérir plusieurs fois sur le même article
+CREATE TABLE ENCHERES (
+	no_enchere       INTEGER IDENTITY(1,1) NOT NULL,
+	no_utilisateur   INTEGER      NOT NULL,
+	no_article       INTEGER      NOT NULL,
+	date_enchere     DATE         NOT NULL,
+	montant_enchere  INTEGER      NOT NULL,
+	-- maximum de l'enchère automatique, NULL sans enchère automatique
+	montant_maximum  INTEGER      NULL,
+	CONSTRAINT enchere_pk PRIMARY KEY (no_enchere),
+	CONSTRAINT encheres_utilisateur_fk FOREIGN KEY (no_utilisateur) REFERENCES UTILISATEURS (no_utilisateur),
+	CONSTRAINT encheres_article_fk FOREIGN KEY (no_article) REFERENCES ARTICLES_VENDUS (no_article) ON DELETE CASCADE
+);
+
+CREATE TABLE RETRAITS (
+	no_article       INTEGER      NOT NULL,
+	rue              VARCHAR(30)  NOT NULL,
+	code_postal      VARCHAR(15)  NOT NULL,
+	ville            VARCHAR(30)  NOT NULL,
+	retire           BIT          NOT NULL DEFAULT 0,
+	CONSTRAINT retrait_pk PRIMARY KEY (no_article),
+	CONSTRAINT retraits_article_fk FOREIGN KEY (no_article) REFERENCES ARTICLES_VENDUS (no_article) ON DELETE CASCADE
+);
+
+-- Index des critères de recherche des articles (RequeteArticle) et des enchères
+CREATE INDEX articles_vendus_utilisateur_idx ON ARTICLES_VENDUS (no_utilisateur);
+CREATE INDEX articles_vendus_categorie_idx ON ARTICLES_VENDUS (no_categorie);
+CREATE INDEX articles_vendus_debut_idx ON ARTICLES_VENDUS (date_debut_encheres);
+CREATE INDEX articles_vendus_fin_idx ON ARTICLES_VENDUS (date_fin_encheres, no_article);
+CREATE INDEX articles_vendus_nom_idx ON ARTICLES_VENDUS (nom_article, no_article);
+CREATE INDEX articles_vendus_prix_idx ON ARTICLES_VENDUS (prix_vente, no_article);
+CREATE INDEX encheres_article_idx ON ENCHERES (no_article, montant_enchere);
+CREATE INDEX encheres_utilisateur_idx ON ENCHERES (no_utilisateur, no_article);
+
+INSERT INTO CATEGORIES (libelle) VALUES ('Informatique');
+INSERT INTO CATEGORIES (libelle) VALUES ('Ameublement');
+INSERT INTO CATEGORIES (libelle) VALUES ('Vêtement');
+INSERT INTO CATEGORIES (libelle) VALUES ('Sport & Loisirs');
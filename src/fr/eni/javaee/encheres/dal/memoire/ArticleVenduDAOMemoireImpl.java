@@ -0,0 +1,448 @@
+package fr.eni.javaee.encheres.dal.memoire;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+import fr.eni.javaee.encheres.bo.ArticleVendu;
+import fr.eni.javaee.encheres.bo.Curseur;
+import fr.eni.javaee.encheres.bo.Page;
+import fr.eni.javaee.encheres.dal.ArticleVenduDAO;
+import fr.eni.javaee.encheres.dal.CarteIdentite;
+import fr.eni.javaee.encheres.dal.CodesResultatDAL;
+import fr.eni.javaee.encheres.dal.CritereArticle;
+import fr.eni.javaee.encheres.dal.CritereArticle.Etat;
+import fr.eni.javaee.encheres.dal.CritereArticle.Tri;
+import fr.eni.javaee.encheres.dal.Pagination;
+import fr.eni.javaee.encheres.dal.memoire.BaseMemoire.LigneEnchere;
+import fr.eni.javaee.encheres.messages.BusinessException;
+
+/**
+ * Articles du tier mémoire.
+ * Une recherche part du plus petit ensemble de candidats fourni par les index (numéros demandés, vendeur,
+ * enchérisseur, catégorie ou période de la vente), puis vérifie tous les critères sur chaque candidat.
+ * Tri, curseur et taille de page suivent la requête SQL du tier JDBC.
+ */
+public class ArticleVenduDAOMemoireImpl implements ArticleVenduDAO{
+
+	private final BaseMemoire base = BaseMemoire.getInstance();
+
+	@Override
+	public ArticleVendu selectById(int no_article) throws BusinessException {
+
+		// article déjà lu pendant la requête
+		ArticleVendu articleVendu=CarteIdentite.get(ArticleVendu.class, no_article);
+		if (articleVendu != null) {
+			return articleVendu;
+		}
+		return base.lire(() -> {
+			ArticleVendu ligne = base.articles.get(no_article);
+			return ligne == null ? null : base.article(ligne);
+		});
+	}
+
+	@Override
+	public Page<ArticleVendu> selectByCritere(CritereArticle critere) throws BusinessException {
+		List<ArticleVendu> articles = select(critere);
+		return Pagination.page(articles, critere);
+	}
+
+	//Articles répondant aux critères, dans le sens de lecture, limités à taille+1 si la liste est paginée
+	private List<ArticleVendu> select(CritereArticle critere) throws BusinessException {
+
+		LocalDate today = LocalDate.now();
+		Set<Integer> numeros = critere.getNo_articles() == null ? null : new HashSet<>(critere.getNo_articles());
+
+		// Sens de lecture : la page précédente se lit à rebours du tri
+		Tri tri = critere.getTri();
+		boolean paginee = critere.getTaille() > 0;
+		Curseur curseur = paginee ? critere.getCurseur() : null;
+		boolean aRebours = tri.isDecroissant() ^ (curseur != null && curseur.isPrecedent());
+		Comparator<ArticleVendu> ordre = aRebours ? ordre(tri).reversed() : ordre(tri);
+
+		return base.lire(() -> {
+			List<ArticleVendu> lignes = new ArrayList<>();
+			for (Integer no_article : candidats(critere, numeros, today)) {
+				ArticleVendu ligne = base.articles.get(no_article);
+				if (ligne != null && retenir(ligne, critere, numeros, today)
+						&& (curseur == null || apres(tri, ligne, curseur, aRebours))) {
+					lignes.add(ligne);
+				}
+			}
+			if (paginee) {
+				// une ligne de plus pour savoir s'il reste une page dans ce sens
+				lignes = premieres(lignes, ordre, critere.getTaille() + 1);
+			} else {
+				lignes.sort(ordre);
+			}
+
+			List<ArticleVendu> liste = new ArrayList<>();
+			for (ArticleVendu ligne : lignes) {
+				liste.add(base.article(ligne));
+			}
+			return liste;
+		});
+	}
+
+	// Plus petit ensemble de numéros contenant tous les articles recherchés
+	private Collection<Integer> candidats(CritereArticle critere, Set<Integer> numeros, LocalDate today) {
+
+		Collection<Integer> candidats = base.articles.keySet();
+		if (numeros != null && numeros.size() < candidats.size()) {
+			candidats = numeros;
+		}
+		candidats = plusPetit(candidats, base.articlesParVendeur, critere.getNo_vendeur());
+		candidats = plusPetit(candidats, base.articlesParEncherisseur, critere.getNo_encherisseur());
+		candidats = plusPetit(candidats, base.articlesParCategorie, critere.getNo_categorie());
+
+		NavigableMap<LocalDate, Set<Integer>> periode = periode(critere.getEtat(), today);
+		if (periode != null && compter(periode) < candidats.size()) {
+			List<Integer> parPeriode = new ArrayList<>();
+			for (Set<Integer> parDate : periode.values()) {
+				parPeriode.addAll(parDate);
+			}
+			candidats = parPeriode;
+		}
+		return candidats;
+	}
+
+	private static Collection<Integer> plusPetit(Collection<Integer> candidats, Map<Integer, Set<Integer>> index, int cle) {
+		if (cle <= 0) {
+			return candidats;
+		}
+		Set<Integer> numeros = index.getOrDefault(cle, Collections.emptySet());
+		return numeros.size() < candidats.size() ? numeros : candidats;
+	}
+
+	// Tranche de l'index des dates qui contient les articles de l'état, null pour tous les états
+	private NavigableMap<LocalDate, Set<Integer>> periode(Etat etat, LocalDate today) {
+		switch (etat) {
+			case EN_COURS :
+				// ventes commencées ou ventes pas encore finies : la plus petite des deux tranches
+				NavigableMap<LocalDate, Set<Integer>> commencees = base.articlesParDebut.headMap(today, true);
+				NavigableMap<LocalDate, Set<Integer>> nonFinies = base.articlesParFin.tailMap(today, true);
+				return compter(commencees) < compter(nonFinies) ? commencees : nonFinies;
+			case A_VENIR :
+				return base.articlesParDebut.tailMap(today, false);
+			case TERMINEES :
+				return base.articlesParFin.headMap(today, false);
+			default :
+				return null;
+		}
+	}
+
+	private static int compter(NavigableMap<LocalDate, Set<Integer>> periode) {
+		int nombre = 0;
+		for (Set<Integer> parDate : periode.values()) {
+			nombre += parDate.size();
+		}
+		return nombre;
+	}
+
+	// Vérifie tous les critères : un index choisi comme point de départ ne couvre que le sien
+	private boolean retenir(ArticleVendu ligne, CritereArticle critere, Set<Integer> numeros, LocalDate today) {
+
+		int no_vendeur = ligne.getVendeur().getNo_utilisateur();
+		if (critere.getNo_vendeur() > 0 && no_vendeur != critere.getNo_vendeur()) {
+			return false;
+		}
+		if (critere.getNo_vendeur_exclu() > 0 && no_vendeur == critere.getNo_vendeur_exclu()) {
+			return false;
+		}
+		if (critere.getNo_encherisseur() > 0 && !aEnchere(ligne, critere.getNo_encherisseur(), critere.isRemportees())) {
+			return false;
+		}
+		if (critere.getNo_categorie() > 0 && ligne.getCategorie().getNo_categorie() != critere.getNo_categorie()) {
+			return false;
+		}
+		if (critere.getNom_article() != null && !critere.getNom_article().isEmpty()) {
+			// nom ou description, sans casse ni accents comme l'index des articles
+			String fragment = CritereArticle.plier(critere.getNom_article());
+			if (!CritereArticle.plier(ligne.getNom_article()).contains(fragment)
+					&& !CritereArticle.plier(ligne.getDescription()).contains(fragment)) {
+				return false;
+			}
+		}
+		if (numeros != null && !numeros.contains(ligne.getNo_article())) {
+			return false;
+		}
+		switch (critere.getEtat()) {
+			case EN_COURS :
+				return !ligne.getDate_debut_encheres().isAfter(today) && !ligne.getDate_fin_encheres().isBefore(today);
+			case A_VENIR :
+				return ligne.getDate_debut_encheres().isAfter(today);
+			case TERMINEES :
+				return ligne.getDate_fin_encheres().isBefore(today);
+			default :
+				return true;
+		}
+	}
+
+	// Enchère de l'utilisateur sur l'article, remportée si son montant est le prix de vente
+	private boolean aEnchere(ArticleVendu ligne, int no_encherisseur, boolean remportees) {
+		for (LigneEnchere enchere : base.encheresParArticle.getOrDefault(ligne.getNo_article(), Collections.emptyList())) {
+			if (enchere.no_utilisateur == no_encherisseur && (!remportees || enchere.montant_enchere == ligne.getPrix_vente())) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	// Ordre croissant du tri, départagé par no_article ; les noms sont comparés sans casse comme en base
+	private static Comparator<ArticleVendu> ordre(Tri tri) {
+		Comparator<ArticleVendu> ordre;
+		switch (tri) {
+			case FIN_ENCHERES :
+				ordre = Comparator.comparing(ArticleVendu::getDate_fin_encheres);
+				break;
+			case PRIX_CROISSANT :
+			case PRIX_DECROISSANT :
+				ordre = Comparator.comparingInt(ArticleVendu::getPrix_vente);
+				break;
+			default :
+				ordre = Comparator.comparing(ArticleVendu::getNom_article, Comparator.nullsFirst(String.CASE_INSENSITIVE_ORDER));
+		}
+		return ordre.thenComparingInt(ArticleVendu::getNo_article);
+	}
+
+	// Article situé strictement après le curseur dans le sens de lecture ; la clé du curseur a été
+	// contrôlée par CritereArticle.getCurseur
+	private static boolean apres(Tri tri, ArticleVendu ligne, Curseur curseur, boolean aRebours) {
+		int comparaison;
+		switch (tri) {
+			case FIN_ENCHERES :
+				comparaison = ligne.getDate_fin_encheres().compareTo(LocalDate.parse(curseur.getCle()));
+				break;
+			case PRIX_CROISSANT :
+			case PRIX_DECROISSANT :
+				comparaison = Integer.compare(ligne.getPrix_vente(), Integer.parseInt(curseur.getCle()));
+				break;
+			default :
+				comparaison = ligne.getNom_article() == null ? -1 : String.CASE_INSENSITIVE_ORDER.compare(ligne.getNom_article(), curseur.getCle());
+		}
+		if (comparaison == 0) {
+			comparaison = Integer.compare(ligne.getNo_article(), curseur.getNo_article());
+		}
+		return aRebours ? comparaison < 0 : comparaison > 0;
+	}
+
+	// Les nombre premières lignes dans l'ordre, sans trier toute la liste
+	private static List<ArticleVendu> premieres(List<ArticleVendu> lignes, Comparator<ArticleVendu> ordre, int nombre) {
+		if (lignes.size() <= nombre) {
+			lignes.sort(ordre);
+			return lignes;
+		}
+		// tas des nombre meilleures lignes, la moins bonne en tête
+		PriorityQueue<ArticleVendu> tas = new PriorityQueue<>(nombre + 1, ordre.reversed());
+		for (ArticleVendu ligne : lignes) {
+			tas.add(ligne);
+			if (tas.size() > nombre) {
+				tas.poll();
+			}
+		}
+		List<ArticleVendu> premieres = new ArrayList<>(tas);
+		premieres.sort(ordre);
+		return premieres;
+	}
+
+	//Critères communs aux listes : état de la vente, catégorie et nom saisis
+	private CritereArticle critere(Etat etat, int no_categorie, String nom_article) {
+		CritereArticle critere = new CritereArticle();
+		critere.setEtat(etat);
+		critere.setNo_categorie(no_categorie);
+		critere.setNom_article(nom_article);
+		return critere;
+	}
+
+	private CritereArticle critere(Etat etat, int no_categorie, String nom_article, Curseur curseur, int taille) {
+		CritereArticle critere = critere(etat, no_categorie, nom_article);
+		critere.setCurseur(curseur);
+		critere.setTaille(taille);
+		return critere;
+	}
+
+	@Override
+	public void insert(ArticleVendu obj) throws BusinessException {
+		ArticleVendu ligne = ligne(obj, CodesResultatDAL.INSERT_ARTICLE_NULL);
+		base.ecrire(() -> {
+			// vendeur et catégorie doivent exister, comme avec les clés étrangères
+			if (!base.utilisateurs.containsKey(ligne.getVendeur().getNo_utilisateur())
+					|| !base.categories.containsKey(ligne.getCategorie().getNo_categorie())) {
+				throw BaseMemoire.erreur(CodesResultatDAL.INSERT_ARTICLE_ECHEC);
+			}
+			obj.setNo_article(base.prochainArticle());
+			ligne.setNo_article(obj.getNo_article());
+			base.changerArticle(ligne.getNo_article(), ligne);
+		});
+	}
+
+	@Override
+	public void update(ArticleVendu obj) throws BusinessException {
+		CarteIdentite.retirer(ArticleVendu.class, obj.getNo_article());
+		ArticleVendu ligne = ligne(obj, CodesResultatDAL.UPDATE_ARTICLE_NULL);
+		base.ecrire(() -> {
+			if (!base.articles.containsKey(ligne.getNo_article())) {
+				// aucune ligne modifiée
+				return;
+			}
+			if (!base.utilisateurs.containsKey(ligne.getVendeur().getNo_utilisateur())
+					|| !base.categories.containsKey(ligne.getCategorie().getNo_categorie())) {
+				throw BaseMemoire.erreur(CodesResultatDAL.UPDATE_ARTICLE_ECHEC);
+			}
+			base.changerArticle(ligne.getNo_article(), ligne);
+		});
+	}
+
+	@Override
+	public void delete(int no_article) throws BusinessException {
+		CarteIdentite.retirer(ArticleVendu.class, no_article);
+		base.ecrire(() -> {
+			if (base.articles.containsKey(no_article)) {
+				// les enchères et le retrait de l'article sont supprimés avec lui
+				base.retirerEncheres(no_article);
+				if (base.retraits.containsKey(no_article)) {
+					base.changerRetrait(no_article, null);
+				}
+				base.changerArticle(no_article, null);
+			}
+		});
+	}
+
+	// Ligne à enregistrer, contrôlée avant de prendre le verrou
+	private static ArticleVendu ligne(ArticleVendu obj, int codeNull) throws BusinessException {
+		if (obj == null || obj.getVendeur() == null || obj.getCategorie() == null
+				|| obj.getDate_debut_encheres() == null || obj.getDate_fin_encheres() == null) {
+			throw BaseMemoire.erreur(codeNull);
+		}
+		return BaseMemoire.copie(obj);
+	}
+
+	@Override
+	public List<ArticleVendu> selectAll() throws BusinessException {
+		// Liste de tous les articles
+		return select(critere(Etat.TOUS, -1, null));
+	}
+
+	@Override
+	public List<ArticleVendu> selectAllEnCours(int no_categorie, String nom_article) throws BusinessException {
+		//Toutes les encheres en cours
+		return select(critere(Etat.EN_COURS, no_categorie, nom_article));
+	}
+
+	@Override
+	public List<ArticleVendu> selectEncheresEnCours(int no_utilisateur, int no_categorie, String nom_article) throws BusinessException {
+		//Encheres en-cours sauf celles du user connecté
+		CritereArticle critere = critere(Etat.EN_COURS, no_categorie, nom_article);
+		critere.setNo_vendeur_exclu(no_utilisateur);
+		return select(critere);
+	}
+
+	@Override
+	public List<ArticleVendu> selectEncheresEnCoursUtilisateur(int no_utilisateur, int no_categorie, String nom_article) throws BusinessException {
+		//Encheres en cours pour le user connecte
+		CritereArticle critere = critere(Etat.EN_COURS, no_categorie, nom_article);
+		critere.setNo_encherisseur(no_utilisateur);
+		return select(critere);
+	}
+
+	@Override
+	public List<ArticleVendu> selectEncheresRemporteesUtilisateur(int no_utilisateur, int no_categorie, String nom_article)
+			throws BusinessException {
+		//Encheres remportées pour le user connecte
+		CritereArticle critere = critere(Etat.TERMINEES, no_categorie, nom_article);
+		critere.setNo_encherisseur(no_utilisateur);
+		critere.setRemportees(true);
+		return select(critere);
+	}
+
+	@Override
+	public List<ArticleVendu> selectVentesEnCoursUtilisateur(int no_utilisateur, int no_categorie, String nom_article)
+			throws BusinessException {
+		//Ventes en cours du user
+		CritereArticle critere = critere(Etat.EN_COURS, no_categorie, nom_article);
+		critere.setNo_vendeur(no_utilisateur);
+		return select(critere);
+	}
+
+	@Override
+	public List<ArticleVendu> selectVentesAVenirUtilisateur(int no_utilisateur, int no_categorie, String nom_article)
+			throws BusinessException {
+		//Ventes à venir du user
+		CritereArticle critere = critere(Etat.A_VENIR, no_categorie, nom_article);
+		critere.setNo_vendeur(no_utilisateur);
+		return select(critere);
+	}
+
+	@Override
+	public List<ArticleVendu> selectVentesTermineesUtilisateur(int no_utilisateur, int no_categorie, String nom_article)
+			throws BusinessException {
+		//Ventes terminées du user
+		CritereArticle critere = critere(Etat.TERMINEES, no_categorie, nom_article);
+		critere.setNo_vendeur(no_utilisateur);
+		return select(critere);
+	}
+
+	@Override
+	public Page<ArticleVendu> selectAllEnCours(int no_categorie, String nom_article, Curseur curseur, int taille) throws BusinessException {
+		//Toutes les encheres en cours (paginées)
+		return selectByCritere(critere(Etat.EN_COURS, no_categorie, nom_article, curseur, taille));
+	}
+
+	@Override
+	public Page<ArticleVendu> selectEncheresEnCours(int no_utilisateur, int no_categorie, String nom_article, Curseur curseur, int taille) throws BusinessException {
+		//Encheres en-cours sauf celles du user connecté (paginées)
+		CritereArticle critere = critere(Etat.EN_COURS, no_categorie, nom_article, curseur, taille);
+		critere.setNo_vendeur_exclu(no_utilisateur);
+		return selectByCritere(critere);
+	}
+
+	@Override
+	public Page<ArticleVendu> selectEncheresEnCoursUtilisateur(int no_utilisateur, int no_categorie, String nom_article, Curseur curseur, int taille) throws BusinessException {
+		//Encheres en cours pour le user connecte (paginées)
+		CritereArticle critere = critere(Etat.EN_COURS, no_categorie, nom_article, curseur, taille);
+		critere.setNo_encherisseur(no_utilisateur);
+		return selectByCritere(critere);
+	}
+
+	@Override
+	public Page<ArticleVendu> selectEncheresRemporteesUtilisateur(int no_utilisateur, int no_categorie, String nom_article, Curseur curseur, int taille) throws BusinessException {
+		//Encheres remportées pour le user connecte (paginées)
+		CritereArticle critere = critere(Etat.TERMINEES, no_categorie, nom_article, curseur, taille);
+		critere.setNo_encherisseur(no_utilisateur);
+		critere.setRemportees(true);
+		return selectByCritere(critere);
+	}
+
+	@Override
+	public Page<ArticleVendu> selectVentesEnCoursUtilisateur(int no_utilisateur, int no_categorie, String nom_article, Curseur curseur, int taille) throws BusinessException {
+		//Ventes en cours du user (paginées)
+		CritereArticle critere = critere(Etat.EN_COURS, no_categorie, nom_article, curseur, taille);
+		critere.setNo_vendeur(no_utilisateur);
+		return selectByCritere(critere);
+	}
+
+	@Override
+	public Page<ArticleVendu> selectVentesAVenirUtilisateur(int no_utilisateur, int no_categorie, String nom_article, Curseur curseur, int taille) throws BusinessException {
+		//Ventes à venir du user (paginées)
+		CritereArticle critere = critere(Etat.A_VENIR, no_categorie, nom_article, curseur, taille);
+		critere.setNo_vendeur(no_utilisateur);
+		return selectByCritere(critere);
+	}
+
+	@Override
+	public Page<ArticleVendu> selectVentesTermineesUtilisateur(int no_utilisateur, int no_categorie, String nom_article, Curseur curseur, int taille) throws BusinessException {
+		//Ventes terminées du user (paginées)
+		CritereArticle critere = critere(Etat.TERMINEES, no_categorie, nom_article, curseur, taille);
+		critere.setNo_vendeur(no_utilisateur);
+		return selectByCritere(critere);
+	}
+
+}
@@ -0,0 +1,382 @@
+package fr.eni.javaee.encheres.dal.memoire;
+
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import fr.eni.javaee.encheres.bo.ArticleVendu;
+import fr.eni.javaee.encheres.bo.Categorie;
+import fr.eni.javaee.encheres.bo.Enchere;
+import fr.eni.javaee.encheres.bo.Retrait;
+import fr.eni.javaee.encheres.bo.Utilisateur;
+import fr.eni.javaee.encheres.dal.CarteIdentite;
+import fr.eni.javaee.encheres.messages.BusinessException;
+
+/**
+ * Base en mémoire partagée par les DAO du tier mémoire (-Dencheres.dal=memoire).
+ * Les tables sont des HashMap protégées par un seul verrou lecture/écriture : les lectures sont
+ * concurrentes, les écritures exclusives. Les articles sont indexés par vendeur, par catégorie,
+ * par enchérisseur et par dates de début et de fin, comme le seraient les colonnes en base.
+ * Les objets stockés ne sortent jamais de la base : les lectures renvoient des copies, enregistrées
+ * dans la CarteIdentite comme le fait le tier JDBC.
+ * Une unité de travail garde le verrou d'écriture jusqu'à sa fin et journalise l'inverse de chaque
+ * écriture, rejoué à rebours si elle est annulée.
+ */
+class BaseMemoire {
+
+	// Lecture faite sous le verrou de lecture
+	interface Lecture<T> {
+		T lire() throws BusinessException;
+	}
+
+	// Ecriture faite sous le verrou d'écriture
+	interface Ecriture {
+		void ecrire() throws BusinessException;
+	}
+
+	private static final BaseMemoire instance = new BaseMemoire();
+
+	private final ReentrantReadWriteLock verrou = new ReentrantReadWriteLock();
+	// Inverses des écritures de l'unité de travail en cours sur le thread, null hors unité
+	private final ThreadLocal<Deque<Runnable>> journal = new ThreadLocal<>();
+
+	/******** TABLES ********/
+	final Map<Integer, Utilisateur> utilisateurs = new HashMap<>();
+	final Map<String, Integer> utilisateursParPseudo = new HashMap<>();
+	final Map<String, Integer> utilisateursParEmail = new HashMap<>();
+	final Map<Integer, Categorie> categories = new HashMap<>();
+	// Lignes d'articles : vendeur et catégorie réduits à leur numéro
+	final Map<Integer, ArticleVendu> articles = new HashMap<>();
+	// Lignes de retraits : article réduit à son numéro
+	final Map<Integer, Retrait> retraits = new HashMap<>();
+	// Enchères de chaque article, dans l'ordre d'enregistrement
+	final Map<Integer, List<LigneEnchere>> encheresParArticle = new HashMap<>();
+
+	/******** INDEX DES ARTICLES ********/
+	final Map<Integer, Set<Integer>> articlesParVendeur = new HashMap<>();
+	final Map<Integer, Set<Integer>> articlesParCategorie = new HashMap<>();
+	final Map<Integer, Set<Integer>> articlesParEncherisseur = new HashMap<>();
+	final NavigableMap<LocalDate, Set<Integer>> articlesParDebut = new TreeMap<>();
+	final NavigableMap<LocalDate, Set<Integer>> articlesParFin = new TreeMap<>();
+
+	// Numéros générés, jamais réutilisés même après une annulation (comme une colonne IDENTITY)
+	private int sequenceUtilisateur;
+	private int sequenceCategorie;
+	private int sequenceArticle;
+
+	// Enchère stockée : numéros de l'enchérisseur et de l'article, maximum à 0 sans enchère automatique
+	static final class LigneEnchere {
+		final int no_utilisateur;
+		final int no_article;
+		final LocalDate date_enchere;
+		final int montant_enchere;
+		final int montant_maximum;
+
+		LigneEnchere(int no_utilisateur, int no_article, LocalDate date_enchere, int montant_enchere, int montant_maximum) {
+			this.no_utilisateur = no_utilisateur;
+			this.no_article = no_article;
+			this.date_enchere = date_enchere;
+			this.montant_enchere = montant_enchere;
+			this.montant_maximum = montant_maximum;
+		}
+	}
+
+	private BaseMemoire() {
+		// catégories de départ, la base mémoire n'ayant pas de script d'initialisation
+		for (String libelle : new String[] {"Informatique", "Ameublement", "Vêtement", "Sport & Loisirs"}) {
+			Categorie categorie = new Categorie(libelle);
+			categorie.setNo_categorie(++sequenceCategorie);
+			categories.put(categorie.getNo_categorie(), categorie);
+		}
+	}
+
+	static BaseMemoire getInstance() {
+		return instance;
+	}
+
+	/******** VERROU ET UNITE DE TRAVAIL ********/
+
+	<T> T lire(Lecture<T> lecture) throws BusinessException {
+		verrou.readLock().lock();
+		try {
+			return lecture.lire();
+		} finally {
+			verrou.readLock().unlock();
+		}
+	}
+
+	void ecrire(Ecriture ecriture) throws BusinessException {
+		verrou.writeLock().lock();
+		try {
+			ecriture.ecrire();
+		} finally {
+			verrou.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Commence l'unité de travail du thread : le verrou d'écriture est gardé jusqu'à sa fin
+	 * @return boolean false si une unité est déjà en cours sur le thread
+	 */
+	boolean commencer() {
+		if (journal.get() != null) {
+			return false;
+		}
+		verrou.writeLock().lock();
+		journal.set(new ArrayDeque<>());
+		return true;
+	}
+
+	void valider() {
+		if (journal.get() != null) {
+			journal.remove();
+			verrou.writeLock().unlock();
+		}
+	}
+
+	//Rejoue à rebours les inverses des écritures de l'unité, puis libère le verrou
+	void annuler() {
+		Deque<Runnable> inverses = journal.get();
+		if (inverses == null) {
+			return;
+		}
+		// hors journal : les inverses ne sont pas eux-mêmes journalisés
+		journal.remove();
+		try {
+			while (!inverses.isEmpty()) {
+				inverses.pop().run();
+			}
+		} finally {
+			verrou.writeLock().unlock();
+		}
+	}
+
+	private void annulable(Runnable inverse) {
+		Deque<Runnable> inverses = journal.get();
+		if (inverses != null) {
+			inverses.push(inverse);
+		}
+	}
+
+	/******** ECRITURES (sous le verrou d'écriture) ********/
+
+	int prochainUtilisateur() {
+		return ++sequenceUtilisateur;
+	}
+
+	int prochaineCategorie() {
+		return ++sequenceCategorie;
+	}
+
+	int prochainArticle() {
+		return ++sequenceArticle;
+	}
+
+	//Remplace la ligne de l'utilisateur, la supprime si nouveau est null
+	void changerUtilisateur(int no_utilisateur, Utilisateur nouveau) {
+		Utilisateur ancien = nouveau == null ? utilisateurs.remove(no_utilisateur) : utilisateurs.put(no_utilisateur, nouveau);
+		if (ancien != null) {
+			utilisateursParPseudo.remove(cle(ancien.getPseudo()));
+			utilisateursParEmail.remove(cle(ancien.getEmail()));
+		}
+		if (nouveau != null) {
+			utilisateursParPseudo.put(cle(nouveau.getPseudo()), no_utilisateur);
+			utilisateursParEmail.put(cle(nouveau.getEmail()), no_utilisateur);
+		}
+		annulable(() -> changerUtilisateur(no_utilisateur, ancien));
+	}
+
+	void changerCategorie(int no_categorie, Categorie nouvelle) {
+		Categorie ancienne = nouvelle == null ? categories.remove(no_categorie) : categories.put(no_categorie, nouvelle);
+		annulable(() -> changerCategorie(no_categorie, ancienne));
+	}
+
+	//Remplace la ligne de l'article et ses entrées d'index, la supprime si nouvelle est null
+	void changerArticle(int no_article, ArticleVendu nouvelle) {
+		ArticleVendu ancienne = nouvelle == null ? articles.remove(no_article) : articles.put(no_article, nouvelle);
+		if (ancienne != null) {
+			desindexer(articlesParVendeur, ancienne.getVendeur().getNo_utilisateur(), no_article);
+			desindexer(articlesParCategorie, ancienne.getCategorie().getNo_categorie(), no_article);
+			desindexer(articlesParDebut, ancienne.getDate_debut_encheres(), no_article);
+			desindexer(articlesParFin, ancienne.getDate_fin_encheres(), no_article);
+		}
+		if (nouvelle != null) {
+			indexer(articlesParVendeur, nouvelle.getVendeur().getNo_utilisateur(), no_article);
+			indexer(articlesParCategorie, nouvelle.getCategorie().getNo_categorie(), no_article);
+			indexer(articlesParDebut, nouvelle.getDate_debut_encheres(), no_article);
+			indexer(articlesParFin, nouvelle.getDate_fin_encheres(), no_article);
+		}
+		annulable(() -> changerArticle(no_article, ancienne));
+	}
+
+	void changerRetrait(int no_article, Retrait nouveau) {
+		Retrait ancien = nouveau == null ? retraits.remove(no_article) : retraits.put(no_article, nouveau);
+		annulable(() -> changerRetrait(no_article, ancien));
+	}
+
+	void ajouterEnchere(LigneEnchere ligne) {
+		List<LigneEnchere> encheres = encheresParArticle.computeIfAbsent(ligne.no_article, n -> new ArrayList<>());
+		encheres.add(ligne);
+		indexer(articlesParEncherisseur, ligne.no_utilisateur, ligne.no_article);
+		annulable(() -> {
+			encheres.remove(encheres.size() - 1);
+			if (encheres.isEmpty()) {
+				encheresParArticle.remove(ligne.no_article);
+			}
+			if (encheres.stream().noneMatch(e -> e.no_utilisateur == ligne.no_utilisateur)) {
+				desindexer(articlesParEncherisseur, ligne.no_utilisateur, ligne.no_article);
+			}
+		});
+	}
+
+	//Supprime les enchères de l'article (suppression de l'article)
+	void retirerEncheres(int no_article) {
+		List<LigneEnchere> encheres = encheresParArticle.remove(no_article);
+		if (encheres == null) {
+			return;
+		}
+		for (LigneEnchere ligne : encheres) {
+			desindexer(articlesParEncherisseur, ligne.no_utilisateur, no_article);
+		}
+		annulable(() -> {
+			encheresParArticle.put(no_article, encheres);
+			for (LigneEnchere ligne : encheres) {
+				indexer(articlesParEncherisseur, ligne.no_utilisateur, no_article);
+			}
+		});
+	}
+
+	private static <K> void indexer(Map<K, Set<Integer>> index, K cle, int numero) {
+		index.computeIfAbsent(cle, c -> new HashSet<>()).add(numero);
+	}
+
+	private static <K> void desindexer(Map<K, Set<Integer>> index, K cle, int numero) {
+		Set<Integer> numeros = index.get(cle);
+		if (numeros != null) {
+			numeros.remove(numero);
+			if (numeros.isEmpty()) {
+				index.remove(cle);
+			}
+		}
+	}
+
+	/******** LECTURES (sous le verrou de lecture) ********/
+
+	//Clé des index des pseudos et des emails : comparaison sans casse, comme la collation de la base
+	static String cle(String identifiant) {
+		return identifiant == null ? "" : identifiant.toLowerCase(Locale.ROOT);
+	}
+
+	//Utilisateur lu, partagé pendant la requête ; réduit à son numéro s'il n'existe plus
+	Utilisateur utilisateur(int no_utilisateur) {
+		Utilisateur utilisateur = CarteIdentite.get(Utilisateur.class, no_utilisateur);
+		if (utilisateur == null) {
+			Utilisateur ligne = utilisateurs.get(no_utilisateur);
+			if (ligne == null) {
+				utilisateur = new Utilisateur();
+				utilisateur.setNo_utilisateur(no_utilisateur);
+			} else {
+				utilisateur = CarteIdentite.mettre(Utilisateur.class, no_utilisateur, copie(ligne));
+			}
+		}
+		return utilisateur;
+	}
+
+	Categorie categorie(int no_categorie) {
+		Categorie categorie = CarteIdentite.get(Categorie.class, no_categorie);
+		if (categorie == null) {
+			Categorie ligne = categories.get(no_categorie);
+			if (ligne == null) {
+				categorie = new Categorie();
+				categorie.setNo_categorie(no_categorie);
+			} else {
+				categorie = CarteIdentite.mettre(Categorie.class, no_categorie, copie(ligne));
+			}
+		}
+		return categorie;
+	}
+
+	//Article complet (vendeur et catégorie) construit à partir de sa ligne
+	ArticleVendu article(ArticleVendu ligne) {
+		ArticleVendu articleVendu = CarteIdentite.get(ArticleVendu.class, ligne.getNo_article());
+		if (articleVendu == null) {
+			articleVendu = copie(ligne);
+			articleVendu.setVendeur(utilisateur(ligne.getVendeur().getNo_utilisateur()));
+			articleVendu.setCategorie(categorie(ligne.getCategorie().getNo_categorie()));
+			articleVendu = CarteIdentite.mettre(ArticleVendu.class, ligne.getNo_article(), articleVendu);
+		}
+		return articleVendu;
+	}
+
+	Enchere enchere(LigneEnchere ligne) {
+		Enchere enchere = new Enchere();
+		enchere.setArticle(article(articles.get(ligne.no_article)));
+		enchere.setEncherisseur(utilisateur(ligne.no_utilisateur));
+		enchere.setDate_enchere(ligne.date_enchere);
+		enchere.setMontant_enchere(ligne.montant_enchere);
+		enchere.setMontant_maximum(ligne.montant_maximum);
+		return enchere;
+	}
+
+	static BusinessException erreur(int code) {
+		BusinessException businessException = new BusinessException();
+		businessException.ajouterErreur(code);
+		return businessException;
+	}
+
+	/******** COPIES ********/
+
+	static Utilisateur copie(Utilisateur source) {
+		Utilisateur utilisateur = new Utilisateur(source.getPseudo(), source.getNom(), source.getPrenom(), source.getEmail(),
+				source.getTelephone(), source.getRue(), source.getCode_postal(), source.getVille(), source.getMot_de_passe());
+		utilisateur.setNo_utilisateur(source.getNo_utilisateur());
+		utilisateur.setCredit(source.getCredit());
+		utilisateur.setAdministrateur(source.isAdministrateur());
+		return utilisateur;
+	}
+
+	static Categorie copie(Categorie source) {
+		Categorie categorie = new Categorie(source.getLibelle());
+		categorie.setNo_categorie(source.getNo_categorie());
+		return categorie;
+	}
+
+	//Copie des colonnes de l'article, vendeur et catégorie réduits à leur numéro
+	static ArticleVendu copie(ArticleVendu source) {
+		ArticleVendu articleVendu = new ArticleVendu();
+		articleVendu.setNo_article(source.getNo_article());
+		articleVendu.setNom_article(source.getNom_article());
+		articleVendu.setDescription(source.getDescription());
+		articleVendu.setDate_debut_encheres(source.getDate_debut_encheres());
+		articleVendu.setDate_fin_encheres(source.getDate_fin_encheres());
+		articleVendu.setPrix_initial(source.getPrix_initial());
+		articleVendu.setPrix_vente(source.getPrix_vente());
+		Utilisateur vendeur = new Utilisateur();
+		vendeur.setNo_utilisateur(source.getVendeur().getNo_utilisateur());
+		articleVendu.setVendeur(vendeur);
+		Categorie categorie = new Categorie();
+		categorie.setNo_categorie(source.getCategorie().getNo_categorie());
+		articleVendu.setCategorie(categorie);
+		return articleVendu;
+	}
+
+	//Copie du retrait, article réduit à son numéro
+	static Retrait copie(Retrait source) {
+		ArticleVendu articleVendu = new ArticleVendu();
+		articleVendu.setNo_article(source.getArticle().getNo_article());
+		Retrait retrait = new Retrait(articleVendu, source.getRue(), source.getCode_postal(), source.getVille());
+		retrait.setRetire(source.getRetire() == null ? Boolean.FALSE : source.getRetire());
+		return retrait;
+	}
+
+}
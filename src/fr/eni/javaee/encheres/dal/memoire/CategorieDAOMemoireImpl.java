@@ -0,0 +1,82 @@
+package fr.eni.javaee.encheres.dal.memoire;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import fr.eni.javaee.encheres.bo.Categorie;
+import fr.eni.javaee.encheres.dal.CarteIdentite;
+import fr.eni.javaee.encheres.dal.CategorieDAO;
+import fr.eni.javaee.encheres.dal.CodesResultatDAL;
+import fr.eni.javaee.encheres.messages.BusinessException;
+
+public class CategorieDAOMemoireImpl implements CategorieDAO{
+
+	private final BaseMemoire base = BaseMemoire.getInstance();
+
+	@Override
+	public Categorie selectById(int no_categorie) throws BusinessException {
+		
+		// catégorie déjà lue pendant la requête
+		Categorie categorie=CarteIdentite.get(Categorie.class, no_categorie);
+		if (categorie != null) {
+			return categorie;
+		}
+		return base.lire(() -> {
+			Categorie ligne = base.categories.get(no_categorie);
+			return ligne == null ? null : CarteIdentite.mettre(Categorie.class, no_categorie, BaseMemoire.copie(ligne));
+		});
+	}
+
+	@Override
+	public List<Categorie> selectAll() throws BusinessException {
+		List<Categorie> liste = base.lire(() -> {
+			List<Categorie> categories = new ArrayList<>();
+			for (Categorie ligne : base.categories.values()) {
+				categories.add(BaseMemoire.copie(ligne));
+			}
+			return categories;
+		});
+		liste.sort(Comparator.comparing(Categorie::getLibelle, String.CASE_INSENSITIVE_ORDER));
+		return liste;
+	}
+
+	@Override
+	public void update(Categorie obj) throws BusinessException {
+		if (obj == null || obj.getLibelle() == null) {
+			throw BaseMemoire.erreur(CodesResultatDAL.UPDATE_CATEGORIE_NULL);
+		}
+		CarteIdentite.retirer(Categorie.class, obj.getNo_categorie());
+		base.ecrire(() -> {
+			if (base.categories.containsKey(obj.getNo_categorie())) {
+				base.changerCategorie(obj.getNo_categorie(), BaseMemoire.copie(obj));
+			}
+		});
+	}
+
+	@Override
+	public void insert(Categorie obj) throws BusinessException {
+		if (obj == null || obj.getLibelle() == null) {
+			throw BaseMemoire.erreur(CodesResultatDAL.INSERT_CATEGORIE_NULL);
+		}
+		base.ecrire(() -> {
+			obj.setNo_categorie(base.prochaineCategorie());
+			base.changerCategorie(obj.getNo_categorie(), BaseMemoire.copie(obj));
+		});
+	}
+
+	@Override
+	public void delete(int no_categorie) throws BusinessException {
+		CarteIdentite.retirer(Categorie.class, no_categorie);
+		base.ecrire(() -> {
+			// une catégorie reste référencée par ses articles
+			if (base.articlesParCategorie.containsKey(no_categorie)) {
+				throw BaseMemoire.erreur(CodesResultatDAL.DELETE_CATEGORIE_ECHEC);
+			}
+			if (base.categories.containsKey(no_categorie)) {
+				base.changerCategorie(no_categorie, null);
+			}
+		});
+	}
+
+}
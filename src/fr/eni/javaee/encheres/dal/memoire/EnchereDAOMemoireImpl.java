@@ -0,0 +1,152 @@
+package fr.eni.javaee.encheres.dal.memoire;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import fr.eni.javaee.encheres.bo.ArticleVendu;
+import fr.eni.javaee.encheres.bo.Enchere;
+import fr.eni.javaee.encheres.dal.CodesResultatDAL;
+import fr.eni.javaee.encheres.dal.EnchereDAO;
+import fr.eni.javaee.encheres.dal.memoire.BaseMemoire.LigneEnchere;
+import fr.eni.javaee.encheres.messages.BusinessException;
+
+public class EnchereDAOMemoireImpl implements EnchereDAO{
+
+	private final BaseMemoire base = BaseMemoire.getInstance();
+
+	@Override
+	public List<Enchere> selectByArticle(int no_article) throws BusinessException {
+		// renvoie la liste des enchères de l'article, dans l'ordre où elles ont été faites
+		return base.lire(() -> {
+			List<Enchere> liste = new ArrayList<>();
+			for (LigneEnchere ligne : base.encheresParArticle.getOrDefault(no_article, Collections.emptyList())) {
+				liste.add(base.enchere(ligne));
+			}
+			return liste;
+		});
+	}
+
+	@Override
+	public Enchere selectByTopArticle(int no_article) throws BusinessException {
+		// renvoie la meilleure enchère de l'article, la plus récente à montant égal
+		return base.lire(() -> {
+			LigneEnchere meilleure = null;
+			for (LigneEnchere ligne : base.encheresParArticle.getOrDefault(no_article, Collections.emptyList())) {
+				if (meilleure == null || ligne.montant_enchere >= meilleure.montant_enchere) {
+					meilleure = ligne;
+				}
+			}
+			return meilleure == null ? null : base.enchere(meilleure);
+		});
+	}
+
+	@Override
+	public List<Enchere> selectAll() throws BusinessException {
+		return base.lire(() -> {
+			List<LigneEnchere> lignes = new ArrayList<>();
+			for (List<LigneEnchere> encheres : base.encheresParArticle.values()) {
+				lignes.addAll(encheres);
+			}
+			lignes.sort((a, b) -> a.no_article != b.no_article ? Integer.compare(a.no_article, b.no_article)
+					: Integer.compare(a.no_utilisateur, b.no_utilisateur));
+			List<Enchere> liste = new ArrayList<>();
+			for (LigneEnchere ligne : lignes) {
+				liste.add(base.enchere(ligne));
+			}
+			return liste;
+		});
+	}
+
+	@Override
+	public void insert(Enchere obj) throws BusinessException {
+		
+		if (!insertSiMeilleure(obj)) {
+			throw BaseMemoire.erreur(CodesResultatDAL.INSERT_ENCHERE_DEPASSEE);
+		}
+		
+	}
+
+	// Enregistre l'enchère si elle dépasse le prix courant d'une vente ouverte, en une transaction ;
+	// false si une meilleure enchère l'a précédée. Les enchères du moteur passent par insertBatch.
+	private boolean insertSiMeilleure(Enchere obj) throws BusinessException {
+		LigneEnchere nouvelle = ligne(obj);
+		boolean[] remportee = new boolean[1];
+		base.ecrire(() -> {
+			// mêmes conditions que la mise à jour du prix en base : meilleure offre sur une vente ouverte
+			ArticleVendu article = base.articles.get(nouvelle.no_article);
+			LocalDate date = nouvelle.date_enchere;
+			int montant = nouvelle.montant_enchere;
+			if (article == null || article.getPrix_vente() >= montant || article.getPrix_initial() >= montant
+					|| article.getDate_debut_encheres().isAfter(date) || article.getDate_fin_encheres().isBefore(date)) {
+				return;
+			}
+			if (!base.utilisateurs.containsKey(nouvelle.no_utilisateur)) {
+				throw BaseMemoire.erreur(CodesResultatDAL.INSERT_ENCHERE_ECHEC);
+			}
+			base.changerArticle(nouvelle.no_article, prixVente(article, montant));
+			base.ajouterEnchere(nouvelle);
+			remportee[0] = true;
+		});
+		return remportee[0];
+	}
+
+	@Override
+	public void insertBatch(List<Enchere> encheres) throws BusinessException {
+		List<LigneEnchere> lignes = new ArrayList<>();
+		for (Enchere obj : encheres) {
+			lignes.add(ligne(obj));
+		}
+		base.ecrire(() -> {
+			for (LigneEnchere ligne : lignes) {
+				if (!base.articles.containsKey(ligne.no_article) || !base.utilisateurs.containsKey(ligne.no_utilisateur)) {
+					throw BaseMemoire.erreur(CodesResultatDAL.INSERT_ENCHERE_ECHEC);
+				}
+			}
+			// enchères déjà acceptées : le prix ne fait que monter
+			for (LigneEnchere ligne : lignes) {
+				ArticleVendu article = base.articles.get(ligne.no_article);
+				if (article.getPrix_vente() < ligne.montant_enchere) {
+					base.changerArticle(ligne.no_article, prixVente(article, ligne.montant_enchere));
+				}
+				base.ajouterEnchere(ligne);
+			}
+		});
+	}
+
+	@Override
+	public void update(Enchere obj) throws BusinessException {
+		// Pas d'update autorisé
+		throw BaseMemoire.erreur(CodesResultatDAL.UPDATE_ENCHERE_ECHEC);
+	}
+
+	@Override
+	public void delete(int no_enchere) throws BusinessException {
+		// Pas de delete autorisé
+		throw BaseMemoire.erreur(CodesResultatDAL.DELETE_ENCHERE_ECHEC);
+	}
+
+	@Override
+	public Enchere selectById(int id) throws BusinessException {
+		return null;
+	}
+
+	// Ligne à enregistrer, contrôlée avant de prendre le verrou
+	private static LigneEnchere ligne(Enchere obj) throws BusinessException {
+		if (obj.getEncherisseur() == null || obj.getArticle() == null || obj.getDate_enchere() == null) {
+			throw BaseMemoire.erreur(CodesResultatDAL.INSERT_ENCHERE_NULL);
+		}
+		return new LigneEnchere(obj.getEncherisseur().getNo_utilisateur(), obj.getArticle().getNo_article(),
+				obj.getDate_enchere(), obj.getMontant_enchere(),
+				obj.getMontant_maximum() > obj.getMontant_enchere() ? obj.getMontant_maximum() : 0);
+	}
+
+	// Nouvelle ligne de l'article au prix de vente donné : les lignes stockées ne sont jamais modifiées en place
+	private static ArticleVendu prixVente(ArticleVendu article, int prix_vente) {
+		ArticleVendu ligne = BaseMemoire.copie(article);
+		ligne.setPrix_vente(prix_vente);
+		return ligne;
+	}
+
+}
@@ -0,0 +1,86 @@
+package fr.eni.javaee.encheres.dal.memoire;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import fr.eni.javaee.encheres.bo.Retrait;
+import fr.eni.javaee.encheres.dal.CarteIdentite;
+import fr.eni.javaee.encheres.dal.CodesResultatDAL;
+import fr.eni.javaee.encheres.dal.RetraitDAO;
+import fr.eni.javaee.encheres.messages.BusinessException;
+
+public class RetraitDAOMemoireImpl implements RetraitDAO{
+
+	private final BaseMemoire base = BaseMemoire.getInstance();
+
+	@Override
+	public Retrait selectById(int no_article) throws BusinessException {
+		
+		// retrait déjà lu pendant la requête
+		Retrait retrait=CarteIdentite.get(Retrait.class, no_article);
+		if (retrait != null) {
+			return retrait;
+		}
+		return base.lire(() -> {
+			Retrait ligne = base.retraits.get(no_article);
+			return ligne == null ? null : CarteIdentite.mettre(Retrait.class, no_article, BaseMemoire.copie(ligne));
+		});
+	}
+
+	@Override
+	public List<Retrait> selectAll() throws BusinessException {
+		List<Retrait> liste = base.lire(() -> {
+			List<Retrait> retraits = new ArrayList<>();
+			for (Retrait ligne : base.retraits.values()) {
+				retraits.add(BaseMemoire.copie(ligne));
+			}
+			return retraits;
+		});
+		liste.sort(Comparator.comparingInt(retrait -> retrait.getArticle().getNo_article()));
+		return liste;
+	}
+
+	@Override
+	public void update(Retrait obj) throws BusinessException {
+		if (obj == null || obj.getArticle() == null || obj.getRetire() == null) {
+			throw BaseMemoire.erreur(CodesResultatDAL.UPDATE_RETRAIT_NULL);
+		}
+		int no_article = obj.getArticle().getNo_article();
+		CarteIdentite.retirer(Retrait.class, no_article);
+		base.ecrire(() -> {
+			if (base.retraits.containsKey(no_article)) {
+				base.changerRetrait(no_article, BaseMemoire.copie(obj));
+			}
+		});
+	}
+
+	@Override
+	public void insert(Retrait obj) throws BusinessException {
+		if (obj == null || obj.getArticle() == null) {
+			throw BaseMemoire.erreur(CodesResultatDAL.INSERT_RETRAIT_NULL);
+		}
+		int no_article = obj.getArticle().getNo_article();
+		base.ecrire(() -> {
+			// un retrait par article existant
+			if (!base.articles.containsKey(no_article) || base.retraits.containsKey(no_article)) {
+				throw BaseMemoire.erreur(CodesResultatDAL.INSERT_RETRAIT_ECHEC);
+			}
+			Retrait ligne = BaseMemoire.copie(obj);
+			// nouveau retrait : pas encore retiré
+			ligne.setRetire(Boolean.FALSE);
+			base.changerRetrait(no_article, ligne);
+		});
+	}
+
+	@Override
+	public void delete(int no_article) throws BusinessException {
+		CarteIdentite.retirer(Retrait.class, no_article);
+		base.ecrire(() -> {
+			if (base.retraits.containsKey(no_article)) {
+				base.changerRetrait(no_article, null);
+			}
+		});
+	}
+
+}
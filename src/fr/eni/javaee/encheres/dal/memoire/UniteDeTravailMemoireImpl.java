@@ -0,0 +1,35 @@
+package fr.eni.javaee.encheres.dal.memoire;
+
+import fr.eni.javaee.encheres.dal.CarteIdentite;
+import fr.eni.javaee.encheres.dal.CodesResultatDAL;
+import fr.eni.javaee.encheres.dal.UniteDeTravail;
+import fr.eni.javaee.encheres.messages.BusinessException;
+
+/**
+ * Unité de travail du tier mémoire : les écritures sont faites en place et journalisées,
+ * l'annulation rejoue leurs inverses. Le verrou d'écriture de la base est gardé pendant toute l'unité.
+ */
+public class UniteDeTravailMemoireImpl implements UniteDeTravail {
+
+	private final BaseMemoire base = BaseMemoire.getInstance();
+
+	@Override
+	public void commencer() throws BusinessException {
+		if (!base.commencer()) {
+			throw BaseMemoire.erreur(CodesResultatDAL.TRANSACTION_ECHEC);
+		}
+	}
+
+	@Override
+	public void valider() throws BusinessException {
+		base.valider();
+	}
+
+	@Override
+	public void annuler() {
+		base.annuler();
+		// les objets lus pendant l'unité peuvent refléter des écritures annulées
+		CarteIdentite.vider();
+	}
+
+}
@@ -0,0 +1,123 @@
+package fr.eni.javaee.encheres.dal.memoire;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import fr.eni.javaee.encheres.bo.Utilisateur;
+import fr.eni.javaee.encheres.dal.CarteIdentite;
+import fr.eni.javaee.encheres.dal.CodesResultatDAL;
+import fr.eni.javaee.encheres.dal.UtilisateurDAO;
+import fr.eni.javaee.encheres.messages.BusinessException;
+
+public class UtilisateurDAOMemoireImpl implements UtilisateurDAO{
+
+	private final BaseMemoire base = BaseMemoire.getInstance();
+
+	@Override
+	public void insert(Utilisateur utilisateur) throws BusinessException {
+		if(utilisateur==null)
+		{
+			throw BaseMemoire.erreur(CodesResultatDAL.INSERT_UTILISATEUR_NULL);
+		}
+		base.ecrire(() -> {
+			// pseudo et email sont uniques, comme en base
+			if (base.utilisateursParPseudo.containsKey(BaseMemoire.cle(utilisateur.getPseudo()))
+					|| base.utilisateursParEmail.containsKey(BaseMemoire.cle(utilisateur.getEmail()))) {
+				throw BaseMemoire.erreur(CodesResultatDAL.UTILISATEUR_DOUBLON);
+			}
+			utilisateur.setNo_utilisateur(base.prochainUtilisateur());
+			base.changerUtilisateur(utilisateur.getNo_utilisateur(), BaseMemoire.copie(utilisateur));
+		});
+	}
+
+	@Override
+	public void delete(int id) throws BusinessException {
+		CarteIdentite.retirer(Utilisateur.class, id);
+		base.ecrire(() -> {
+			// un vendeur ou un enchérisseur reste référencé par ses articles et ses enchères
+			if (base.articlesParVendeur.containsKey(id) || base.articlesParEncherisseur.containsKey(id)) {
+				throw BaseMemoire.erreur(CodesResultatDAL.DELETE_UTILISATEUR_ECHEC);
+			}
+			if (base.utilisateurs.containsKey(id)) {
+				base.changerUtilisateur(id, null);
+			}
+		});
+	}
+
+	@Override
+	public void update(Utilisateur utilisateur) throws BusinessException {
+		if(utilisateur==null)
+		{
+			throw BaseMemoire.erreur(CodesResultatDAL.UPDATE_UTILISATEUR_NULL);
+		}
+		CarteIdentite.retirer(Utilisateur.class, utilisateur.getNo_utilisateur());
+		base.ecrire(() -> {
+			int no_utilisateur = utilisateur.getNo_utilisateur();
+			if (!base.utilisateurs.containsKey(no_utilisateur)) {
+				// aucune ligne modifiée
+				return;
+			}
+			Integer parPseudo = base.utilisateursParPseudo.get(BaseMemoire.cle(utilisateur.getPseudo()));
+			Integer parEmail = base.utilisateursParEmail.get(BaseMemoire.cle(utilisateur.getEmail()));
+			if ((parPseudo != null && parPseudo != no_utilisateur) || (parEmail != null && parEmail != no_utilisateur)) {
+				throw BaseMemoire.erreur(CodesResultatDAL.UTILISATEUR_DOUBLON);
+			}
+			base.changerUtilisateur(no_utilisateur, BaseMemoire.copie(utilisateur));
+		});
+	}
+
+	@Override
+	public Utilisateur selectById(int id) throws BusinessException {
+		// utilisateur déjà lu pendant la requête
+		Utilisateur connu = CarteIdentite.get(Utilisateur.class, id);
+		if (connu != null) {
+			return connu;
+		}
+		return base.lire(() -> {
+			Utilisateur ligne = base.utilisateurs.get(id);
+			return ligne == null ? new Utilisateur() : CarteIdentite.mettre(Utilisateur.class, id, BaseMemoire.copie(ligne));
+		});
+	}
+
+	@Override
+	public List<Utilisateur> selectAll() throws BusinessException {
+		List<Utilisateur> utilisateurs = base.lire(() -> {
+			List<Utilisateur> liste = new ArrayList<>();
+			for (Utilisateur ligne : base.utilisateurs.values()) {
+				liste.add(BaseMemoire.copie(ligne));
+			}
+			return liste;
+		});
+		utilisateurs.sort(Comparator.comparing(Utilisateur::getNom, Comparator.nullsFirst(String.CASE_INSENSITIVE_ORDER))
+				.thenComparing(Utilisateur::getPrenom, Comparator.nullsFirst(String.CASE_INSENSITIVE_ORDER)));
+		return utilisateurs;
+	}
+
+	@Override
+	public Utilisateur selectByPseudo(String pseudo) throws BusinessException {
+		return base.lire(() -> ligne(base.utilisateursParPseudo.get(BaseMemoire.cle(pseudo))));
+	}
+
+	@Override
+	public Utilisateur selectByEmail(String email) throws BusinessException {
+		return base.lire(() -> ligne(base.utilisateursParEmail.get(BaseMemoire.cle(email))));
+	}
+
+	@Override
+	public boolean existePseudo(String pseudo) throws BusinessException {
+		return base.lire(() -> base.utilisateursParPseudo.containsKey(BaseMemoire.cle(pseudo)));
+	}
+
+	@Override
+	public boolean existeEmail(String email) throws BusinessException {
+		return base.lire(() -> base.utilisateursParEmail.containsKey(BaseMemoire.cle(email)));
+	}
+
+	// Copie de l'utilisateur trouvé par l'index, utilisateur vide sinon (comme le tier JDBC)
+	private Utilisateur ligne(Integer no_utilisateur) {
+		Utilisateur ligne = no_utilisateur == null ? null : base.utilisateurs.get(no_utilisateur);
+		return ligne == null ? new Utilisateur() : BaseMemoire.copie(ligne);
+	}
+
+}
@@ -0,0 +1,66 @@
+package fr.eni.javaee.encheres.ecouteurs;
+
+import java.util.logging.Logger;
+
+import javax.servlet.ServletContext;
+import javax.servlet.ServletContextEvent;
+import javax.servlet.ServletContextListener;
+import javax.servlet.annotation.WebListener;
+
+import fr.eni.javaee.encheres.bll.ArticleVenduManager;
+import fr.eni.javaee.encheres.bll.MoteurEncheres;
+import fr.eni.javaee.encheres.bll.Registre;
+import fr.eni.javaee.encheres.bll.UtilisateurManager;
+import fr.eni.javaee.encheres.messages.BusinessException;
+import fr.eni.javaee.encheres.utils.ExpediteurSmtp;
+import fr.eni.javaee.encheres.utils.ErrorLogger;
+
+/**
+ * Initialisations faites au démarrage de l'application
+ */
+@WebListener
+public class EcouteurDemarrage implements ServletContextListener {
+
+	private static Logger logger = ErrorLogger.getLogger("EcouteurDemarrage");
+
+	@Override
+	public void contextInitialized(ServletContextEvent sce) {
+		// Managers et DAO, construits une fois avant la première requête
+		Registre.demarrer();
+		// Index des noms d'articles : en cas d'échec, la recherche se fait en base
+		try {
+			ArticleVenduManager.getInstance().indexerArticles();
+		} catch (BusinessException e) {
+			e.printStackTrace();
+			logger.severe("Index des articles non construit : " + e.getListeCodesErreur());
+		}
+		// Filtre des pseudos et emails utilisés : en cas d'échec, l'unicité est vérifiée en base
+		try {
+			UtilisateurManager.getInstance().indexerIdentifiants();
+		} catch (BusinessException e) {
+			e.printStackTrace();
+			logger.severe("Filtre des identifiants non construit : " + e.getListeCodesErreur());
+		}
+		// Démarrage du moteur d'enchères, abonné au journal des prix par le registre
+		MoteurEncheres.getInstance().demarrer();
+		// Envoi des courriels : sans serveur SMTP configuré, leur destinataire et leur sujet sont écrits dans le journal
+		ServletContext contexte = sce.getServletContext();
+		String hote = contexte.getInitParameter("smtpHote");
+		if (hote != null && !hote.trim().isEmpty()) {
+			try {
+				String valeurPort = contexte.getInitParameter("smtpPort");
+				int port = valeurPort == null ? 25 : Integer.parseInt(valeurPort.trim());
+				Registre.getFileCourriels().setExpediteur(new ExpediteurSmtp(hote.trim(), port, contexte.getInitParameter("smtpExpediteur")));
+			} catch (NumberFormatException e) {
+				logger.severe("Port SMTP invalide, les courriels sont écrits dans le journal");
+			}
+		}
+	}
+
+	@Override
+	public void contextDestroyed(ServletContextEvent sce) {
+		// enregistre les enchères acceptées encore en attente, puis arrête l'envoi des courriels
+		Registre.arreter();
+	}
+
+}
@@ -0,0 +1,55 @@
+package fr.eni.javaee.encheres.filtres;
+
+import java.io.IOException;
+import javax.servlet.DispatcherType;
+import javax.servlet.Filter;
+import javax.servlet.FilterChain;
+import javax.servlet.FilterConfig;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.annotation.WebFilter;
+
+import fr.eni.javaee.encheres.dal.CarteIdentite;
+
+/**
+ * Ouvre la carte d'identité des business objects pour la durée de la requête : un article, un
+ * utilisateur, une catégorie ou un retrait n'est lu qu'une fois par requête.
+ */
+@WebFilter(asyncSupported = true, dispatcherTypes = {
+		DispatcherType.REQUEST, 
+}
+, urlPatterns = { 
+		"/*"
+})
+
+public class FiltreCarteIdentite implements Filter {
+
+	/**
+	 * @see Filter#destroy()
+	 */
+	public void destroy() {
+	}
+
+	/**
+	 * @see Filter#doFilter(ServletRequest, ServletResponse, FilterChain)
+	 */
+	public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain) throws IOException, ServletException {
+		boolean ouverte = CarteIdentite.ouvrir();
+		try {
+			chain.doFilter(request, response);
+		} finally {
+			// la carte n'est jamais réutilisée par une autre requête du même thread
+			if (ouverte) {
+				CarteIdentite.fermer();
+			}
+		}
+	}
+
+	/**
+	 * @see Filter#init(FilterConfig)
+	 */
+	public void init(FilterConfig fConfig) throws ServletException {
+	}
+
+}
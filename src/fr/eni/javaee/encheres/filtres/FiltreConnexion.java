@@ -16,7 +16,7 @@ import javax.servlet.http.HttpServletResponse;
 /**
  * Servlet Filter implementation class FiltreConnexion
  */
-@WebFilter(dispatcherTypes = {
+@WebFilter(asyncSupported = true, dispatcherTypes = {
 		DispatcherType.REQUEST, 
 }
 , urlPatterns = { 
@@ -26,6 +26,7 @@ import javax.servlet.http.HttpServletResponse;
 		"/profil",
 		"/vente",
 		"/enchere",
+		"/enchere/flux",
 		"/Administration",
 		"/AdministrationDesCategories",
 		"/SupprimerCategorie",
@@ -0,0 +1,57 @@
+package fr.eni.javaee.encheres.filtres;
+
+import java.io.IOException;
+import javax.servlet.DispatcherType;
+import javax.servlet.Filter;
+import javax.servlet.FilterChain;
+import javax.servlet.FilterConfig;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.annotation.WebFilter;
+
+import fr.eni.javaee.encheres.dal.jdbc.ConnexionRequete;
+
+/**
+ * Lie chaque requête à une seule connexion du pool, rendue en fin de requête.
+ * Actif si le paramètre de contexte "connexionParRequete" vaut true (web.xml).
+ */
+@WebFilter(asyncSupported = true, dispatcherTypes = {
+		DispatcherType.REQUEST, 
+}
+, urlPatterns = { 
+		"/*"
+})
+
+public class FiltreConnexionRequete implements Filter {
+
+	private boolean actif;
+
+	/**
+	 * @see Filter#destroy()
+	 */
+	public void destroy() {
+	}
+
+	/**
+	 * @see Filter#doFilter(ServletRequest, ServletResponse, FilterChain)
+	 */
+	public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain) throws IOException, ServletException {
+		boolean liee = actif && ConnexionRequete.lier();
+		try {
+			chain.doFilter(request, response);
+		} finally {
+			if (liee) {
+				ConnexionRequete.liberer();
+			}
+		}
+	}
+
+	/**
+	 * @see Filter#init(FilterConfig)
+	 */
+	public void init(FilterConfig fConfig) throws ServletException {
+		actif = Boolean.parseBoolean(fConfig.getServletContext().getInitParameter("connexionParRequete"));
+	}
+
+}
@@ -0,0 +1,238 @@
+package fr.eni.javaee.encheres.servlets;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+
+import fr.eni.javaee.encheres.bll.EcouteurEncheres;
+import fr.eni.javaee.encheres.utils.ErrorLogger;
+
+/**
+ * Abonnés au flux des enchères, regroupés par article.
+ * Un abonné est une requête asynchrone en attente : il n'occupe aucun thread de requête.
+ * Les événements sont déposés dans la file de chaque abonné puis écrits sans bloquer (WriteListener) :
+ * un abonné lent ne retarde pas les autres. Un abonné dont la file déborde, ou qui n'a rien reçu
+ * entre deux entretiens, est déconnecté ; son navigateur se reconnecte et reçoit l'état courant.
+ */
+class DiffusionEncheres implements EcouteurEncheres {
+
+	private static Logger logger = ErrorLogger.getLogger("DiffusionEncheres");
+
+	// Commentaire SSE envoyé régulièrement : garde la connexion ouverte et détecte les abonnés partis
+	private static final long INTERVALLE_ENTRETIEN = 20;
+	private static final byte[] ENTRETIEN = ": \n\n".getBytes(StandardCharsets.UTF_8);
+	// Evénements en attente d'écriture par abonné : au-delà, l'abonné est déconnecté
+	private static final int TAILLE_MAX_ATTENTE = 32;
+
+	/**
+	 * Requête abonnée et sa file d'événements. Les écritures se font sous le verrou de l'abonné,
+	 * depuis le thread qui dépose un événement ou depuis le conteneur quand la sortie est à nouveau prête.
+	 */
+	final class Abonne implements WriteListener {
+		private final int no_article;
+		private final AsyncContext contexte;
+		private final ServletOutputStream sortie;
+		private final Queue<byte[]> enAttente = new ArrayDeque<>();
+		// Ecrit depuis le dernier flush
+		private boolean aEnvoyer;
+		private boolean ferme;
+		// Evénements écrits, comparés d'un entretien à l'autre
+		private long ecrits;
+		private long ecritsAuDernierEntretien;
+
+		private Abonne(int no_article, AsyncContext contexte) throws IOException {
+			this.no_article = no_article;
+			this.contexte = contexte;
+			this.sortie = contexte.getResponse().getOutputStream();
+		}
+
+		@Override
+		public synchronized void onWritePossible() {
+			ecrire();
+		}
+
+		@Override
+		public void onError(Throwable t) {
+			logger.fine("Abonné perdu : " + t);
+			fermer();
+		}
+
+		private synchronized void deposer(byte[] evenement) {
+			if (ferme) {
+				return;
+			}
+			if (enAttente.size() >= TAILLE_MAX_ATTENTE) {
+				logger.fine("Abonné trop lent, déconnecté : article " + no_article);
+				fermer();
+				return;
+			}
+			enAttente.add(evenement);
+			ecrire();
+		}
+
+		// Ecrit tant que la sortie est prête ; sinon le conteneur rappellera onWritePossible
+		private synchronized void ecrire() {
+			try {
+				while (!ferme && sortie.isReady()) {
+					byte[] evenement = enAttente.poll();
+					if (evenement != null) {
+						sortie.write(evenement);
+						ecrits++;
+						aEnvoyer = true;
+					} else if (aEnvoyer) {
+						aEnvoyer = false;
+						sortie.flush();
+					} else {
+						return;
+					}
+				}
+			} catch (IOException | IllegalStateException e) {
+				logger.fine("Abonné perdu : " + e);
+				fermer();
+			}
+		}
+
+		//False si des événements attendent depuis le précédent entretien sans qu'aucun n'ait été écrit
+		private synchronized boolean progresse() {
+			boolean progresse = enAttente.isEmpty() || ecrits != ecritsAuDernierEntretien;
+			ecritsAuDernierEntretien = ecrits;
+			return progresse;
+		}
+
+		private void fermer() {
+			synchronized (this) {
+				if (ferme) {
+					return;
+				}
+				ferme = true;
+				enAttente.clear();
+			}
+			desabonner(this);
+			try {
+				contexte.complete();
+			} catch (IllegalStateException e) {
+				// requête déjà terminée
+			}
+		}
+	}
+
+	private final Map<Integer, Set<Abonne>> abonnes = new ConcurrentHashMap<>();
+	// Répartit les événements entre les abonnés, hors du thread du moteur d'enchères
+	private final ScheduledExecutorService diffuseur = Executors.newSingleThreadScheduledExecutor(r -> {
+		Thread thread = new Thread(r, "diffusion-encheres");
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	DiffusionEncheres() {
+		diffuseur.scheduleWithFixedDelay(this::entretenir, INTERVALLE_ENTRETIEN, INTERVALLE_ENTRETIEN, TimeUnit.SECONDS);
+	}
+
+	/**
+	 * Ajoute l'abonné, qui est retiré à la fin de sa requête (expiration, erreur ou déconnexion).
+	 * Appelé par le thread de la requête, après startAsync.
+	 */
+	Abonne abonner(int no_article, AsyncContext contexte) throws IOException {
+		Abonne abonne = new Abonne(no_article, contexte);
+		contexte.addListener(new AsyncListener() {
+			@Override
+			public void onComplete(AsyncEvent event) {
+				desabonner(abonne);
+			}
+
+			@Override
+			public void onTimeout(AsyncEvent event) {
+				abonne.fermer();
+			}
+
+			@Override
+			public void onError(AsyncEvent event) {
+				abonne.fermer();
+			}
+
+			@Override
+			public void onStartAsync(AsyncEvent event) {
+			}
+		});
+		abonnes.computeIfAbsent(no_article, no -> ConcurrentHashMap.newKeySet()).add(abonne);
+		abonne.sortie.setWriteListener(abonne);
+		return abonne;
+	}
+
+	//Envoie l'état de l'article au seul abonné indiqué
+	void envoyer(Abonne abonne, int prix, String meilleurEncherisseur) {
+		abonne.deposer(evenement(prix, meilleurEncherisseur));
+	}
+
+	@Override
+	public void prixModifie(int no_article, int prix, String meilleurEncherisseur) {
+		if (!abonnes.containsKey(no_article)) {
+			return;
+		}
+		byte[] evenement = evenement(prix, meilleurEncherisseur);
+		diffuseur.execute(() -> {
+			Set<Abonne> abonnesArticle = abonnes.get(no_article);
+			if (abonnesArticle != null) {
+				for (Abonne abonne : abonnesArticle) {
+					abonne.deposer(evenement);
+				}
+			}
+		});
+	}
+
+	//Termine toutes les requêtes en attente
+	void arreter() {
+		diffuseur.shutdownNow();
+		for (Set<Abonne> abonnesArticle : abonnes.values()) {
+			for (Abonne abonne : abonnesArticle) {
+				abonne.fermer();
+			}
+		}
+		abonnes.clear();
+	}
+
+	private void entretenir() {
+		for (Set<Abonne> abonnesArticle : abonnes.values()) {
+			for (Abonne abonne : abonnesArticle) {
+				if (abonne.progresse()) {
+					abonne.deposer(ENTRETIEN);
+				} else {
+					logger.fine("Abonné bloqué, déconnecté : article " + abonne.no_article);
+					abonne.fermer();
+				}
+			}
+		}
+	}
+
+	private void desabonner(Abonne abonne) {
+		abonnes.computeIfPresent(abonne.no_article, (no, abonnesArticle) -> {
+			abonnesArticle.remove(abonne);
+			return abonnesArticle.isEmpty() ? null : abonnesArticle;
+		});
+	}
+
+	//Evénement SSE "prix" : {"prix":..,"encherisseur":".."}
+	private static byte[] evenement(int prix, String meilleurEncherisseur) {
+		StringBuilder builder = new StringBuilder("event: prix\ndata: {\"prix\":");
+		builder.append(prix);
+		builder.append(",\"encherisseur\":");
+		Json.chaine(builder, meilleurEncherisseur);
+		builder.append("}\n\n");
+		return builder.toString().getBytes(StandardCharsets.UTF_8);
+	}
+
+}
@@ -0,0 +1,29 @@
+package fr.eni.javaee.encheres.servlets;
+
+/**
+ * Ecriture des valeurs JSON des réponses de flux et de prix
+ */
+final class Json {
+
+	private Json() {
+	}
+
+	//Ajoute la chaîne entre guillemets, ou null
+	static StringBuilder chaine(StringBuilder builder, String valeur) {
+		if (valeur == null) {
+			return builder.append("null");
+		}
+		builder.append('"');
+		for (char c : valeur.toCharArray()) {
+			if (c == '"' || c == '\\') {
+				builder.append('\\').append(c);
+			} else if (c < 0x20) {
+				builder.append(String.format("\\u%04x", (int) c));
+			} else {
+				builder.append(c);
+			}
+		}
+		return builder.append('"');
+	}
+
+}
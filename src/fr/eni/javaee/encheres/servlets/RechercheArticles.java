@@ -0,0 +1,71 @@
+package fr.eni.javaee.encheres.servlets;
+
+import java.io.Serializable;
+
+import fr.eni.javaee.encheres.bo.Curseur;
+
+/**
+ * Description de la dernière recherche de la liste des enchères, conservée en session à la place
+ * des articles trouvés : filtres saisis et page affichée.
+ */
+class RechercheArticles implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	private final String choixUtilisateur;
+	private final String choixAchat;
+	private final String choixVente;
+	private final String nomArticle;
+	private final int noCategorie;
+	private final Curseur curseur;
+
+	RechercheArticles(String choixUtilisateur, String choixAchat, String choixVente, String nomArticle, int noCategorie, Curseur curseur) {
+		this.choixUtilisateur = choixUtilisateur;
+		this.choixAchat = choixAchat;
+		this.choixVente = choixVente;
+		this.nomArticle = nomArticle == null ? "" : nomArticle;
+		this.noCategorie = noCategorie;
+		this.curseur = curseur;
+	}
+
+	String getChoixUtilisateur() {
+		return choixUtilisateur;
+	}
+
+	String getChoixAchat() {
+		return choixAchat;
+	}
+
+	String getChoixVente() {
+		return choixVente;
+	}
+
+	String getNomArticle() {
+		return nomArticle;
+	}
+
+	int getNoCategorie() {
+		return noCategorie;
+	}
+
+	Curseur getCurseur() {
+		return curseur;
+	}
+
+	//Clé du résultat dans le cache des recherches : la même recherche d'un même utilisateur
+	String cle(int noUtilisateur) {
+		StringBuilder builder = new StringBuilder();
+		builder.append(noUtilisateur).append('|');
+		builder.append(choixUtilisateur).append('|');
+		builder.append(choixAchat).append('|');
+		builder.append(choixVente).append('|');
+		builder.append(noCategorie).append('|');
+		if (curseur != null) {
+			builder.append(curseur.isPrecedent() ? '<' : '>').append(curseur.getNo_article());
+			builder.append('|').append(curseur.getCle().length()).append(':').append(curseur.getCle());
+		}
+		builder.append('|').append(nomArticle);
+		return builder.toString();
+	}
+
+}
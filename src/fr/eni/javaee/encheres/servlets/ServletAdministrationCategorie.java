@@ -97,12 +97,12 @@ public class ServletAdministrationCategorie extends HttpServlet {
 				int noCategorie;
 				Categorie categorie = null;
 				noCategorie = Integer.parseInt(request.getParameter("categorie"));
-				//Récupération catégorie
-				if (noCategorie > 0) {
-					categorie = selectionnerUneCategorie(noCategorie);
+				//Récupération catégorie : copie modifiée, la catégorie en cache reste intacte
+				if (noCategorie > 0 && selectionnerUneCategorie(noCategorie) != null) {
+					categorie = new Categorie(request.getParameter("libelle"));
+					categorie.setNo_categorie(noCategorie);
 				}
 				
-				categorie.setLibelle(request.getParameter("libelle"));
 				updateCategorie(categorie);
 			}
 			
@@ -15,6 +15,7 @@ import javax.servlet.http.HttpSession;
 
 import fr.eni.javaee.encheres.bll.UtilisateurManager;
 import fr.eni.javaee.encheres.bo.Utilisateur;
+import fr.eni.javaee.encheres.bo.UtilisateurConnecte;
 import fr.eni.javaee.encheres.messages.BusinessException;
 
 /**
@@ -40,9 +41,11 @@ public class ServletCompte extends HttpServlet {
 			rd.forward(request, response);
 		}else if (request.getServletPath().equals("/modifier")){
 			HttpSession session = request.getSession();
-			Utilisateur utilisateur = (Utilisateur) session.getAttribute("utilisateur");
-			UtilisateurManager manager = new UtilisateurManager();
-			int id = utilisateur.getNo_utilisateur();
+			UtilisateurConnecte connecte = (UtilisateurConnecte) session.getAttribute("utilisateur");
+			UtilisateurManager manager = UtilisateurManager.getInstance();
+			int id = connecte.getNo_utilisateur();
+			//Profil complet, transmis à la page seulement
+			Utilisateur utilisateur = null;
 			try {
 				utilisateur = manager.getUtilisateur(id);
 			} catch (BusinessException e) {
@@ -52,7 +55,7 @@ public class ServletCompte extends HttpServlet {
 				e.printStackTrace();
 				request.setAttribute("listeCodesErreur", listeCodesErreur);
 			}
-			session.setAttribute("utilisateur", utilisateur);
+			request.setAttribute("utilisateur", utilisateur);
 			RequestDispatcher rd = request.getRequestDispatcher("/WEB-INF/jsp/compte.jsp");
 			rd.forward(request, response);
 		}
@@ -69,10 +72,10 @@ public class ServletCompte extends HttpServlet {
 		
 		//Cas de la suppression
 		if(request.getServletPath().equals("/supprimer")){
-			UtilisateurManager manager = new UtilisateurManager();
-			Utilisateur utilisateur = (Utilisateur) session.getAttribute("utilisateur");
+			UtilisateurManager manager = UtilisateurManager.getInstance();
+			UtilisateurConnecte connecte = (UtilisateurConnecte) session.getAttribute("utilisateur");
 			try {
-				manager.supprimerUtilisateur(utilisateur.getNo_utilisateur());
+				manager.supprimerUtilisateur(connecte.getNo_utilisateur());
 				response.sendRedirect(request.getContextPath()+"/ListeEncheres");
 			} catch (BusinessException e) {
 				for (int err : e.getListeCodesErreur()) {
@@ -115,7 +118,7 @@ public class ServletCompte extends HttpServlet {
 			//Si mot de passe validé 	
 			}else {
 				utilisateur.setMot_de_passe(request.getParameter("mot_de_passe"));
-				UtilisateurManager manager = new UtilisateurManager();
+				UtilisateurManager manager = UtilisateurManager.getInstance();
 				if(request.getServletPath().equals("/creer"))
 				{
 					try {
@@ -130,6 +133,9 @@ public class ServletCompte extends HttpServlet {
 					}
 				}else if (request.getServletPath().equals("/modifier")){
 					try {
+						//Le profil modifié est celui de l'utilisateur connecté
+						UtilisateurConnecte connecte = (UtilisateurConnecte) session.getAttribute("utilisateur");
+						utilisateur.setNo_utilisateur(connecte.getNo_utilisateur());
 						manager.modifierUtilisateur(utilisateur);
 					} catch (BusinessException e) {
 						for (int err : e.getListeCodesErreur()) {
@@ -140,7 +146,8 @@ public class ServletCompte extends HttpServlet {
 						rd.forward(request, response);
 					}
 				}
-				session.setAttribute("utilisateur", utilisateur);
+				UtilisateurConnecte connecte = (UtilisateurConnecte) session.getAttribute("utilisateur");
+				session.setAttribute("utilisateur", connecte == null ? UtilisateurConnecte.de(utilisateur) : connecte.modifie(utilisateur));
 				response.sendRedirect(request.getContextPath()+"/ListeEncheres");
 			}
 		}
@@ -15,6 +15,7 @@ import javax.servlet.http.HttpSession;
 
 import fr.eni.javaee.encheres.bll.UtilisateurManager;
 import fr.eni.javaee.encheres.bo.Utilisateur;
+import fr.eni.javaee.encheres.bo.UtilisateurConnecte;
 import fr.eni.javaee.encheres.messages.BusinessException;
 
 /**
@@ -67,7 +68,7 @@ public class ServletConnexion extends HttpServlet {
 		String identifiant = request.getParameter("identifiant");
 		String mot_de_passe = request.getParameter("mot_de_passe");
 		//Récupération de l'utilisateur, soit par pseudo, soit par email.
-		UtilisateurManager manager = new UtilisateurManager();
+		UtilisateurManager manager = UtilisateurManager.getInstance();
 		if (identifiant.contains("@")){
 			utilisateur.setEmail(identifiant);
 			try {
@@ -119,7 +120,7 @@ public class ServletConnexion extends HttpServlet {
 				password.setMaxAge(100);
 				response.addCookie(password);
 			}
-			session.setAttribute("utilisateur", utilisateur);
+			session.setAttribute("utilisateur", UtilisateurConnecte.de(utilisateur));
 			//Deconnexion au bout de 5 minutes d'inactivité
 			session.setMaxInactiveInterval(300);
 			
@@ -16,12 +16,15 @@ import javax.servlet.http.HttpServletResponse;
 import javax.servlet.http.HttpSession;
 
 import fr.eni.javaee.encheres.bll.ArticleVenduManager;
+import fr.eni.javaee.encheres.bll.CacheMeilleuresEncheres.Meilleure;
 import fr.eni.javaee.encheres.bll.EnchereManager;
 import fr.eni.javaee.encheres.bll.RetraitManager;
+import fr.eni.javaee.encheres.bll.UtilisateurManager;
 import fr.eni.javaee.encheres.bo.ArticleVendu;
 import fr.eni.javaee.encheres.bo.Enchere;
 import fr.eni.javaee.encheres.bo.Retrait;
 import fr.eni.javaee.encheres.bo.Utilisateur;
+import fr.eni.javaee.encheres.bo.UtilisateurConnecte;
 import fr.eni.javaee.encheres.messages.BusinessException;
 import fr.eni.javaee.encheres.messages.LecteurMessage;
 
@@ -56,10 +59,12 @@ public class ServletEnchere extends HttpServlet {
 		// Récupère les valeurs du formulaire
 		int no_article = 0;
 		int montant_enchere = 0;
+		int montant_maximum = 0;
 		int retraitEffectue = 0;
 		
 		no_article = lireParametreInt(request, "no_article", listeCodesErreur);
 		montant_enchere = lireParametreInt(request, "prix_vente", listeCodesErreur);
+		montant_maximum = lireParametreInt(request, "montant_maximum", listeCodesErreur);
 		retraitEffectue = lireParametreInt(request, "retraitEffectue", listeCodesErreur);
 
 		// soumet l'enchere
@@ -67,7 +72,9 @@ public class ServletEnchere extends HttpServlet {
 			
 			try {
 				HttpSession session = request.getSession();
-				Utilisateur encherisseur = (Utilisateur)session.getAttribute("utilisateur");
+				// profil complet de l'enchérisseur, lu à travers le cache des utilisateurs
+				UtilisateurConnecte connecte = (UtilisateurConnecte)session.getAttribute("utilisateur");
+				Utilisateur encherisseur = UtilisateurManager.getInstance().getUtilisateur(connecte.getNo_utilisateur());
 				
 				ArticleVenduManager articleVenduManager = ArticleVenduManager.getInstance();
 				ArticleVendu articleVendu = new ArticleVendu();
@@ -85,6 +92,7 @@ public class ServletEnchere extends HttpServlet {
 						enchere.setEncherisseur(encherisseur);
 						enchere.setDate_enchere(date_enchere);
 						enchere.setMontant_enchere(montant_enchere);
+						enchere.setMontant_maximum(montant_maximum);
 						
 						EnchereManager enchereManager = EnchereManager.getInstance();
 						enchereManager.createEnchere(enchere);
@@ -178,19 +186,17 @@ public class ServletEnchere extends HttpServlet {
 		
 		// l'encherisseur ne peut pas encherir sur lui-meme : masque bouton
 		if(modifiable) {
-			Utilisateur encherisseur = null;
-			Utilisateur utilisateur = null;
-			Enchere enchere = null;
+			UtilisateurConnecte utilisateur = null;
+			Meilleure enchere = null;
 			EnchereManager enchereManager = EnchereManager.getInstance();
 
 			try {
 				enchere = enchereManager.getMeilleureEnchere(articleVendu.getNo_article());
 				if (enchere != null) {
-					encherisseur = enchere.getEncherisseur();
 					HttpSession session = request.getSession();
-					utilisateur = (Utilisateur)session.getAttribute("utilisateur");
-					if(utilisateur!=null && encherisseur!=null){
-						if(utilisateur.getNo_utilisateur()==encherisseur.getNo_utilisateur()) {
+					utilisateur = (UtilisateurConnecte)session.getAttribute("utilisateur");
+					if(utilisateur!=null){
+						if(utilisateur.getNo_utilisateur()==enchere.getNo_utilisateur()) {
 							modifiable = Boolean.FALSE;
 						}
 					}
@@ -248,22 +254,20 @@ public class ServletEnchere extends HttpServlet {
 				Boolean soyerLePremier = Boolean.FALSE;
 				Boolean enchereMenee = Boolean.FALSE;
 				Boolean enchereRemportee = Boolean.FALSE;
-				Utilisateur utilisateur = null;
+				UtilisateurConnecte utilisateur = null;
 				
 				EnchereManager enchereManager = EnchereManager.getInstance();
-				Enchere meilleureEnchere = enchereManager.getMeilleureEnchere(no_article);
+				Meilleure meilleureEnchere = enchereManager.getMeilleureEnchere(no_article);
 				
 				if(meilleureEnchere!=null) {
 					
-					Utilisateur meilleurEncherisseur = meilleureEnchere.getEncherisseur();
-					
-					if(meilleurEncherisseur!=null) {
-						encherisseur = "par " + meilleurEncherisseur.getPseudo();
+					if(meilleureEnchere.getNo_utilisateur()>0) {
+						encherisseur = "par " + meilleureEnchere.getPseudo();
 						
 						HttpSession session = request.getSession();
-						utilisateur = (Utilisateur)session.getAttribute("utilisateur");
+						utilisateur = (UtilisateurConnecte)session.getAttribute("utilisateur");
 						
-						if(utilisateur.getNo_utilisateur() == meilleurEncherisseur.getNo_utilisateur()) {
+						if(utilisateur.getNo_utilisateur() == meilleureEnchere.getNo_utilisateur()) {
 							
 							if(articleVendu.getDate_fin_encheres().isBefore(today)) {
 								enchereRemportee = Boolean.TRUE;
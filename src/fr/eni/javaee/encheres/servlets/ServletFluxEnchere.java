@@ -0,0 +1,79 @@
+package fr.eni.javaee.encheres.servlets;
+
+import java.io.IOException;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.ServletException;
+import javax.servlet.annotation.WebServlet;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import fr.eni.javaee.encheres.bll.CacheMeilleuresEncheres.Meilleure;
+import fr.eni.javaee.encheres.bll.EnchereManager;
+import fr.eni.javaee.encheres.bll.MoteurEncheres;
+import fr.eni.javaee.encheres.messages.BusinessException;
+
+/**
+ * Flux Server-Sent Events du prix et du meilleur enchérisseur d'un article.
+ * La page enchere s'y abonne au lieu d'être rechargée : la requête reste ouverte en mode
+ * asynchrone et reçoit un événement à chaque enchère acceptée par le moteur.
+ */
+@WebServlet(urlPatterns = "/enchere/flux", asyncSupported = true)
+
+public class ServletFluxEnchere extends HttpServlet {
+	private static final long serialVersionUID = 1L;
+
+	// Au-delà, la requête est terminée : le navigateur se reconnecte de lui-même
+	private static final long DUREE_ABONNEMENT = 5 * 60 * 1000;
+
+	private DiffusionEncheres diffusion;
+
+	@Override
+	public void init() throws ServletException {
+		diffusion = new DiffusionEncheres();
+		MoteurEncheres.getInstance().ajouterEcouteur(diffusion);
+	}
+
+	@Override
+	public void destroy() {
+		MoteurEncheres.getInstance().retirerEcouteur(diffusion);
+		diffusion.arreter();
+	}
+
+	/**
+	 * @see HttpServlet#doGet(HttpServletRequest request, HttpServletResponse response)
+	 */
+	protected void doGet(HttpServletRequest request, HttpServletResponse response) throws ServletException, IOException {
+
+		int no_article = 0;
+		try {
+			no_article = Integer.parseInt(request.getParameter("no_article"));
+		} catch (NumberFormatException e) {
+			// traité ci-dessous
+		}
+		if (no_article <= 0) {
+			response.sendError(HttpServletResponse.SC_BAD_REQUEST);
+			return;
+		}
+
+		response.setContentType("text/event-stream");
+		response.setCharacterEncoding("UTF-8");
+		response.setHeader("Cache-Control", "no-cache");
+
+		AsyncContext contexte = request.startAsync();
+		contexte.setTimeout(DUREE_ABONNEMENT);
+		DiffusionEncheres.Abonne abonne = diffusion.abonner(no_article, contexte);
+
+		// état courant : une reconnexion rattrape les enchères faites pendant la coupure
+		try {
+			Meilleure meilleure = EnchereManager.getInstance().getMeilleureEnchere(no_article);
+			if (meilleure != null) {
+				diffusion.envoyer(abonne, meilleure.getMontant(), meilleure.getPseudo());
+			}
+		} catch (BusinessException e) {
+			e.printStackTrace();
+		}
+	}
+
+}
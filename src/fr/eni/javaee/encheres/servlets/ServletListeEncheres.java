@@ -8,19 +8,23 @@ import java.util.Random;
 import javax.servlet.RequestDispatcher;
 import javax.servlet.ServletException;
 import javax.servlet.annotation.WebServlet;
-import javax.servlet.http.Cookie;
 import javax.servlet.http.HttpServlet;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import javax.servlet.http.HttpSession;
 
 import fr.eni.javaee.encheres.bll.ArticleVenduManager;
+import fr.eni.javaee.encheres.bll.CacheRecherches;
+import fr.eni.javaee.encheres.bll.CacheRecherches.Ligne;
 import fr.eni.javaee.encheres.bll.CategorieManager;
+import fr.eni.javaee.encheres.bll.JournalPrix;
 import fr.eni.javaee.encheres.bll.UtilisateurManager;
 import fr.eni.javaee.encheres.bo.ArticleVendu;
 import fr.eni.javaee.encheres.bo.Categorie;
-
+import fr.eni.javaee.encheres.bo.Curseur;
+import fr.eni.javaee.encheres.bo.Page;
 import fr.eni.javaee.encheres.bo.Utilisateur;
+import fr.eni.javaee.encheres.bo.UtilisateurConnecte;
 import fr.eni.javaee.encheres.messages.BusinessException;
 
 
@@ -31,6 +35,12 @@ import fr.eni.javaee.encheres.messages.BusinessException;
 @WebServlet("/ListeEncheres")
 public class ServletListeEncheres extends HttpServlet {
 	private static final long serialVersionUID = 1L;
+	
+	// Nombre d'articles affichés par page
+	static final int TAILLE_PAGE = 20;
+	
+	// Première page de toutes les enchères en cours
+	private static final RechercheArticles RECHERCHE_PAR_DEFAUT = new RechercheArticles(null, null, null, "", -1, null);
 
 	/**
 	 * @see HttpServlet#doGet(HttpServletRequest request, HttpServletResponse response)
@@ -39,59 +49,36 @@ public class ServletListeEncheres extends HttpServlet {
 		
 		// Initialistion de la liste de codes d'erreurs
 		List<Integer> listeCodesErreur = new ArrayList<>();
-		Cookie[] cookies = request.getCookies();
 		
 		// Récupération de la session.
 		HttpSession session = request.getSession();
+		UtilisateurConnecte utilisateur = (UtilisateurConnecte) session.getAttribute("utilisateur");
 		
-		try {				
-			if (cookies != null && session.getAttribute("liste") != null && request.getParameter("reset") == null) {	
-				
-				// Récupération de la liste résultant d'une recherche
-				List<ArticleVendu> listeAvecParametres = new ArrayList<ArticleVendu>();	
-				listeAvecParametres = (List<ArticleVendu>) session.getAttribute("liste");
-				request.setAttribute("liste", listeAvecParametres);
+		try {
+			// Récupération de la liste des catégories
+			List<Categorie> listeCategories = new ArrayList<Categorie>();
+			listeCategories = selectionnerToutesLesCategories();
+			request.setAttribute("listeCategories", listeCategories);
+			
+			RechercheArticles recherche = (RechercheArticles) session.getAttribute("recherche");
+			if (recherche != null && request.getParameter("reset") == null) {
 				
-				// Récupération de cookies à afficher dans la jsp
-				for (Cookie cookie:cookies) {
-					if(cookie.getName().equals("choix")) {
-						request.setAttribute("choixUtilisateur", cookie.getValue());
-					}	
-					if(cookie.getName().equals("choixAchat")) {
-						request.setAttribute("choixAchat", cookie.getValue());
-					}	
-					if(cookie.getName().equals("choixVente")) {
-						request.setAttribute("choixVente", cookie.getValue());
-					}	
-					if(cookie.getName().equals("nomArticleSaisi")) {
-						request.setAttribute("nomArticleSaisi", cookie.getValue());
-					}		
-					if(cookie.getName().equals("categorie")) {
-						int noCategorie = Integer.parseInt(cookie.getValue());
-						request.setAttribute("choixUtilisateur", cookie.getValue());
-						//Récupération catégorie choisie
-						if (noCategorie > -1) {
-							Categorie categorieSelectionnee = selectionnerUneCategorie(noCategorie);
-							request.setAttribute("categorieSelectionnee", categorieSelectionnee);
-						}
-					}	
+				// Rappel des filtres de la dernière recherche
+				request.setAttribute("choixUtilisateur", recherche.getChoixUtilisateur());
+				request.setAttribute("choixAchat", recherche.getChoixAchat());
+				request.setAttribute("choixVente", recherche.getChoixVente());
+				request.setAttribute("nomArticleSaisi", recherche.getNomArticle());
+				if (recherche.getNoCategorie() > -1) {
+					Categorie categorieSelectionnee = selectionnerUneCategorie(recherche.getNoCategorie());
+					request.setAttribute("categorieSelectionnee", categorieSelectionnee);
 				}
-							
-				// Récupération de la liste des catégories
-				List<Categorie> listeCategories = new ArrayList<Categorie>();
-				listeCategories = selectionnerToutesLesCategories();
-				request.setAttribute("listeCategories", listeCategories);	
 				
-			} else {
-				// Récupération de la liste des catégories
-				List<Categorie> listeCategories = new ArrayList<Categorie>();
-				listeCategories = selectionnerToutesLesCategories();
-				request.setAttribute("listeCategories", listeCategories);
+				// Page de la dernière recherche, rejouée si elle n'est plus en cache
+				publierPage(request, lireRecherche(request, recherche, utilisateur));
 				
-				// Récupération de la liste de toutes les enchères en cours
-				List<ArticleVendu> listeDeToutesLesEncheresEnCours = new ArrayList<ArticleVendu>();		
-				listeDeToutesLesEncheresEnCours = selectionnerToutesLesEncheresEnCours(-1, "");
-				request.setAttribute("liste", listeDeToutesLesEncheresEnCours);
+			} else {
+				// Récupération de la première page de toutes les enchères en cours
+				publierPage(request, lireRecherche(request, RECHERCHE_PAR_DEFAUT, null));
 			}
 		} catch (BusinessException e) {
 			// Récupération de la liste des codes d'erreurs
@@ -126,45 +113,32 @@ public class ServletListeEncheres extends HttpServlet {
 		String choixUtilisateur = null;
 		String choixAchat = null;
 		String choixVente = null;
-		List<ArticleVendu> listeAvecParamètres = new ArrayList<ArticleVendu>();
+		RechercheArticles recherche = null;
+		
+		// Récupération du curseur si l'utilisateur change de page
+		Curseur curseur = lireCurseur(request);
 		
 		// Recheche avec paramètres en mode connecté avec la présence d'un utilisateur en session.
 		if(session.getAttribute("utilisateur")!=null) {
 			try {
-				// Récupération de l'identifiant de l'utilisateur
-				Utilisateur utilisateur = (Utilisateur) session.getAttribute("utilisateur");
-				int noUtilisateur = utilisateur.getNo_utilisateur();
+				// Récupération de l'utilisateur
+				UtilisateurConnecte utilisateur = (UtilisateurConnecte) session.getAttribute("utilisateur");
 				
 				// Récuparation du choix de l'utilisateur
 				choixUtilisateur = request.getParameter("choix");
 				request.setAttribute("choixUtilisateur", choixUtilisateur);
-				Cookie choixUtilisateurCookie = new Cookie("choix",choixUtilisateur);
-				choixUtilisateurCookie.setMaxAge(Integer.MAX_VALUE);
-				response.addCookie(choixUtilisateurCookie);
 				
 				choixAchat = request.getParameter("choixAchat");
 				request.setAttribute("choixAchat", choixAchat);
-				Cookie choixAchatCookie = new Cookie("choixAchat",choixAchat);
-				choixAchatCookie.setMaxAge(Integer.MAX_VALUE);
-				response.addCookie(choixAchatCookie);
 				
 				choixVente = request.getParameter("choixVente");
 				request.setAttribute("choixVente", choixVente);
-				Cookie choixVenteCookie = new Cookie("choixVente",choixVente);
-				choixVenteCookie.setMaxAge(Integer.MAX_VALUE);
-				response.addCookie(choixVenteCookie);
 				
 				//Récupération du nom de l'article à rechercher
 				nomArticle = request.getParameter("article");
 				request.setAttribute("nomArticleSaisi", nomArticle);
-				Cookie nomArticleCookie = new Cookie("nomArticleSaisi",nomArticle);
-				nomArticleCookie.setMaxAge(Integer.MAX_VALUE);
-				response.addCookie(nomArticleCookie);
 				
 				if (request.getParameter("categorie") != null) {
-					Cookie categorieCookie = new Cookie("categorie",request.getParameter("categorie"));
-					categorieCookie.setMaxAge(Integer.MAX_VALUE);
-					response.addCookie(categorieCookie);
 					noCategorie = Integer.parseInt(request.getParameter("categorie"));		
 					// Récupération catégorie choisie
 					if (noCategorie > -1) {
@@ -178,52 +152,9 @@ public class ServletListeEncheres extends HttpServlet {
 				listeCategories = selectionnerToutesLesCategories();
 				request.setAttribute("listeCategories", listeCategories);
 				
-				// Si le choix concerne les achats
-				if (choixUtilisateur != null && choixUtilisateur.equalsIgnoreCase("achats")) {
-					switch (choixAchat) {
-					case "encheresOuvertes":
-						listeAvecParamètres = selectionnerLesEncheresOuvertesAvecUnUtilisateurConnecte(noUtilisateur, noCategorie, nomArticle);
-						request.setAttribute("liste", listeAvecParamètres);
-						session.setAttribute("liste", listeAvecParamètres);
-						break;
-					case "encheresEnCours":
-						listeAvecParamètres = selectionnerLesEncheresEnCoursDeLUtilisateurConnecte(noUtilisateur, noCategorie, nomArticle);
-						request.setAttribute("liste", listeAvecParamètres);
-						session.setAttribute("liste", listeAvecParamètres);
-						break;
-					case "encheresRemportees":
-						listeAvecParamètres = selectionnerLesEncheresRemporteesParLUtilisateur(noUtilisateur, noCategorie, nomArticle);
-						request.setAttribute("liste", listeAvecParamètres);
-						session.setAttribute("liste", listeAvecParamètres);
-						break;
-					}
-				}
-				// Si le choix concerne les ventes
-				if (choixUtilisateur != null && choixUtilisateur.equalsIgnoreCase("ventes")) {
-					switch (choixVente) {
-					case "ventesEncours":
-						listeAvecParamètres = selectionnerLesVentesEnCoursDeLUtilisateur(noUtilisateur, noCategorie, nomArticle);
-						request.setAttribute("liste", listeAvecParamètres);
-						session.setAttribute("liste", listeAvecParamètres);
-						break;
-					case "ventesNonDebutees":
-						listeAvecParamètres = selectionnerLesVentesNonDebuteesDeLUtilisateur(noUtilisateur, noCategorie, nomArticle);
-						request.setAttribute("liste", listeAvecParamètres);
-						session.setAttribute("liste", listeAvecParamètres);
-						break;
-					case "ventesTerminees":
-						listeAvecParamètres = selectionnerLesVentesTermineesDeLUtilisateur(noUtilisateur, noCategorie, nomArticle);
-						request.setAttribute("liste", listeAvecParamètres);
-						session.setAttribute("liste", listeAvecParamètres);
-						break;
-					}
-				}
-				
-				if (choixUtilisateur == null) {
-					listeAvecParamètres = selectionnerToutesLesEncheresEnCours(noCategorie, nomArticle);
-					request.setAttribute("liste", listeAvecParamètres);
-					session.setAttribute("liste", listeAvecParamètres);
-				}
+				// Exécution de la recherche, conservée en session pour le retour sur la liste
+				recherche = new RechercheArticles(choixUtilisateur, choixAchat, choixVente, nomArticle, noCategorie, curseur);
+				publierPage(request, executerRecherche(request, session, recherche, utilisateur));
 			} catch (BusinessException e) {
 				// Récupération de la liste des codes d'erreurs
 				for (int err : e.getListeCodesErreur()) {
@@ -239,10 +170,6 @@ public class ServletListeEncheres extends HttpServlet {
 				nomArticle = request.getParameter("article");
 				request.setAttribute("nomArticleSaisi", nomArticle);
 				
-				
-				Cookie categorieCookie = new Cookie("categorie",request.getParameter("categorie"));
-				categorieCookie.setMaxAge(Integer.MAX_VALUE);
-				response.addCookie(categorieCookie);
 				noCategorie = Integer.parseInt(request.getParameter("categorie"));
 				//Récupération catégorie choisie
 				if (noCategorie > -1) {
@@ -256,9 +183,8 @@ public class ServletListeEncheres extends HttpServlet {
 				request.setAttribute("listeCategories", listeCategories);
 				
 				//Récupération des listes
-				listeAvecParamètres = selectionnerToutesLesEncheresEnCours(noCategorie, nomArticle);
-				request.setAttribute("liste", listeAvecParamètres);
-				session.setAttribute("liste", listeAvecParamètres);
+				recherche = new RechercheArticles(null, null, null, nomArticle, noCategorie, curseur);
+				publierPage(request, executerRecherche(request, session, recherche, null));
 			} catch(NumberFormatException e) {
 				listeCodesErreur.add(CodesResultatServlets.FORMAT_NUMERO_CATEGORIE_ERREUR);
 				request.setAttribute("listeCodesErreur", listeCodesErreur);
@@ -276,6 +202,141 @@ public class ServletListeEncheres extends HttpServlet {
 	}
 	
 	
+	/**
+	 * Lit le curseur transmis par les boutons de pagination
+	 * @param HttpServletRequest request
+	 * @return Curseur curseur, null pour la première page
+	 */
+	private Curseur lireCurseur(HttpServletRequest request) {
+		Curseur curseur = null;
+		String cle = request.getParameter("curseurCle");
+		String no = request.getParameter("curseurNo");
+		if (cle != null && no != null && !no.isEmpty()) {
+			try {
+				curseur = new Curseur(cle, Integer.parseInt(no), "precedent".equals(request.getParameter("sens")));
+			} catch (NumberFormatException e) {
+				// curseur invalide : retour à la première page
+				curseur = null;
+			}
+			// clé modifiée par le client (texte à la place d'une date ou d'un prix) : retour à la première page
+			if (curseur != null && !ArticleVenduManager.getInstance().isCurseurValide(curseur)) {
+				curseur = null;
+			}
+		}
+		return curseur;
+	}
+	
+	/**
+	 * Transmet la page à la jsp
+	 * @param HttpServletRequest request
+	 * @param Page<Ligne> page
+	 */
+	private void publierPage(HttpServletRequest request, Page<Ligne> page) {
+		if (page != null) {
+			request.setAttribute("liste", page.getElements());
+			request.setAttribute("page", page);
+		}
+	}
+	
+	/**
+	 * Page de la recherche reprise du cache des recherches, ou exécutée puis mise en cache
+	 * @param HttpServletRequest request
+	 * @param RechercheArticles recherche
+	 * @param UtilisateurConnecte utilisateur
+	 * @return Page<Ligne> page
+	 * @throws BusinessException
+	 */
+	private Page<Ligne> lireRecherche(HttpServletRequest request, RechercheArticles recherche, UtilisateurConnecte utilisateur) throws BusinessException {
+		String cle = recherche.cle(utilisateur == null ? 0 : utilisateur.getNo_utilisateur());
+		CacheRecherches.Resultat resultat = CacheRecherches.getInstance().get(cle);
+		if (resultat != null) {
+			request.setAttribute("versionPrix", resultat.getVersionPrix());
+			return resultat.getPage();
+		}
+		return executer(request, recherche, utilisateur, cle);
+	}
+	
+	/**
+	 * Exécute une nouvelle recherche et la conserve en session
+	 * @param HttpServletRequest request
+	 * @param HttpSession session
+	 * @param RechercheArticles recherche
+	 * @param UtilisateurConnecte utilisateur
+	 * @return Page<Ligne> page
+	 * @throws BusinessException
+	 */
+	private Page<Ligne> executerRecherche(HttpServletRequest request, HttpSession session, RechercheArticles recherche, UtilisateurConnecte utilisateur) throws BusinessException {
+		session.setAttribute("recherche", recherche);
+		return executer(request, recherche, utilisateur, recherche.cle(utilisateur == null ? 0 : utilisateur.getNo_utilisateur()));
+	}
+	
+	private Page<Ligne> executer(HttpServletRequest request, RechercheArticles recherche, UtilisateurConnecte utilisateur, String cle) throws BusinessException {
+		// Version des prix affichés, lue avant la liste
+		long versionPrix = JournalPrix.getInstance().getVersion();
+		request.setAttribute("versionPrix", versionPrix);
+		
+		Page<ArticleVendu> page = selectionnerLaPage(recherche, utilisateur);
+		if (page == null) {
+			return null;
+		}
+		// les enchères en cours ou remportées de l'utilisateur changent à chaque enchère acceptée
+		boolean suitLesEncheres = utilisateur != null && "achats".equalsIgnoreCase(recherche.getChoixUtilisateur())
+				&& ("encheresEnCours".equals(recherche.getChoixAchat()) || "encheresRemportees".equals(recherche.getChoixAchat()));
+		return CacheRecherches.getInstance().mettre(cle, page, versionPrix, suitLesEncheres);
+	}
+	
+	/**
+	 * Sélectionne la page correspondant aux choix de la recherche
+	 * @param RechercheArticles recherche
+	 * @param UtilisateurConnecte utilisateur connecté, null sinon
+	 * @return Page<ArticleVendu> page, null si les choix ne correspondent à aucune liste
+	 * @throws BusinessException
+	 */
+	private Page<ArticleVendu> selectionnerLaPage(RechercheArticles recherche, UtilisateurConnecte utilisateur) throws BusinessException {
+		
+		int noCategorie = recherche.getNoCategorie();
+		String nomArticle = recherche.getNomArticle();
+		Curseur curseur = recherche.getCurseur();
+		String choixUtilisateur = recherche.getChoixUtilisateur();
+		
+		if (utilisateur == null || choixUtilisateur == null) {
+			return selectionnerToutesLesEncheresEnCours(noCategorie, nomArticle, curseur);
+		}
+		
+		int noUtilisateur = utilisateur.getNo_utilisateur();
+		Page<ArticleVendu> page = null;
+		
+		// Si le choix concerne les achats
+		if (choixUtilisateur.equalsIgnoreCase("achats") && recherche.getChoixAchat() != null) {
+			switch (recherche.getChoixAchat()) {
+			case "encheresOuvertes":
+				page = selectionnerLesEncheresOuvertesAvecUnUtilisateurConnecte(noUtilisateur, noCategorie, nomArticle, curseur);
+				break;
+			case "encheresEnCours":
+				page = selectionnerLesEncheresEnCoursDeLUtilisateurConnecte(noUtilisateur, noCategorie, nomArticle, curseur);
+				break;
+			case "encheresRemportees":
+				page = selectionnerLesEncheresRemporteesParLUtilisateur(noUtilisateur, noCategorie, nomArticle, curseur);
+				break;
+			}
+		}
+		// Si le choix concerne les ventes
+		if (choixUtilisateur.equalsIgnoreCase("ventes") && recherche.getChoixVente() != null) {
+			switch (recherche.getChoixVente()) {
+			case "ventesEncours":
+				page = selectionnerLesVentesEnCoursDeLUtilisateur(noUtilisateur, noCategorie, nomArticle, curseur);
+				break;
+			case "ventesNonDebutees":
+				page = selectionnerLesVentesNonDebuteesDeLUtilisateur(noUtilisateur, noCategorie, nomArticle, curseur);
+				break;
+			case "ventesTerminees":
+				page = selectionnerLesVentesTermineesDeLUtilisateur(noUtilisateur, noCategorie, nomArticle, curseur);
+				break;
+			}
+		}
+		return page;
+	}
+	
 	//--------------------------------------------------------------------------------------------------------------------------------------------------//
 	// Méthodes utilisant les managers
 	//--------------------------------------------------------------------------------------------------------------------------------------------------//
@@ -307,14 +368,13 @@ public class ServletListeEncheres extends HttpServlet {
 	/**
 	 * @param int noCategorie
 	 * @param  String nomArticle
-	 * @return List<ArticleVendu> listeArticlesVendus
+	 * @param Curseur curseur
+	 * @return Page<ArticleVendu> pageArticlesVendus
 	 * @throws BusinessException
 	 */
-	public List<ArticleVendu> selectionnerToutesLesEncheresEnCours(int noCategorie,String nomArticle) throws BusinessException{
-		List<ArticleVendu> listeArticlesVendus = new ArrayList<ArticleVendu>();
+	public Page<ArticleVendu> selectionnerToutesLesEncheresEnCours(int noCategorie,String nomArticle, Curseur curseur) throws BusinessException{
 		ArticleVenduManager avm = ArticleVenduManager.getInstance();
-		listeArticlesVendus = avm.getListeEncheresEncoursToutes(noCategorie,nomArticle);
-		return listeArticlesVendus;
+		return avm.getPageEncheresEncoursToutes(noCategorie, nomArticle, curseur, TAILLE_PAGE);
 	}
 	
 	/**
@@ -333,70 +393,65 @@ public class ServletListeEncheres extends HttpServlet {
 	 * @param int no_utilisateur
 	 * @param int no_categorie
 	 * @param String nom_article
-	 * @return List<ArticleVendu> listeArticlesVendus
+	 * @param Curseur curseur
+	 * @return Page<ArticleVendu> pageArticlesVendus
 	 * @throws BusinessException
 	 */
-	public List<ArticleVendu> selectionnerLesEncheresOuvertesAvecUnUtilisateurConnecte(int no_utilisateur, int no_categorie, String nom_article) throws BusinessException {
-		List<ArticleVendu> listeArticlesVendus = new ArrayList<ArticleVendu>();
+	public Page<ArticleVendu> selectionnerLesEncheresOuvertesAvecUnUtilisateurConnecte(int no_utilisateur, int no_categorie, String nom_article, Curseur curseur) throws BusinessException{
 		ArticleVenduManager avm = ArticleVenduManager.getInstance();
-		listeArticlesVendus = avm.getListeEncheresEncoursAutresVendeurs(no_utilisateur, no_categorie, nom_article);
-		return listeArticlesVendus;
+		return avm.getPageEncheresEncoursAutresVendeurs(no_utilisateur, no_categorie, nom_article, curseur, TAILLE_PAGE);
 	}
 	
 	/**
 	 * @param int no_utilisateur
 	 * @param int no_categorie
 	 * @param String nom_article
-	 * @return List<ArticleVendu> listeArticlesVendus
+	 * @param Curseur curseur
+	 * @return Page<ArticleVendu> pageArticlesVendus
 	 * @throws BusinessException
 	 */
-	public List<ArticleVendu> selectionnerLesEncheresEnCoursDeLUtilisateurConnecte(int no_utilisateur, int no_categorie, String nom_article) throws BusinessException {
-		List<ArticleVendu> listeArticlesVendus = new ArrayList<ArticleVendu>();
+	public Page<ArticleVendu> selectionnerLesEncheresEnCoursDeLUtilisateurConnecte(int no_utilisateur, int no_categorie, String nom_article, Curseur curseur) throws BusinessException{
 		ArticleVenduManager avm = ArticleVenduManager.getInstance();
-		listeArticlesVendus = avm.getListeEncheresEncoursUtilisateur(no_utilisateur, no_categorie, nom_article);
-		return listeArticlesVendus;
+		return avm.getPageEncheresEncoursUtilisateur(no_utilisateur, no_categorie, nom_article, curseur, TAILLE_PAGE);
 	}
 	
 	/**
 	 * @param int no_utilisateur
 	 * @param int o_categorie
 	 * @param String nom_article
-	 * @return List<ArticleVendu> listeArticlesVendus
+	 * @param Curseur curseur
+	 * @return Page<ArticleVendu> pageArticlesVendus
 	 * @throws BusinessException
 	 */
-	public List<ArticleVendu> selectionnerLesEncheresRemporteesParLUtilisateur(int no_utilisateur, int no_categorie, String nom_article) throws BusinessException {
-		List<ArticleVendu> listeArticlesVendus = new ArrayList<ArticleVendu>();
+	public Page<ArticleVendu> selectionnerLesEncheresRemporteesParLUtilisateur(int no_utilisateur, int no_categorie, String nom_article, Curseur curseur) throws BusinessException{
 		ArticleVenduManager avm = ArticleVenduManager.getInstance();
-		listeArticlesVendus = avm.getListeEncheresRemporteesUtilisateur(no_utilisateur, no_categorie, nom_article);
-		return listeArticlesVendus;
+		return avm.getPageEncheresRemporteesUtilisateur(no_utilisateur, no_categorie, nom_article, curseur, TAILLE_PAGE);
 	}
 	
 	/**
 	 * @param int no_utilisateur
 	 * @param int no_categorie
 	 * @param String nom_article
-	 * @return List<ArticleVendu> listeArticlesVendus
+	 * @param Curseur curseur
+	 * @return Page<ArticleVendu> pageArticlesVendus
 	 * @throws BusinessException
 	 */
-	public List<ArticleVendu> selectionnerLesVentesEnCoursDeLUtilisateur(int no_utilisateur, int no_categorie, String nom_article) throws BusinessException {
-		List<ArticleVendu> listeArticlesVendus = new ArrayList<ArticleVendu>();
+	public Page<ArticleVendu> selectionnerLesVentesEnCoursDeLUtilisateur(int no_utilisateur, int no_categorie, String nom_article, Curseur curseur) throws BusinessException{
 		ArticleVenduManager avm = ArticleVenduManager.getInstance();
-		listeArticlesVendus = avm.getListeVentesEncoursUtilisateur(no_utilisateur, no_categorie, nom_article);
-		return listeArticlesVendus;
+		return avm.getPageVentesEncoursUtilisateur(no_utilisateur, no_categorie, nom_article, curseur, TAILLE_PAGE);
 	}
 	
 	/**
 	 * @param int no_utilisateur
 	 * @param int no_categorie
 	 * @param String nom_article
-	 * @return List<ArticleVendu> listeArticlesVendus
+	 * @param Curseur curseur
+	 * @return Page<ArticleVendu> pageArticlesVendus
 	 * @throws BusinessException
 	 */
-	public List<ArticleVendu> selectionnerLesVentesNonDebuteesDeLUtilisateur(int no_utilisateur, int no_categorie, String nom_article) throws BusinessException {
-		List<ArticleVendu> listeArticlesVendus = new ArrayList<ArticleVendu>();
+	public Page<ArticleVendu> selectionnerLesVentesNonDebuteesDeLUtilisateur(int no_utilisateur, int no_categorie, String nom_article, Curseur curseur) throws BusinessException{
 		ArticleVenduManager avm = ArticleVenduManager.getInstance();
-		listeArticlesVendus = avm.getListeVentesAVenirsUtilisateur(no_utilisateur, no_categorie, nom_article);
-		return listeArticlesVendus;
+		return avm.getPageVentesAVenirsUtilisateur(no_utilisateur, no_categorie, nom_article, curseur, TAILLE_PAGE);
 	}
 	
 	
@@ -404,14 +459,13 @@ public class ServletListeEncheres extends HttpServlet {
 	 * @param int no_utilisateur
 	 * @param int no_categorie
 	 * @param String nom_article
-	 * @return List<ArticleVendu> listeArticlesVendus
+	 * @param Curseur curseur
+	 * @return Page<ArticleVendu> pageArticlesVendus
 	 * @throws BusinessException
 	 */
-	public List<ArticleVendu> selectionnerLesVentesTermineesDeLUtilisateur(int no_utilisateur, int no_categorie, String nom_article) throws BusinessException {
-		List<ArticleVendu> listeArticlesVendus = new ArrayList<ArticleVendu>();
+	public Page<ArticleVendu> selectionnerLesVentesTermineesDeLUtilisateur(int no_utilisateur, int no_categorie, String nom_article, Curseur curseur) throws BusinessException{
 		ArticleVenduManager avm = ArticleVenduManager.getInstance();
-		listeArticlesVendus = avm.getListeVentesTermineesUtilisateur(no_utilisateur, no_categorie, nom_article);
-		return listeArticlesVendus;
+		return avm.getPageVentesTermineesUtilisateur(no_utilisateur, no_categorie, nom_article, curseur, TAILLE_PAGE);
 	}
 
 }
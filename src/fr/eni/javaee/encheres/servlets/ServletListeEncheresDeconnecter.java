@@ -16,6 +16,7 @@ import fr.eni.javaee.encheres.bll.ArticleVenduManager;
 import fr.eni.javaee.encheres.bll.CategorieManager;
 import fr.eni.javaee.encheres.bo.ArticleVendu;
 import fr.eni.javaee.encheres.bo.Categorie;
+import fr.eni.javaee.encheres.bo.Page;
 import fr.eni.javaee.encheres.messages.BusinessException;
 
 /**
@@ -46,6 +47,9 @@ public class ServletListeEncheresDeconnecter extends HttpServlet {
 			session.setAttribute("utilisateur", null);
 		}
 		
+		// Suppression de la dernière recherche de l'utilisateur
+		session.removeAttribute("recherche");
+		
 		// Initialistion de la liste de codes d'erreurs
 		List<Integer> listeCodesErreur = new ArrayList<>();
 		
@@ -55,10 +59,10 @@ public class ServletListeEncheresDeconnecter extends HttpServlet {
 			listeCategories = selectionnerToutesLesCategories();
 			request.setAttribute("listeCategories", listeCategories);
 			
-			// Récupération de la liste de toutes les enchères en cours
-			List<ArticleVendu> listeDeToutesLesEncheresEnCours = new ArrayList<ArticleVendu>();		
-			listeDeToutesLesEncheresEnCours = selectionnerToutesLesEncheresEnCours(-1, "");
-			request.setAttribute("liste", listeDeToutesLesEncheresEnCours);	
+			// Récupération de la première page de toutes les enchères en cours
+			Page<ArticleVendu> pageDeToutesLesEncheresEnCours = selectionnerToutesLesEncheresEnCours(-1, "");
+			request.setAttribute("liste", pageDeToutesLesEncheresEnCours.getElements());
+			request.setAttribute("page", pageDeToutesLesEncheresEnCours);
 			
 		} catch (BusinessException e) {
 			// Récupération de la liste des codes d'erreurs
@@ -92,14 +96,12 @@ public class ServletListeEncheresDeconnecter extends HttpServlet {
 	/**
 	 * @param int noCategorie
 	 * @param String nomArticle
-	 * @return List<ArticleVendu> listeArticlesVendus
+	 * @return Page<ArticleVendu> pageArticlesVendus
 	 * @throws BusinessException
 	 */
-	public List<ArticleVendu> selectionnerToutesLesEncheresEnCours(int noCategorie,String nomArticle) throws BusinessException{
-		List<ArticleVendu> listeArticlesVendus = new ArrayList<ArticleVendu>();
+	public Page<ArticleVendu> selectionnerToutesLesEncheresEnCours(int noCategorie,String nomArticle) throws BusinessException{
 		ArticleVenduManager avm = ArticleVenduManager.getInstance();
-		listeArticlesVendus = avm.getListeEncheresEncoursToutes(noCategorie,nomArticle);
-		return listeArticlesVendus;
+		return avm.getPageEncheresEncoursToutes(noCategorie, nomArticle, null, ServletListeEncheres.TAILLE_PAGE);
 	}
 
 
@@ -0,0 +1,83 @@
+package fr.eni.javaee.encheres.servlets;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.servlet.ServletException;
+import javax.servlet.annotation.WebServlet;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import fr.eni.javaee.encheres.bll.JournalPrix;
+import fr.eni.javaee.encheres.bll.JournalPrix.Changement;
+
+/**
+ * Prix des articles de la liste des enchères modifiés depuis une version.
+ * GET /ListeEncheres/prix?version=V&no_article=1&no_article=2...
+ * répond {"version":W,"prix":[{"no_article":1,"prix":..,"encherisseur":".."}]}
+ * La page rappelle ensuite avec la version W.
+ */
+@WebServlet("/ListeEncheres/prix")
+
+public class ServletPrixArticles extends HttpServlet {
+	private static final long serialVersionUID = 1L;
+
+	// Une page de la liste n'affiche jamais autant d'articles
+	private static final int NOMBRE_ARTICLES_MAX = 200;
+
+	/**
+	 * @see HttpServlet#doGet(HttpServletRequest request, HttpServletResponse response)
+	 */
+	protected void doGet(HttpServletRequest request, HttpServletResponse response) throws ServletException, IOException {
+
+		List<Integer> no_articles = new ArrayList<>();
+		long depuis = 0;
+		try {
+			String[] valeurs = request.getParameterValues("no_article");
+			if (valeurs != null) {
+				for (String valeur : valeurs) {
+					no_articles.add(Integer.parseInt(valeur));
+				}
+			}
+			if (request.getParameter("version") != null) {
+				depuis = Long.parseLong(request.getParameter("version"));
+			}
+		} catch (NumberFormatException e) {
+			response.sendError(HttpServletResponse.SC_BAD_REQUEST);
+			return;
+		}
+		if (no_articles.size() > NOMBRE_ARTICLES_MAX) {
+			response.sendError(HttpServletResponse.SC_BAD_REQUEST);
+			return;
+		}
+
+		// version lue avant les changements : un changement concurrent sera renvoyé au prochain appel
+		JournalPrix journal = JournalPrix.getInstance();
+		long version = journal.getVersion();
+		List<Changement> changements = journal.getChangements(no_articles, depuis);
+
+		StringBuilder builder = new StringBuilder("{\"version\":");
+		builder.append(version);
+		builder.append(",\"prix\":[");
+		for (int i = 0; i < changements.size(); i++) {
+			Changement changement = changements.get(i);
+			if (i > 0) {
+				builder.append(',');
+			}
+			builder.append("{\"no_article\":").append(changement.getNo_article());
+			builder.append(",\"prix\":").append(changement.getPrix());
+			builder.append(",\"encherisseur\":");
+			Json.chaine(builder, changement.getEncherisseur());
+			builder.append('}');
+		}
+		builder.append("]}");
+
+		response.setContentType("application/json");
+		response.setCharacterEncoding("UTF-8");
+		response.setHeader("Cache-Control", "no-cache");
+		response.getWriter().write(builder.toString());
+	}
+
+}
@@ -14,6 +14,7 @@ import javax.servlet.http.HttpSession;
 
 import fr.eni.javaee.encheres.bll.UtilisateurManager;
 import fr.eni.javaee.encheres.bo.Utilisateur;
+import fr.eni.javaee.encheres.bo.UtilisateurConnecte;
 import fr.eni.javaee.encheres.messages.BusinessException;
 
 /**
@@ -36,9 +37,10 @@ public class ServletProfil extends HttpServlet {
 		if(request.getServletPath().equals("/mon_profil"))
 		{
 			HttpSession session = request.getSession();
-			Utilisateur user = (Utilisateur) session.getAttribute("utilisateur");
-			UtilisateurManager manager = new UtilisateurManager();
-			int id = user.getNo_utilisateur();
+			UtilisateurConnecte connecte = (UtilisateurConnecte) session.getAttribute("utilisateur");
+			UtilisateurManager manager = UtilisateurManager.getInstance();
+			int id = connecte.getNo_utilisateur();
+			Utilisateur user = null;
 			try {
 				user = manager.getUtilisateur(id);
 				request.setAttribute("user", user);
@@ -52,7 +54,7 @@ public class ServletProfil extends HttpServlet {
 		//Si accès via lien vers vendeurs	
 		}else {
 			int no_utilisateur = Integer.parseInt(request.getParameter("user"));
-			UtilisateurManager manager = new UtilisateurManager();
+			UtilisateurManager manager = UtilisateurManager.getInstance();
 			Utilisateur user = new Utilisateur();
 			try {
 				user = manager.getUtilisateur(no_utilisateur);
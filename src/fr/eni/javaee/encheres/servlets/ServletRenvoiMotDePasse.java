@@ -10,10 +10,8 @@ import javax.servlet.annotation.WebServlet;
 import javax.servlet.http.HttpServlet;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
-import javax.servlet.http.HttpSession;
 
 import fr.eni.javaee.encheres.bll.UtilisateurManager;
-import fr.eni.javaee.encheres.bo.Utilisateur;
 import fr.eni.javaee.encheres.messages.BusinessException;
 
 /**
@@ -39,53 +37,26 @@ public class ServletRenvoiMotDePasse extends HttpServlet {
 		List<Integer> listeCodesErreur = new ArrayList<>();
 		
 		String email = request.getParameter("email");
-		String mdp = null;
-		List<Utilisateur> utilisateurs = new ArrayList<Utilisateur>();
-		UtilisateurManager manager = new UtilisateurManager();
 		try {
-			utilisateurs = manager.getListeUtilisateurs();
-			for (Utilisateur utilisateur : utilisateurs) {
-				String contact = utilisateur.getEmail();
-				if(contact.equals(email)) {
-					mdp = utilisateur.getMot_de_passe();
-					
-					//Procédé pour envoyer un mail -- voir javamail
-					/* Create mailer.
-			        String hostname = "smtp.example.com";
-			        int port = 2525;
-			        String username = "nobody";
-			        String password = "idonttellyou";
-			        Mailer mailer = new Mailer(hostname, port, username, password);
-
-			        // Send mail.
-			        String from = "john.doe@example.com";
-			        String to = email;
-			        String subject = "Demande de mot de passe";
-			        String message = "Votre mot de passe pour ENI-Enchères est : " + mdp;
-			        mailer.send(from, to, subject, message);
-			        */
-					request.setAttribute("email", email);
-					RequestDispatcher rd = request.getRequestDispatcher("/WEB-INF/jsp/renvoi.jsp");
-					rd.forward(request, response);
-			    }
-			}
-			//Si l'adresse email n'est pas en base de données
-			if (mdp == null) {
+			// recherche l'utilisateur par son email et met le courriel en file d'envoi
+			if (UtilisateurManager.getInstance().envoyerMotDePasse(email)) {
+				request.setAttribute("email", email);
+			} else {
+				//Si l'adresse email n'est pas en base de données
 				listeCodesErreur.add(CodesResultatServlets.ADRESSE_EMAIL_INCONNUE);
-				request.setAttribute("listeCodesErreur", listeCodesErreur);
-				RequestDispatcher rd = request.getRequestDispatcher("/WEB-INF/jsp/renvoi.jsp");
-				rd.forward(request, response);
 			}
 		} catch (BusinessException e) {
 			for (int err : e.getListeCodesErreur()) {
 				listeCodesErreur.add(err);
 			}
 			e.printStackTrace();
-			request.setAttribute("listeCodesErreur", listeCodesErreur);
-			RequestDispatcher rd = request.getRequestDispatcher("/WEB-INF/jsp/renvoi.jsp");
-			rd.forward(request, response);
 		}
 		
+		if (listeCodesErreur.size()>0) {
+			request.setAttribute("listeCodesErreur", listeCodesErreur);
+		}
+		RequestDispatcher rd = request.getRequestDispatcher("/WEB-INF/jsp/renvoi.jsp");
+		rd.forward(request, response);
 	}
 
 }
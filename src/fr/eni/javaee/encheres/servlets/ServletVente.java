@@ -22,11 +22,13 @@ import fr.eni.javaee.encheres.bll.ArticleVenduManager;
 import fr.eni.javaee.encheres.bll.CategorieManager;
 import fr.eni.javaee.encheres.bll.EnchereManager;
 import fr.eni.javaee.encheres.bll.RetraitManager;
+import fr.eni.javaee.encheres.bll.UtilisateurManager;
 import fr.eni.javaee.encheres.bo.ArticleVendu;
 import fr.eni.javaee.encheres.bo.Categorie;
 import fr.eni.javaee.encheres.bo.Enchere;
 import fr.eni.javaee.encheres.bo.Retrait;
 import fr.eni.javaee.encheres.bo.Utilisateur;
+import fr.eni.javaee.encheres.bo.UtilisateurConnecte;
 import fr.eni.javaee.encheres.messages.BusinessException;
 import fr.eni.javaee.encheres.messages.LecteurMessage;
 
@@ -82,7 +84,8 @@ public class ServletVente extends HttpServlet {
 				Utilisateur utilisateur = null;
 				HttpSession session=request.getSession();
 				if(session.getAttribute("utilisateur")!=null) {
-					utilisateur = (Utilisateur)session.getAttribute("utilisateur");
+					UtilisateurConnecte connecte = (UtilisateurConnecte)session.getAttribute("utilisateur");
+					utilisateur = UtilisateurManager.getInstance().getUtilisateur(connecte.getNo_utilisateur());
 					retrait = new Retrait();
 					retrait.setRue(utilisateur.getRue());
 					retrait.setCode_postal(utilisateur.getCode_postal());
@@ -126,7 +129,6 @@ public class ServletVente extends HttpServlet {
 		ArticleVendu articleVendu = null;
 		Retrait retrait = null;
 		ArticleVenduManager articleVenduManager = ArticleVenduManager.getInstance();
-		RetraitManager retraitManager = RetraitManager.getInstance();
 		
 		Boolean modifiable = Boolean.FALSE;
 		Boolean annulable = Boolean.FALSE;
@@ -145,15 +147,7 @@ public class ServletVente extends HttpServlet {
 				annulable = lireParametreBoolean(request, "isAnnulable", listeCodesErreur);
 				
 				// controle et enregistre l'article vendu et l'adresse de retrait
-				if (articleVendu.getNo_article()>0) {
-					articleVenduManager.updateArticleVendu(articleVendu);
-					retraitManager.updateRetrait(retrait);
-				}else
-				{
-					articleVenduManager.createArticleVendu(articleVendu);
-					retrait.getArticle().setNo_article(articleVendu.getNo_article());
-					retraitManager.createRetrait(retrait);
-				}
+				articleVenduManager.enregistrerVente(articleVendu, retrait);
 			}else
 			{
 				// supprime la vente
@@ -270,7 +264,9 @@ public class ServletVente extends HttpServlet {
 			// Le vendeur est l'utilisateur connecté
 			HttpSession session=request.getSession();
 			if(session.getAttribute("utilisateur")!=null) {
-				vendeur = (Utilisateur)session.getAttribute("utilisateur");
+				UtilisateurConnecte connecte = (UtilisateurConnecte)session.getAttribute("utilisateur");
+				vendeur = new Utilisateur();
+				vendeur.setNo_utilisateur(connecte.getNo_utilisateur());
 			}else
 			{
 				// demande à l'utilisateur de se connecter
@@ -0,0 +1,35 @@
+package fr.eni.javaee.encheres.utils;
+
+/**
+ * Courriel texte à envoyer, immuable : il peut être remis à la file d'envoi et lu par un autre thread.
+ */
+public final class Courriel {
+
+	private final String destinataire;
+	private final String sujet;
+	private final String texte;
+
+	public Courriel(String destinataire, String sujet, String texte) {
+		this.destinataire = destinataire;
+		this.sujet = sujet;
+		this.texte = texte;
+	}
+
+	public String getDestinataire() {
+		return destinataire;
+	}
+
+	public String getSujet() {
+		return sujet;
+	}
+
+	public String getTexte() {
+		return texte;
+	}
+
+	@Override
+	public String toString() {
+		return "Courriel [destinataire=" + destinataire + ", sujet=" + sujet + "]";
+	}
+
+}
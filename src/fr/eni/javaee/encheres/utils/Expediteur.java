@@ -0,0 +1,12 @@
+package fr.eni.javaee.encheres.utils;
+
+import java.io.IOException;
+
+/**
+ * Transport des courriels, appelé par le thread de FileCourriels.
+ */
+public interface Expediteur {
+
+	public void envoyer(Courriel courriel) throws IOException;
+
+}
@@ -0,0 +1,19 @@
+package fr.eni.javaee.encheres.utils;
+
+import java.util.logging.Logger;
+
+/**
+ * Expéditeur de substitution, utilisé quand aucun serveur SMTP n'est configuré :
+ * le destinataire et le sujet du courriel sont écrits dans le journal au lieu d'être envoyés.
+ * Le texte n'est jamais journalisé : il peut contenir un mot de passe.
+ */
+public class ExpediteurJournal implements Expediteur {
+
+	private static Logger logger = ErrorLogger.getLogger("ExpediteurJournal");
+
+	@Override
+	public void envoyer(Courriel courriel) {
+		logger.info("Courriel non envoyé (pas de serveur SMTP) : " + courriel);
+	}
+
+}
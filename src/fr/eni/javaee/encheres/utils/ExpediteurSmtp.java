@@ -0,0 +1,101 @@
+package fr.eni.javaee.encheres.utils;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Envoi SMTP minimal (sans authentification ni chiffrement), adapté à un relais local :
+ * serveur de l'hébergeur ou, en développement, un faux serveur SMTP (MailHog, smtp4dev...).
+ * Le sujet et le texte sont encodés en base64 : aucune extension SMTP n'est requise.
+ */
+public class ExpediteurSmtp implements Expediteur {
+
+	private static final int DELAI_MS = 10000;
+	private static final int LONGUEUR_LIGNE_BASE64 = 76;
+
+	private final String hote;
+	private final int port;
+	private final String adresseExpediteur;
+
+	public ExpediteurSmtp(String hote, int port, String adresseExpediteur) {
+		this.hote = hote;
+		this.port = port;
+		this.adresseExpediteur = adresseExpediteur;
+	}
+
+	@Override
+	public void envoyer(Courriel courriel) throws IOException {
+		// une fin de ligne dans l'adresse injecterait des commandes SMTP
+		if (courriel.getDestinataire() == null || courriel.getDestinataire().matches("(?s).*[\\r\\n<>].*")) {
+			throw new IOException("Adresse invalide : " + courriel.getDestinataire());
+		}
+		try (Socket socket = new Socket()) {
+			socket.connect(new InetSocketAddress(hote, port), DELAI_MS);
+			socket.setSoTimeout(DELAI_MS);
+			BufferedReader entree = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+			OutputStream sortie = socket.getOutputStream();
+
+			attendre(entree, 220);
+			commande(sortie, entree, "HELO " + socket.getLocalAddress().getHostName(), 250);
+			commande(sortie, entree, "MAIL FROM:<" + adresseExpediteur + ">", 250);
+			commande(sortie, entree, "RCPT TO:<" + courriel.getDestinataire() + ">", 250);
+			commande(sortie, entree, "DATA", 354);
+			ecrire(sortie, message(courriel));
+			commande(sortie, entree, ".", 250);
+			commande(sortie, entree, "QUIT", 221);
+		}
+	}
+
+	// En-têtes et texte du message, terminés par une ligne vide avant le point final
+	private String message(Courriel courriel) {
+		StringBuilder message = new StringBuilder();
+		message.append("From: <").append(adresseExpediteur).append(">\r\n");
+		message.append("To: <").append(courriel.getDestinataire()).append(">\r\n");
+		message.append("Subject: =?UTF-8?B?").append(base64(courriel.getSujet())).append("?=\r\n");
+		message.append("MIME-Version: 1.0\r\n");
+		message.append("Content-Type: text/plain; charset=UTF-8\r\n");
+		message.append("Content-Transfer-Encoding: base64\r\n");
+		message.append("\r\n");
+		// les lignes base64 ne commencent jamais par un point : pas de doublement nécessaire
+		String texte = base64(courriel.getTexte());
+		for (int debut = 0; debut < texte.length(); debut += LONGUEUR_LIGNE_BASE64) {
+			message.append(texte, debut, Math.min(texte.length(), debut + LONGUEUR_LIGNE_BASE64)).append("\r\n");
+		}
+		return message.toString();
+	}
+
+	private static String base64(String texte) {
+		return Base64.getEncoder().encodeToString((texte == null ? "" : texte).getBytes(StandardCharsets.UTF_8));
+	}
+
+	private static void commande(OutputStream sortie, BufferedReader entree, String commande, int codeAttendu) throws IOException {
+		ecrire(sortie, commande + "\r\n");
+		attendre(entree, codeAttendu);
+	}
+
+	private static void ecrire(OutputStream sortie, String texte) throws IOException {
+		sortie.write(texte.getBytes(StandardCharsets.US_ASCII));
+		sortie.flush();
+	}
+
+	// Lit la réponse du serveur, éventuellement sur plusieurs lignes ("250-..." puis "250 ...")
+	private static void attendre(BufferedReader entree, int codeAttendu) throws IOException {
+		String ligne;
+		do {
+			ligne = entree.readLine();
+			if (ligne == null) {
+				throw new IOException("Connexion SMTP interrompue");
+			}
+		} while (ligne.length() > 3 && ligne.charAt(3) == '-');
+		if (!ligne.startsWith(String.valueOf(codeAttendu))) {
+			throw new IOException("Réponse SMTP inattendue : " + ligne);
+		}
+	}
+
+}
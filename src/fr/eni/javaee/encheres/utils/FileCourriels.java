@@ -0,0 +1,84 @@
+package fr.eni.javaee.encheres.utils;
+
+import java.io.IOException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * File d'envoi des courriels.
+ * Déposer un courriel ne fait que le mettre en file : un thread d'arrière-plan l'envoie ensuite,
+ * la requête HTTP n'attend ni le serveur SMTP ni ses délais. Un envoi en échec est retenté
+ * TENTATIVES fois à intervalles croissants, puis abandonné et journalisé.
+ * L'expéditeur est choisi au démarrage (EcouteurDemarrage) : SMTP si un serveur est configuré,
+ * journal sinon. La file est construite une fois par le Registre, qui l'arrête avec le moteur d'enchères.
+ */
+public class FileCourriels {
+
+	private static Logger logger = ErrorLogger.getLogger("FileCourriels");
+
+	private static final int TENTATIVES = 3;
+	private static final long DELAI_NOUVELLE_TENTATIVE_S = 30;
+	// Au-delà, les nouveaux courriels sont refusés plutôt que d'accumuler la mémoire
+	private static final int TAILLE_MAX = 1000;
+
+	private final ScheduledThreadPoolExecutor envoi = new ScheduledThreadPoolExecutor(1, r -> {
+		Thread thread = new Thread(r, "envoi-courriels");
+		thread.setDaemon(true);
+		return thread;
+	});
+	private volatile Expediteur expediteur = new ExpediteurJournal();
+
+	//Construit la file sans démarrer de thread : il n'est créé qu'au premier courriel
+	public FileCourriels() {
+	}
+
+	public void setExpediteur(Expediteur expediteur) {
+		this.expediteur = expediteur;
+	}
+
+	/**
+	 * Met le courriel en file d'envoi
+	 * @return boolean false si la file est pleine ou arrêtée : le courriel ne sera pas envoyé
+	 */
+	public boolean deposer(Courriel courriel) {
+		if (envoi.getQueue().size() >= TAILLE_MAX) {
+			logger.warning("File des courriels pleine, courriel abandonné : " + courriel);
+			return false;
+		}
+		try {
+			envoi.execute(() -> envoyer(courriel, 1));
+			return true;
+		} catch (RejectedExecutionException e) {
+			logger.warning("File des courriels arrêtée, courriel abandonné : " + courriel);
+			return false;
+		}
+	}
+
+	private void envoyer(Courriel courriel, int tentative) {
+		try {
+			expediteur.envoyer(courriel);
+		} catch (IOException | RuntimeException e) {
+			if (tentative < TENTATIVES) {
+				logger.warning("Envoi en échec (tentative " + tentative + ") : " + courriel + " : " + e.getMessage());
+				try {
+					envoi.schedule(() -> envoyer(courriel, tentative + 1), DELAI_NOUVELLE_TENTATIVE_S * tentative, TimeUnit.SECONDS);
+				} catch (RejectedExecutionException arretee) {
+					logger.severe("Courriel abandonné à l'arrêt : " + courriel);
+				}
+			} else {
+				logger.severe("Courriel abandonné après " + TENTATIVES + " tentatives : " + courriel + " : " + e.getMessage());
+			}
+		}
+	}
+
+	//Arrête la file à l'arrêt de l'application, les courriels en attente sont abandonnés
+	public void arreter() {
+		int enAttente = envoi.shutdownNow().size();
+		if (enAttente > 0) {
+			logger.warning(enAttente + " courriel(s) non envoyé(s) à l'arrêt");
+		}
+	}
+
+}